@@ -0,0 +1,99 @@
+#!/usr/bin/env python3
+"""Generate the bundled demo ONNX risk model without any third-party packages.
+
+The model is a logistic regression over the five heuristic feature scores
+(amount, velocity, device, location, merchant), each in [0, 1]:
+
+    risk = sigmoid(features @ W + b)
+
+Input  "features": float32 [batch, 5]
+Output "risk":     float32 [batch, 1]
+
+The weights mirror the heuristic weights (scaled by 8, centred at 0.5), so the
+model ranks transactions like the heuristic. It exists to exercise the ONNX
+path locally; replace it with a trained model for production.
+
+Usage: ./scripts/generate-onnx-model.py [output-path]
+"""
+
+import struct
+import sys
+
+OUTPUT = sys.argv[1] if len(sys.argv) > 1 else "src/main/resources/models/risk-logreg-v1.onnx"
+
+WEIGHTS = [2.0, 2.4, 1.6, 1.2, 0.8]
+BIAS = -4.0
+FEATURES = len(WEIGHTS)
+
+FLOAT = 1  # TensorProto.DataType.FLOAT
+
+
+# --- Minimal protobuf encoding -------------------------------------------
+
+def varint(value):
+    out = bytearray()
+    while True:
+        byte = value & 0x7F
+        value >>= 7
+        if value:
+            out.append(byte | 0x80)
+        else:
+            out.append(byte)
+            return bytes(out)
+
+
+def field_varint(number, value):
+    return varint(number << 3) + varint(value)
+
+
+def field_bytes(number, payload):
+    if isinstance(payload, str):
+        payload = payload.encode("utf-8")
+    return varint((number << 3) | 2) + varint(len(payload)) + payload
+
+
+# --- ONNX messages (field numbers from onnx.proto) -------------------------
+
+def tensor(name, dims, values):
+    raw = struct.pack("<%df" % len(values), *values)
+    return (b"".join(field_varint(1, d) for d in dims)
+            + field_varint(2, FLOAT)
+            + field_bytes(8, name)
+            + field_bytes(9, raw))
+
+
+def value_info(name, dims):
+    shape = b"".join(
+        field_bytes(1, field_bytes(2, d) if isinstance(d, str) else field_varint(1, d))
+        for d in dims)
+    tensor_type = field_varint(1, FLOAT) + field_bytes(2, shape)
+    return field_bytes(1, name) + field_bytes(2, field_bytes(1, tensor_type))
+
+
+def node(op_type, inputs, outputs, name):
+    return (b"".join(field_bytes(1, i) for i in inputs)
+            + b"".join(field_bytes(2, o) for o in outputs)
+            + field_bytes(3, name)
+            + field_bytes(4, op_type))
+
+
+graph = (field_bytes(1, node("MatMul", ["features", "W"], ["logits_raw"], "matmul"))
+         + field_bytes(1, node("Add", ["logits_raw", "B"], ["logits"], "bias"))
+         + field_bytes(1, node("Sigmoid", ["logits"], ["risk"], "sigmoid"))
+         + field_bytes(2, "risk-logreg")
+         + field_bytes(5, tensor("W", [FEATURES, 1], WEIGHTS))
+         + field_bytes(5, tensor("B", [1], [BIAS]))
+         + field_bytes(11, value_info("features", ["batch", FEATURES]))
+         + field_bytes(12, value_info("risk", ["batch", 1])))
+
+model = (field_varint(1, 8)                                  # ir_version
+         + field_bytes(2, "fraud-decision-engine")           # producer_name
+         + field_bytes(3, "1")                               # producer_version
+         + field_varint(5, 1)                                # model_version
+         + field_bytes(7, graph)
+         + field_bytes(8, field_bytes(1, "") + field_varint(2, 13)))  # opset_import
+
+with open(OUTPUT, "wb") as f:
+    f.write(model)
+
+print("Wrote %s (%d bytes)" % (OUTPUT, len(model)))
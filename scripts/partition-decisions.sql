@@ -0,0 +1,34 @@
+-- Converts an unpartitioned decisions table (created by ddl-auto before the
+-- audit table was partitioned) into the layout of schema-postgresql.sql.
+--
+-- The old table becomes the partition for everything before the next UTC
+-- midnight, keeping its rows and indexes, and is archived by the retention
+-- job like any other partition once that is past retention. Attaching builds
+-- the (id, timestamp) primary key index on it, so run this with the decision
+-- service stopped, from the repository root:
+--
+--   psql -v ON_ERROR_STOP=1 -d decision_db -f scripts/partition-decisions.sql
+
+BEGIN;
+
+SELECT (date_trunc('day', now() AT TIME ZONE 'UTC') + INTERVAL '1 day') AT TIME ZONE 'UTC' AS cutover \gset
+
+ALTER TABLE decisions RENAME TO decisions_legacy;
+-- Index names are per schema; free them for the partitioned table
+ALTER INDEX IF EXISTS idx_user_timestamp_id RENAME TO decisions_legacy_user_timestamp_id;
+ALTER INDEX IF EXISTS idx_timestamp RENAME TO decisions_legacy_timestamp;
+ALTER INDEX IF EXISTS idx_outcome RENAME TO decisions_legacy_outcome;
+-- A partition takes its IDs from the parent's identity
+ALTER TABLE decisions_legacy ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+\i src/main/resources/schema-postgresql.sql
+
+-- Proves the range up front so that attaching does not scan the table again
+ALTER TABLE decisions_legacy ADD CONSTRAINT decisions_legacy_range CHECK (timestamp < :'cutover');
+ALTER TABLE decisions ATTACH PARTITION decisions_legacy FOR VALUES FROM (MINVALUE) TO (:'cutover');
+ALTER TABLE decisions_legacy DROP CONSTRAINT decisions_legacy_range;
+
+-- New rows take IDs after the old ones
+SELECT setval(pg_get_serial_sequence('decisions', 'id'), (SELECT coalesce(max(id), 0) + 1 FROM decisions_legacy), false);
+
+COMMIT;
@@ -0,0 +1,60 @@
+#!/bin/bash
+
+# Run JMH microbenchmarks and compare against the committed baseline
+#
+# Usage: ./scripts/run-benchmarks.sh [benchmark-regex] [max-regression-percent]
+
+cd "$(dirname "$0")/.." || exit 1
+
+BENCHMARKS="${1:-MLScoringBenchmark|DecisionServiceBenchmark}"
+MAX_REGRESSION="${2:-10}"
+BASELINE="docs/benchmarks/jmh-baseline.json"
+RESULT="target/jmh-result.json"
+
+echo "Running benchmarks: $BENCHMARKS"
+
+# The wrapper is optional; fall back to the Maven on the PATH
+MVN="./mvnw"
+[ -x "$MVN" ] || MVN="mvn"
+
+$MVN -q -P jmh test-compile exec:exec \
+    -Djmh.args="$BENCHMARKS -prof gc -rf json -rff $RESULT" || exit 1
+
+if [ ! -f "$BASELINE" ]; then
+    echo "No baseline at $BASELINE, skipping comparison"
+    exit 0
+fi
+
+echo ""
+echo "Comparing with $BASELINE (fail above ${MAX_REGRESSION}% regression)"
+
+python3 - "$BASELINE" "$RESULT" "$MAX_REGRESSION" <<'PY'
+import json
+import sys
+
+baseline_file, result_file, max_regression = sys.argv[1], sys.argv[2], float(sys.argv[3])
+
+def load(path):
+    return {(b["benchmark"], b["mode"], json.dumps(b.get("params", {}), sort_keys=True)): b
+            for b in json.load(open(path))}
+
+baseline, result = load(baseline_file), load(result_file)
+failed = False
+
+print(f"{'Benchmark':<60} {'Mode':<7} {'Baseline':>12} {'Current':>12} {'Change':>8} {'B/op':>8}")
+for key, current in sorted(result.items()):
+    if key not in baseline:
+        continue
+    name, mode, _ = key
+    before = baseline[key]["primaryMetric"]["score"]
+    after = current["primaryMetric"]["score"]
+    # Throughput is better when higher, sample/average time when lower
+    change = (after - before) / before * 100
+    regression = -change if mode == "thrpt" else change
+    alloc = current["secondaryMetrics"].get("gc.alloc.rate.norm", {}).get("score", 0.0)
+    marker = " !" if regression > max_regression else ""
+    failed |= regression > max_regression
+    print(f"{name.split('.', 4)[-1]:<60} {mode:<7} {before:>12.3f} {after:>12.3f} {change:>+7.1f}% {alloc:>8.0f}{marker}")
+
+sys.exit(1 if failed else 0)
+PY
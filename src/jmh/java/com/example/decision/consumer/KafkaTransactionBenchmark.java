@@ -0,0 +1,135 @@
+package com.example.decision.consumer;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.serde.WireFormat;
+import com.example.decision.serde.WireSerializer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.test.EmbeddedKafkaZKBroker;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of publishing one poll batch of decisions and committing its offsets,
+ * at-least-once (async sends, then a synchronous offset commit) versus
+ * exactly-once (sends and offsets in one Kafka transaction), against an
+ * embedded single-node broker. One operation is one batch, so records per
+ * second are the score times {@code batchSize}. Evaluation is not included;
+ * {@code DecisionServiceBenchmark} covers it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaTransactionBenchmark {
+
+    private static final String INPUT = "txn-events";
+    private static final String OUTPUT = "decision-results";
+    private static final TopicPartition INPUT_PARTITION = new TopicPartition(INPUT, 0);
+
+    @Param({"at-least-once", "exactly-once"})
+    public String delivery;
+
+    @Param({"1", "50", "500"})
+    public int batchSize;
+
+    private EmbeddedKafkaZKBroker broker;
+    private KafkaProducer<String, Object> producer;
+    private KafkaConsumer<String, byte[]> consumer;
+    private Decision[] decisions;
+    private boolean exactlyOnce;
+    private long offset;
+
+    @Setup
+    public void setUp() {
+        broker = new EmbeddedKafkaZKBroker(1, false, 1, INPUT, OUTPUT);
+        broker.brokerProperties(Map.of(
+            "transaction.state.log.replication.factor", "1",
+            "transaction.state.log.min.isr", "1"));
+        broker.afterPropertiesSet();
+        exactlyOnce = delivery.equals("exactly-once");
+
+        Map<String, Object> producerProps = new HashMap<>();
+        producerProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        producerProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireSerializer.class);
+        producerProps.put(WireFormat.CONFIG, WireFormat.BINARY);
+        producerProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        if (exactlyOnce) {
+            producerProps.put(ProducerConfig.TRANSACTIONAL_ID_CONFIG, "decision-tx-bench");
+        }
+        producer = new KafkaProducer<>(producerProps);
+        if (exactlyOnce) {
+            producer.initTransactions();
+        }
+
+        Map<String, Object> consumerProps = new HashMap<>();
+        consumerProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        consumerProps.put(ConsumerConfig.GROUP_ID_CONFIG, "decision-service-bench");
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumer = new KafkaConsumer<>(consumerProps, new StringDeserializer(), new ByteArrayDeserializer());
+        consumer.assign(List.of(INPUT_PARTITION));
+
+        decisions = new Decision[batchSize];
+        for (int i = 0; i < batchSize; i++) {
+            decisions[i] = new Decision("txn-" + i, "user-" + (i % 64), DecisionOutcome.APPROVE, 12.5,
+                List.of("LOW_RISK"), "v1", 3, Instant.parse("2025-11-10T10:30:00.127Z"));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        producer.close();
+        consumer.close();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public void publishBatch() {
+        offset += batchSize;
+        Map<TopicPartition, OffsetAndMetadata> offsets = Map.of(INPUT_PARTITION, new OffsetAndMetadata(offset));
+        if (exactlyOnce) {
+            producer.beginTransaction();
+            send();
+            producer.sendOffsetsToTransaction(offsets, consumer.groupMetadata());
+            producer.commitTransaction();
+        } else {
+            send();
+            consumer.commitSync(offsets);
+        }
+    }
+
+    private void send() {
+        for (Decision decision : decisions) {
+            producer.send(new ProducerRecord<>(OUTPUT, decision.transactionId(), decision));
+        }
+    }
+}
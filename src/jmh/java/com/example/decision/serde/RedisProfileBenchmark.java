@@ -0,0 +1,66 @@
+package com.example.decision.serde;
+
+import com.example.decision.model.UserProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading and writing one cached profile: typed JSON followed by the
+ * {@code convertValue} that {@code FeatureService} used to need, versus the
+ * binary layout of {@link CompactRedisSerializer}. Value sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisProfileBenchmark {
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RedisSerializer<Object> serializer;
+    private UserProfile profile;
+    private byte[] bytes;
+
+    @Setup
+    public void setUp() {
+        serializer = format.equals("binary")
+            ? new CompactRedisSerializer(true)
+            : new GenericJackson2JsonRedisSerializer();
+        profile = new UserProfile("user-004217", new BigDecimal("87.42"), "US",
+            Set.of("device-8a1b2c3d", "device-4e5f6a7b", "device-0c1d2e3f"),
+            Set.of("Amazon", "Walmart", "Target", "Starbucks", "Uber"), 318, false);
+        bytes = serializer.serialize(profile);
+        System.out.printf("%n[%s] profile: %d bytes%n", format, bytes.length);
+    }
+
+    @Benchmark
+    public byte[] write() {
+        return serializer.serialize(profile);
+    }
+
+    @Benchmark
+    public UserProfile read() {
+        Object cached = serializer.deserialize(bytes);
+        return cached instanceof UserProfile p ? p : objectMapper.convertValue(cached, UserProfile.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.decision.serde;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.StageTimings;
+import com.example.decision.model.Transaction;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kafka value serde per message, JSON versus {@link BinaryCodec}, through the
+ * same {@link WireSerializer} / {@link WireDeserializer} the listeners and
+ * producer use (headers included). Message sizes are printed at setup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private static final String TOPIC = "txn-events";
+
+    @Param({"json", "binary"})
+    public String format;
+
+    private WireSerializer serializer;
+    private WireDeserializer deserializer;
+    private Transaction transaction;
+    private Decision decision;
+    private byte[] transactionBytes;
+    private RecordHeaders transactionHeaders;
+    private byte[] decisionBytes;
+    private RecordHeaders decisionHeaders;
+
+    @Setup
+    public void setUp() {
+        serializer = new WireSerializer();
+        serializer.configure(Map.of(WireFormat.CONFIG, format), false);
+        deserializer = new WireDeserializer();
+        // The same headers are read on every call, so the JSON delegate must leave its type headers in place
+        deserializer.configure(Map.of(
+            JsonDeserializer.TRUSTED_PACKAGES, "com.example.decision.model",
+            JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false), false);
+
+        transaction = new Transaction("txn-7f3c2a91-0b4e-4d7a-9c1e-5a6b7c8d9e0f", "user-004217",
+            new BigDecimal("149.99"), "USD", "Amazon", "retail", "device-8a1b2c3d", "US",
+            Instant.parse("2025-11-10T10:30:00.123Z"));
+        decision = new Decision(transaction.transactionId(), transaction.userId(), DecisionOutcome.REVIEW, 67.5,
+            List.of("HIGH_AMOUNT", "NEW_DEVICE"), "v1", 4, Instant.parse("2025-11-10T10:30:00.127Z"),
+            List.of(), new StageTimings(812_000, 64_000, 121_000, 0, 0, 1_004_000));
+
+        transactionHeaders = new RecordHeaders();
+        transactionBytes = serializer.serialize(TOPIC, transactionHeaders, transaction);
+        decisionHeaders = new RecordHeaders();
+        decisionBytes = serializer.serialize(TOPIC, decisionHeaders, decision);
+        System.out.printf("%n[%s] transaction: %d bytes, decision: %d bytes%n",
+            format, transactionBytes.length, decisionBytes.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serializeTransaction() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), transaction);
+    }
+
+    @Benchmark
+    public Object deserializeTransaction() {
+        return deserializer.deserialize(TOPIC, transactionHeaders, transactionBytes);
+    }
+
+    @Benchmark
+    public byte[] serializeDecision() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), decision);
+    }
+
+    @Benchmark
+    public Object deserializeDecision() {
+        return deserializer.deserialize(TOPIC, decisionHeaders, decisionBytes);
+    }
+}
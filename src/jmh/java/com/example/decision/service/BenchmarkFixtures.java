@@ -0,0 +1,54 @@
+package com.example.decision.service;
+
+import com.example.decision.model.FeatureSnapshot;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shared inputs for the decision hot-path benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static Transaction transaction(String amount, String deviceId, String location) {
+        return new Transaction(
+            "txn-bench",
+            "user-bench",
+            new BigDecimal(amount),
+            "USD",
+            "Merchant-A",
+            "RETAIL",
+            deviceId,
+            location,
+            Instant.now()
+        );
+    }
+
+    static UserProfile profile() {
+        return new UserProfile(
+            "user-bench",
+            new BigDecimal("1000.00"),
+            "US",
+            Set.of("device-1", "device-2"),
+            Set.of("Merchant-A"),
+            40,
+            false
+        );
+    }
+
+    static FeatureSnapshot features(UserProfile profile, int velocity1m, int velocity5m) {
+        return new FeatureSnapshot(profile, Map.of(
+            Duration.ofMinutes(1), velocity1m,
+            Duration.ofMinutes(5), velocity5m,
+            Duration.ofMinutes(10), velocity5m
+        ));
+    }
+}
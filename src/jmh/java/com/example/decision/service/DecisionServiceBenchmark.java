@@ -0,0 +1,134 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decision orchestration with in-memory stand-ins for Redis, Postgres and Kafka,
+ * so only the engine's own CPU and allocation cost is measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecisionServiceBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    /** Drools is the production default; the compiled Java rules are the fast path. */
+    @Param({"DROOLS", "JAVA"})
+    private RuleEngineService.Engine engine;
+
+    private DecisionService decisionService;
+    private DecisionService replayService;
+    private Transaction transaction;
+    private List<Transaction> batch;
+    private RuleResult ruleResult;
+
+    @Setup
+    public void setUp() {
+        RuleEngineService ruleEngineService = new RuleEngineService();
+        ReflectionTestUtils.setField(ruleEngineService, "engine", engine);
+        ruleEngineService.init();
+        UserProfile profile = BenchmarkFixtures.profile();
+        MLScoringService scoringService = new MLScoringService(new SimpleMeterRegistry());
+        scoringService.init();
+
+        DependencyGuard dependencyGuard =
+            new DependencyGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        dependencyGuard.init();
+        // Prometheus is the production registry; its histograms are cheaper to record than SimpleMeterRegistry's
+        DecisionMetrics decisionMetrics = new DecisionMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        decisionMetrics.init();
+
+        // The same transaction is evaluated over and over, so duplicate detection is off here
+        DecisionDeduplicator noDedup = new DecisionDeduplicator(null, dependencyGuard, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(noDedup, "enabled", false);
+        noDedup.init();
+        decisionService = newDecisionService(ruleEngineService, profile, scoringService, dependencyGuard,
+                                             noDedup, decisionMetrics);
+
+        transaction = BenchmarkFixtures.transaction("250.00", "device-1", "US");
+
+        DecisionDeduplicator deduplicator = new DecisionDeduplicator(null, dependencyGuard, new SimpleMeterRegistry());
+        deduplicator.init();
+        replayService = newDecisionService(ruleEngineService, profile, scoringService, dependencyGuard,
+                                           deduplicator, decisionMetrics);
+        replayService.evaluate(transaction);
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(transaction);
+        }
+        ruleResult = ruleEngineService.evaluate(transaction, profile, 1, 3);
+    }
+
+    private static DecisionService newDecisionService(RuleEngineService ruleEngineService, UserProfile profile,
+                                                      MLScoringService scoringService,
+                                                      DependencyGuard dependencyGuard,
+                                                      DecisionDeduplicator deduplicator,
+                                                      DecisionMetrics decisionMetrics) {
+        InMemoryKafkaTemplate kafkaTemplate = new InMemoryKafkaTemplate();
+        return new DecisionService(
+            ruleEngineService,
+            new InMemoryFeatureService(BenchmarkFixtures.features(profile, 1, 3)),
+            scoringService,
+            new InMemoryAuditWriter(),
+            kafkaTemplate,
+            dependencyGuard,
+            deduplicator,
+            decisionMetrics,
+            // Not initialized, so shadow evaluation is off
+            new ShadowEvaluator(ruleEngineService, scoringService, kafkaTemplate, new SimpleMeterRegistry()),
+            new DecisionStatistics()
+        );
+    }
+
+    @Benchmark
+    public DecisionOutcome determineOutcome() {
+        return DecisionService.determineOutcome(ruleResult, 42.5);
+    }
+
+    @Benchmark
+    public Decision evaluate() {
+        return decisionService.evaluate(transaction);
+    }
+
+    /** A redelivered transaction, answered from the recent-decision cache. */
+    @Benchmark
+    public Decision evaluateReplay() {
+        return replayService.evaluate(transaction);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<DecisionService.BatchItem> evaluateBatch() {
+        return decisionService.evaluateBatch(batch);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.repository.DecisionBatchRepository.Timings;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Audit writer stand-in that counts rows instead of writing to Postgres.
+ */
+final class InMemoryAuditWriter extends AuditWriter {
+
+    private static final CompletableFuture<Void> WRITTEN = CompletableFuture.completedFuture(null);
+
+    long rows;
+
+    InMemoryAuditWriter() {
+        super(null, null, null, null);
+    }
+
+    @Override
+    public boolean isAckAfterFlush() {
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Void> write(DecisionEntity entity) {
+        rows++;
+        return WRITTEN;
+    }
+
+    @Override
+    public List<CompletableFuture<Void>> writeAll(List<DecisionEntity> entities) {
+        rows += entities.size();
+        return entities.stream().map(entity -> WRITTEN).toList();
+    }
+
+    @Override
+    public void writeTimings(List<Timings> rows) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.decision.service;
+
+import com.example.decision.model.FeatureSnapshot;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Feature service stand-in that serves a fixed snapshot without Redis.
+ */
+final class InMemoryFeatureService extends FeatureService {
+
+    private final FeatureSnapshot snapshot;
+
+    InMemoryFeatureService(FeatureSnapshot snapshot) {
+        super(null, null, null, null, null, null);
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public FeatureSnapshot fetchFeatures(String userId) {
+        return snapshot;
+    }
+
+    @Override
+    public FeatureSnapshot fetchFeatures(String userId, LatencyBudget budget) {
+        return snapshot;
+    }
+
+    @Override
+    public Map<String, FeatureSnapshot> fetchFeatures(Collection<String> userIds) {
+        Map<String, FeatureSnapshot> snapshots = new HashMap<>();
+        userIds.forEach(userId -> snapshots.put(userId, snapshot));
+        return snapshots;
+    }
+
+    @Override
+    public void incrementVelocity(String userId) {
+    }
+
+    @Override
+    public void incrementVelocity(Collection<String> userIds) {
+    }
+}
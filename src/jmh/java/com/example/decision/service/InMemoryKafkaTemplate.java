@@ -0,0 +1,31 @@
+package com.example.decision.service;
+
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Kafka template stand-in whose sends complete immediately without a broker.
+ */
+final class InMemoryKafkaTemplate extends KafkaTemplate<String, Object> {
+
+    private static final CompletableFuture<SendResult<String, Object>> SENT =
+        CompletableFuture.completedFuture(null);
+
+    long sent;
+
+    @SuppressWarnings("unchecked")
+    InMemoryKafkaTemplate() {
+        super((ProducerFactory<String, Object>) () -> {
+            throw new UnsupportedOperationException("No broker in benchmarks");
+        });
+    }
+
+    @Override
+    public CompletableFuture<SendResult<String, Object>> send(String topic, String key, Object data) {
+        sent++;
+        return SENT;
+    }
+}
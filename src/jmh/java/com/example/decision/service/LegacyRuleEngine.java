@@ -0,0 +1,93 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+
+/**
+ * The interpreted rule set as it was before {@code CompiledRuleSet}, kept as
+ * the "before" baseline for {@link RuleEngineBenchmark}. Not used in production.
+ */
+final class LegacyRuleEngine {
+
+    RuleResult evaluate(Transaction transaction, UserProfile profile,
+                        int velocity1m, int velocity5m) {
+        RuleResult result = new RuleResult();
+        result.setRuleVersion("v1");
+
+        applySimpleRules(transaction, profile, velocity1m, velocity5m, result);
+
+        // The old getters copied their lists; the debug log argument paid for that eagerly
+        new ArrayList<>(result.getFiredRules()).size();
+
+        return result;
+    }
+
+    private void applySimpleRules(Transaction txn, UserProfile profile, 
+                                  int velocity1m, int velocity5m, RuleResult result) {
+        
+        // Rule 1: High amount with new device -> REJECT
+        if (txn.amount().compareTo(new BigDecimal("10000")) > 0 
+            && profile.isNewDevice(txn.deviceId())) {
+            result.setSuggestedOutcome(DecisionOutcome.REJECT);
+            result.addFiredRule("HIGH_AMOUNT_NEW_DEVICE");
+            result.addReasonCode("HIGH_AMOUNT_NEW_DEVICE");
+            return;
+        }
+
+        // Rule 2: High velocity -> REJECT
+        if (velocity1m >= 5) {
+            result.setSuggestedOutcome(DecisionOutcome.REJECT);
+            result.addFiredRule("HIGH_VELOCITY_1M");
+            result.addReasonCode("HIGH_VELOCITY");
+            return;
+        }
+
+        // Rule 3: Medium velocity -> REVIEW
+        if (velocity5m >= 10) {
+            result.setSuggestedOutcome(DecisionOutcome.REVIEW);
+            result.addFiredRule("MEDIUM_VELOCITY_5M");
+            result.addReasonCode("ELEVATED_VELOCITY");
+        }
+
+        // Rule 4: New device with unusual location -> REVIEW
+        if (profile.isNewDevice(txn.deviceId()) 
+            && profile.isUnusualLocation(txn.location())) {
+            result.setSuggestedOutcome(DecisionOutcome.REVIEW);
+            result.addFiredRule("NEW_DEVICE_UNUSUAL_LOCATION");
+            result.addReasonCode("NEW_DEVICE");
+            result.addReasonCode("UNUSUAL_LOCATION");
+        }
+
+        // Rule 5: Very high amount -> REVIEW (even if trusted)
+        if (txn.amount().compareTo(new BigDecimal("5000")) > 0) {
+            if (result.getSuggestedOutcome() == null) {
+                result.setSuggestedOutcome(DecisionOutcome.REVIEW);
+            }
+            result.addFiredRule("HIGH_AMOUNT_THRESHOLD");
+            result.addReasonCode("HIGH_AMOUNT");
+        }
+
+        // Rule 6: Amount significantly higher than average -> REVIEW
+        if (profile.averageTransactionAmount() != null) {
+            BigDecimal threshold = profile.averageTransactionAmount().multiply(new BigDecimal("5"));
+            if (txn.amount().compareTo(threshold) > 0) {
+                if (result.getSuggestedOutcome() == null) {
+                    result.setSuggestedOutcome(DecisionOutcome.REVIEW);
+                }
+                result.addFiredRule("AMOUNT_DEVIATION");
+                result.addReasonCode("AMOUNT_ANOMALY");
+            }
+        }
+
+        // Default: APPROVE if no rules fired
+        if (result.getSuggestedOutcome() == null) {
+            result.setSuggestedOutcome(DecisionOutcome.APPROVE);
+            result.addFiredRule("DEFAULT_APPROVE");
+        }
+    }
+}
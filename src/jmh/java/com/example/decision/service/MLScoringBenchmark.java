@@ -0,0 +1,55 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heuristic risk scoring for a typical transaction: the primitive scoring path
+ * against the previous BigDecimal arithmetic ({@link LegacyMLScoringService}).
+ * Run with {@code -prof gc} to see allocation per score.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MLScoringBenchmark {
+
+    private MLScoringService scoringService;
+    private LegacyMLScoringService legacyScoringService;
+    private Transaction transaction;
+    private UserProfile profile;
+
+    @Setup
+    public void setUp() {
+        scoringService = new MLScoringService(new SimpleMeterRegistry());
+        scoringService.init();
+        legacyScoringService = new LegacyMLScoringService();
+        transaction = BenchmarkFixtures.transaction("2500.00", "device-9", "CA");
+        profile = BenchmarkFixtures.profile();
+    }
+
+    @Benchmark
+    public double calculateRiskScore() {
+        return scoringService.calculateRiskScore(transaction, profile, 2, 6);
+    }
+
+    @Benchmark
+    public double legacyCalculateRiskScore() {
+        return legacyScoringService.calculateRiskScore(transaction, profile, 2, 6);
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.decision.service;
+
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drools (executable model, stateless session) and the compiled Java rule set
+ * versus the previous interpreted rules. All three fire the same rules.
+ * Run with {@code -prof gc} to see allocation per evaluation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RuleEngineBenchmark {
+
+    /** approve: no rule fires; review: several review rules fire; reject: high amount on new device. */
+    @Param({"approve", "review", "reject"})
+    private String scenario;
+
+    private RuleEngineService compiled;
+    private RuleEngineService drools;
+    private LegacyRuleEngine legacy;
+    private Transaction transaction;
+    private UserProfile profile;
+    private int velocity1m;
+    private int velocity5m;
+
+    @Setup
+    public void setUp() {
+        compiled = new RuleEngineService();
+        ReflectionTestUtils.setField(compiled, "engine", RuleEngineService.Engine.JAVA);
+        compiled.init();
+        drools = new RuleEngineService();
+        ReflectionTestUtils.setField(drools, "engine", RuleEngineService.Engine.DROOLS);
+        drools.init();
+        legacy = new LegacyRuleEngine();
+
+        switch (scenario) {
+            case "review" -> {
+                transaction = BenchmarkFixtures.transaction("6000.00", "device-9", "CA");
+                velocity5m = 10;
+            }
+            case "reject" -> transaction = BenchmarkFixtures.transaction("15000.00", "device-9", "US");
+            default -> transaction = BenchmarkFixtures.transaction("120.00", "device-1", "US");
+        }
+        profile = BenchmarkFixtures.profile();
+    }
+
+    @TearDown
+    public void tearDown() {
+        compiled.shutdown();
+        drools.shutdown();
+    }
+
+    @Benchmark
+    public RuleResult compiledRules() {
+        return compiled.evaluate(transaction, profile, velocity1m, velocity5m);
+    }
+
+    @Benchmark
+    public RuleResult droolsRules() {
+        return drools.evaluate(transaction, profile, velocity1m, velocity5m);
+    }
+
+    @Benchmark
+    public RuleResult legacyRules() {
+        return legacy.evaluate(transaction, profile, velocity1m, velocity5m);
+    }
+}
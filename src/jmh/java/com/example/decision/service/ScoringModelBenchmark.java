@@ -0,0 +1,75 @@
+package com.example.decision.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw model inference per row, one row at a time versus micro-batches, to show
+ * what batching buys each model. Scores are per call; divide by the batch size
+ * for the cost per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoringModelBenchmark {
+
+    @Param({"heuristic", "onnx"})
+    public String model;
+
+    @Param({"1", "16", "64"})
+    public int batchSize;
+
+    private ScoringModel scoringModel;
+    private double[][] batch;
+
+    @Setup
+    public void setUp() throws Exception {
+        scoringModel = switch (model) {
+            case "heuristic" -> new HeuristicScoringModel();
+            case "onnx" -> new OnnxScoringModel("onnx:risk-logreg-v1", bundledModel());
+            default -> throw new IllegalArgumentException("Unknown model: " + model);
+        };
+
+        Random random = new Random(42);
+        batch = new double[batchSize][ScoringModel.FEATURE_COUNT];
+        for (double[] row : batch) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        scoringModel.close();
+    }
+
+    @Benchmark
+    public double[] scoreBatch() {
+        return scoringModel.scoreBatch(batch);
+    }
+
+    private static byte[] bundledModel() throws IOException {
+        try (InputStream in = ScoringModelBenchmark.class.getResourceAsStream("/models/risk-logreg-v1.onnx")) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.decision.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Opt-in virtual-thread execution ({@code decision.execution.virtual-threads.enabled}).
+ * <p>
+ * Tomcat serves each request on its own virtual thread and the Kafka consumer
+ * hands each record to one, so blocking on Redis, JDBC and Kafka no longer ties
+ * up a platform thread; {@code ConcurrencyLimiter} bounds how many evaluations
+ * run at once. Needs a Java 21 runtime: on older runtimes Tomcat keeps its
+ * thread pool and records run on platform threads.
+ */
+@Configuration
+@Slf4j
+@ConditionalOnProperty(name = "decision.execution.virtual-threads.enabled", havingValue = "true")
+public class ExecutionConfig {
+
+    /**
+     * Starts a new thread per task: virtual when available, otherwise a
+     * platform thread (the limiter bounds how many exist).
+     */
+    @Bean
+    public Executor decisionExecutor() {
+        ThreadFactory factory = VirtualThreads.factory("decision-vt-").orElseGet(() -> {
+            log.warn("Virtual threads need Java 21 (running {}), using platform threads",
+                Runtime.version());
+            AtomicLong counter = new AtomicLong();
+            ThreadFactory defaults = Executors.defaultThreadFactory();
+            return task -> {
+                Thread thread = defaults.newThread(task);
+                thread.setName("decision-exec-" + counter.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        });
+        return task -> factory.newThread(task).start();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> VirtualThreads.factory("tomcat-vt-").ifPresent(factory -> {
+            protocolHandler.setExecutor(task -> factory.newThread(task).start());
+            log.info("Tomcat requests run on virtual threads");
+        });
+    }
+}
@@ -1,63 +1,274 @@
 package com.example.decision.config;
 
+import com.example.decision.consumer.TransactionFailures;
+import com.example.decision.consumer.VelocityRebalanceListener;
+import com.example.decision.serde.WireDeserializer;
+import com.example.decision.serde.WireFormat;
+import com.example.decision.serde.WireSerializer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.admin.AdminClient;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
-import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.kafka.transaction.KafkaTransactionManager;
 
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@Slf4j
 public class KafkaConfig {
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /** Consumer threads per listener container; 0 sizes them to partitions and cores. */
+    @Value("${decision.consumer.concurrency:0}")
+    private int concurrency;
+
+    private int resolvedConcurrency;
+
+    @Value("${decision.execution.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${decision.consumer.batch.max-size:500}")
+    private int batchMaxSize;
+
+    @Value("${decision.consumer.batch.linger-ms:10}")
+    private int batchLingerMs;
+
+    @Value("${decision.consumer.batch.min-bytes:16384}")
+    private int batchMinBytes;
+
+    @Value("${decision.topics.input:txn-events}")
+    private String inputTopic;
+
+    @Value("${decision.consumer.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${decision.consumer.retry.backoff:1s}")
+    private Duration retryBackoff;
+
+    @Value("${decision.consumer.retry.max-backoff:30s}")
+    private Duration retryMaxBackoff;
+
+    @Value("${decision.consumer.retry.partitions:3}")
+    private int retryPartitions;
+
+    @Value("${decision.consumer.retry.replication-factor:1}")
+    private short retryReplicationFactor;
+
+    /** Batch mode only: publish decisions and commit offsets in one Kafka transaction. */
+    @Value("${decision.kafka.exactly-once.enabled:false}")
+    private boolean exactlyOnce;
+
+    /** Must differ between instances; a restarted instance should reuse its own. */
+    @Value("${decision.kafka.exactly-once.transaction-id-prefix:decision-tx-}")
+    private String transactionIdPrefix;
+
+    /** Format this instance produces; consumers read both. */
+    @Value("${decision.kafka.wire-format:json}")
+    private String wireFormat;
+
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
+        return new DefaultKafkaConsumerFactory<>(consumerProps());
+    }
+
+    /**
+     * Consumer tuned for batch mode: larger polls, and the broker holds the
+     * fetch for up to the linger time to fill it.
+     */
+    @Bean
+    public ConsumerFactory<String, Object> batchConsumerFactory() {
+        Map<String, Object> props = consumerProps();
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxSize);
+        props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchLingerMs);
+        props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchLingerMs > 0 ? batchMinBytes : 1);
+        if (exactlyOnce) {
+            // Skip records of aborted upstream transactions
+            props.put(ConsumerConfig.ISOLATION_LEVEL_CONFIG, "read_committed");
+        }
+        return new DefaultKafkaConsumerFactory<>(props);
+    }
+
+    private Map<String, Object> consumerProps() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, 
             org.apache.kafka.common.serialization.StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, JsonDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, WireDeserializer.class);
         props.put(JsonDeserializer.TRUSTED_PACKAGES, "com.example.decision.model");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
-        return new DefaultKafkaConsumerFactory<>(props);
+        return props;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(
+            VelocityRebalanceListener velocityRebalanceListener) {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory =
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
-        factory.setConcurrency(3);
+        // Virtual-thread mode acks records out of order; commits wait for gaps to fill
+        factory.getContainerProperties().setAsyncAcks(virtualThreads);
+        factory.getContainerProperties().setConsumerRebalanceListener(velocityRebalanceListener);
+        factory.setConcurrency(listenerConcurrency());
         return factory;
     }
 
+    /**
+     * Batch container. In exactly-once mode every poll runs in a Kafka
+     * transaction: the decisions the listener sends through
+     * {@code transactionalKafkaTemplate} and the acknowledged offsets are
+     * committed together, or not at all, once per batch.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchKafkaListenerContainerFactory(
+            VelocityRebalanceListener velocityRebalanceListener,
+            @Qualifier("transactionalKafkaTemplate")
+            ObjectProvider<KafkaTemplate<String, Object>> transactionalKafkaTemplate) {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(batchConsumerFactory());
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.getContainerProperties().setConsumerRebalanceListener(velocityRebalanceListener);
+        transactionalKafkaTemplate.ifAvailable(template -> factory.getContainerProperties()
+            .setTransactionManager(new KafkaTransactionManager<>(template.getProducerFactory())));
+        factory.setConcurrency(listenerConcurrency());
+        return factory;
+    }
+
+    /**
+     * Non-blocking retries for {@code TransactionConsumer}. A failed record is
+     * republished to {@code <input>-retry-N} and the input partition moves on;
+     * each retry topic holds its records back by pausing its own partitions until
+     * the backoff (doubled per topic) has passed. After the last attempt, or at
+     * once for poison payloads, the record goes to {@code <input>-dlt}.
+     */
+    @Bean
+    @ConditionalOnExpression("${decision.consumer.retry.enabled:true} && !${decision.consumer.batch.enabled:false} "
+        + "&& !${decision.execution.virtual-threads.enabled:false}")
+    public RetryTopicConfiguration transactionRetryTopics() {
+        return RetryTopicConfigurationBuilder.newInstance()
+            .includeTopic(inputTopic)
+            .maxAttempts(retryAttempts)
+            .exponentialBackoff(retryBackoff.toMillis(), 2.0, retryMaxBackoff.toMillis())
+            .setTopicSuffixingStrategy(TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE)
+            .notRetryOn(TransactionFailures.POISON)
+            .traversingCauses()
+            .autoCreateTopicsWith(retryPartitions, retryReplicationFactor)
+            .listenerFactory("kafkaListenerContainerFactory")
+            .dltHandlerMethod("transactionConsumer", "consumeDeadLetter")
+            .create(kafkaTemplate());
+    }
+
+    /**
+     * Dead-letter topic for {@code BatchTransactionConsumer}, created like the
+     * retry topics above: batch mode has no retry topics, only {@code <input>-dlt}.
+     */
+    @Bean
+    @ConditionalOnExpression("${decision.consumer.batch.enabled:false}")
+    public NewTopic batchDeadLetterTopic() {
+        return TopicBuilder.name(inputTopic + "-dlt")
+            .partitions(retryPartitions)
+            .replicas(retryReplicationFactor)
+            .build();
+    }
+
+    /**
+     * With {@code decision.consumer.concurrency} 0, one consumer thread per input
+     * partition, capped at the available processors: threads beyond the
+     * partition count would never be assigned one. If the topic cannot be
+     * described the cores alone decide.
+     */
+    synchronized int listenerConcurrency() {
+        if (concurrency > 0) {
+            return concurrency;
+        }
+        if (resolvedConcurrency == 0) {
+            int cores = Runtime.getRuntime().availableProcessors();
+            int partitions = inputPartitions();
+            resolvedConcurrency = partitions > 0 ? Math.min(partitions, cores) : cores;
+            log.info("Listener concurrency {} ({} partitions on {}, {} cores)",
+                     resolvedConcurrency, partitions > 0 ? partitions : "unknown", inputTopic, cores);
+        }
+        return resolvedConcurrency;
+    }
+
+    private int inputPartitions() {
+        Map<String, Object> props = Map.of(
+            AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers,
+            AdminClientConfig.DEFAULT_API_TIMEOUT_MS_CONFIG, 5000,
+            AdminClientConfig.REQUEST_TIMEOUT_MS_CONFIG, 5000
+        );
+        try (AdminClient admin = AdminClient.create(props)) {
+            return admin.describeTopics(List.of(inputTopic)).allTopicNames()
+                .get(5, TimeUnit.SECONDS).get(inputTopic).partitions().size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (Exception e) {
+            log.warn("Could not describe topic {}: {}", inputTopic, e.getMessage());
+            return 0;
+        }
+    }
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(producerProps());
+    }
+
+    private Map<String, Object> producerProps() {
         Map<String, Object> props = new HashMap<>();
         props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, 
             org.apache.kafka.common.serialization.StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, WireSerializer.class);
+        props.put(WireFormat.CONFIG, WireFormat.of(wireFormat));
         props.put(ProducerConfig.ACKS_CONFIG, "all");
         props.put(ProducerConfig.RETRIES_CONFIG, 3);
         props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(props);
+        return props;
     }
 
     @Bean
+    @Primary
     public KafkaTemplate<String, Object> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    /**
+     * Template for exactly-once batch mode. Its producers are transactional and
+     * only send inside the batch container's transaction; the transaction
+     * manager is not a bean, so JPA keeps Spring Boot's default one.
+     */
+    @Bean
+    @ConditionalOnExpression("${decision.kafka.exactly-once.enabled:false} && ${decision.consumer.batch.enabled:false}")
+    public KafkaTemplate<String, Object> transactionalKafkaTemplate() {
+        DefaultKafkaProducerFactory<String, Object> factory = new DefaultKafkaProducerFactory<>(producerProps());
+        factory.setTransactionIdPrefix(transactionIdPrefix);
+        return new KafkaTemplate<>(factory);
+    }
 }
@@ -0,0 +1,35 @@
+package com.example.decision.config;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to Java 21 virtual threads while the build targets Java 17.
+ * The API is looked up reflectively, so on older runtimes it is simply absent.
+ */
+public final class VirtualThreads {
+
+    private static final ThreadFactory PROBE = factory("virtual-probe-").orElse(null);
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isAvailable() {
+        return PROBE != null;
+    }
+
+    /**
+     * Factory for virtual threads named {@code prefix0, prefix1, ...}, or empty
+     * below Java 21.
+     */
+    public static Optional<ThreadFactory> factory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException e) {
+            return Optional.empty();
+        }
+    }
+}
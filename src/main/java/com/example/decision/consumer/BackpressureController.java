@@ -0,0 +1,228 @@
+package com.example.decision.consumer;
+
+import com.example.decision.service.ConcurrencyLimiter;
+import com.example.decision.service.DependencyGuard;
+import com.example.decision.service.DependencyGuard.Dependency;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.Metric;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import jakarta.annotation.PostConstruct;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pauses the transaction listeners while a downstream pool is exhausted.
+ * <p>
+ * Every {@code interval} the controller samples the saturation of the Redis
+ * bulkhead (commands in flight on the shared Lettuce connection) and of the
+ * Hikari pool (connections in use, or 1.0 as soon as a thread waits for one).
+ * When either reaches {@code pause-at} the containers consuming the input and
+ * retry topics are paused, so records stay in Kafka as lag instead of piling up
+ * as timeouts in the pools; they resume once both fall to {@code resume-at}.
+ * Paused consumers keep polling, so the group does not rebalance.
+ * <p>
+ * Lag is the last {@code records-lag} each consumer reported per partition; it
+ * is not refreshed for partitions that are paused.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class BackpressureController {
+
+    private static final String LAG_METRIC = "records-lag";
+    private static final String DLT_SUFFIX = "-dlt";
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final DependencyGuard dependencyGuard;
+    private final ConcurrencyLimiter limiter;
+    private final ObjectProvider<DataSource> dataSource;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.consumer.backpressure.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${decision.consumer.backpressure.pause-at:0.9}")
+    private double pauseAt = 0.9;
+
+    @Value("${decision.consumer.backpressure.resume-at:0.6}")
+    private double resumeAt = 0.6;
+
+    @Value("${decision.topics.input:txn-events}")
+    private String inputTopic = "txn-events";
+
+    private volatile Status status = Status.EMPTY;
+    private volatile boolean paused;
+    private Counter pauses;
+
+    @PostConstruct
+    public void init() {
+        Gauge.builder("decision.consumer.paused", this, controller -> controller.paused ? 1 : 0)
+            .description("1 while the transaction listeners are paused for backpressure")
+            .register(meterRegistry);
+        Gauge.builder("decision.consumer.lag", this, controller -> controller.status.totalLag())
+            .description("Records behind the log end over the assigned input and retry partitions")
+            .register(meterRegistry);
+        Gauge.builder("decision.consumer.assigned_partitions", this,
+                controller -> controller.status.lag().size())
+            .register(meterRegistry);
+        for (Dependency dependency : List.of(Dependency.REDIS, Dependency.POSTGRES)) {
+            Gauge.builder("decision.dependency.saturation", this,
+                    controller -> controller.status.saturation(dependency))
+                .description("Share of the dependency's pool in use")
+                .tag("dependency", dependency.instanceName())
+                .register(meterRegistry);
+        }
+        pauses = Counter.builder("decision.consumer.pauses")
+            .description("Times the transaction listeners were paused for backpressure")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${decision.consumer.backpressure.interval:500}")
+    public void evaluate() {
+        List<MessageListenerContainer> containers = transactionContainers();
+        DependencyLoad redis = redisLoad();
+        DependencyLoad postgres = postgresLoad();
+
+        double saturation = Math.max(redis.saturation(), postgres.saturation());
+        if (enabled && !paused && saturation >= pauseAt) {
+            paused = true;
+            pauses.increment();
+            containers.forEach(MessageListenerContainer::pause);
+            log.warn("Pausing transaction listeners: redis {}/{}, postgres {}/{} ({} waiting)",
+                     redis.inFlight(), redis.capacity(), postgres.inFlight(), postgres.capacity(),
+                     postgres.waiting());
+        } else if (paused && (!enabled || saturation <= resumeAt)) {
+            paused = false;
+            containers.forEach(MessageListenerContainer::resume);
+            log.info("Resuming transaction listeners: redis {}/{}, postgres {}/{}",
+                     redis.inFlight(), redis.capacity(), postgres.inFlight(), postgres.capacity());
+        } else if (paused) {
+            // Containers started or reassigned while paused
+            containers.stream().filter(container -> !container.isPauseRequested())
+                .forEach(MessageListenerContainer::pause);
+        }
+        status = new Status(paused, redis, postgres, limiter.inFlight(), lag(containers));
+    }
+
+    public Status status() {
+        return status;
+    }
+
+    /** Containers on the input topic and its retry topics; the DLT handler touches no pool. */
+    private List<MessageListenerContainer> transactionContainers() {
+        return listenerRegistry.getListenerContainers().stream()
+            .filter(container -> {
+                String[] topics = container.getContainerProperties().getTopics();
+                if (topics == null) {
+                    return false;
+                }
+                for (String topic : topics) {
+                    if (topic.startsWith(inputTopic) && !topic.endsWith(DLT_SUFFIX)) {
+                        return true;
+                    }
+                }
+                return false;
+            })
+            .toList();
+    }
+
+    private DependencyLoad redisLoad() {
+        Bulkhead bulkhead = dependencyGuard.bulkhead(Dependency.REDIS);
+        int capacity = bulkhead.getMetrics().getMaxAllowedConcurrentCalls();
+        int inFlight = capacity - bulkhead.getMetrics().getAvailableConcurrentCalls();
+        return new DependencyLoad(inFlight, capacity, 0);
+    }
+
+    private DependencyLoad postgresLoad() {
+        DataSource source = dataSource.getIfAvailable();
+        if (source == null) {
+            return DependencyLoad.UNKNOWN;
+        }
+        try {
+            if (!source.isWrapperFor(HikariDataSource.class)) {
+                return DependencyLoad.UNKNOWN;
+            }
+            HikariDataSource hikari = source.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                return DependencyLoad.UNKNOWN;
+            }
+            return new DependencyLoad(pool.getActiveConnections(), hikari.getMaximumPoolSize(),
+                                      pool.getThreadsAwaitingConnection());
+        } catch (SQLException e) {
+            return DependencyLoad.UNKNOWN;
+        }
+    }
+
+    private static Map<String, Long> lag(Collection<MessageListenerContainer> containers) {
+        Map<String, Long> lag = new TreeMap<>();
+        for (MessageListenerContainer container : containers) {
+            Collection<TopicPartition> assigned = container.getAssignedPartitions();
+            if (assigned != null) {
+                assigned.forEach(partition -> lag.put(partition.toString(), 0L));
+            }
+            for (Map<MetricName, ? extends Metric> clientMetrics : container.metrics().values()) {
+                clientMetrics.forEach((name, metric) -> {
+                    String partition = name.tags().get("partition");
+                    if (!LAG_METRIC.equals(name.name()) || partition == null
+                            || !(metric.metricValue() instanceof Double value) || value.isNaN()) {
+                        return;
+                    }
+                    String key = name.tags().get("topic") + "-" + partition;
+                    if (lag.containsKey(key)) {
+                        lag.put(key, value.longValue());
+                    }
+                });
+            }
+        }
+        return lag;
+    }
+
+    /**
+     * Use of one dependency's pool; {@code waiting} callers (Hikari only) make
+     * it fully saturated whatever the active count.
+     */
+    public record DependencyLoad(int inFlight, int capacity, int waiting) {
+        static final DependencyLoad UNKNOWN = new DependencyLoad(0, 0, 0);
+
+        public double saturation() {
+            if (waiting > 0) {
+                return 1.0;
+            }
+            return capacity > 0 ? (double) inFlight / capacity : 0.0;
+        }
+    }
+
+    /** Last sample, served by the {@code consumers} actuator endpoint. */
+    public record Status(boolean paused, DependencyLoad redis, DependencyLoad postgres,
+                         int limiterInFlight, Map<String, Long> lag) {
+        static final Status EMPTY = new Status(false, DependencyLoad.UNKNOWN, DependencyLoad.UNKNOWN, 0, Map.of());
+
+        public long totalLag() {
+            return lag.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        double saturation(Dependency dependency) {
+            return (dependency == Dependency.REDIS ? redis : postgres).saturation();
+        }
+    }
+}
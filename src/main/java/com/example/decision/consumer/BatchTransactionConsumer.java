@@ -0,0 +1,195 @@
+package com.example.decision.consumer;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.Transaction;
+import com.example.decision.service.DecisionEvaluationException;
+import com.example.decision.service.DecisionMetrics;
+import com.example.decision.service.DecisionMetrics.FailureKind;
+import com.example.decision.service.DecisionService;
+import com.example.decision.service.DecisionService.BatchItem;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Batch-mode Kafka consumer for transaction events.
+ * Evaluates a whole poll together and acknowledges once per batch. If a record
+ * fails, offsets are committed up to it and the rest of the batch is
+ * redelivered; the records after it were decided already and come back as
+ * stored decisions, so their side effects are not repeated.
+ * <p>
+ * A record is retried at most {@code max-attempts} times in a row and then
+ * moved to {@code <input>-dlt}, so it cannot stall its partition. Records
+ * without a value and failures classified as poison by
+ * {@link TransactionFailures} go there at once.
+ * <p>
+ * In exactly-once mode ({@code decision.kafka.exactly-once.enabled}) the poll
+ * runs in a Kafka transaction. Decisions are not published by
+ * {@link DecisionService}; this consumer sends the ones before the first failure
+ * through the transactional template, so they, dead-lettered records and the
+ * committed offsets become visible to {@code read_committed} consumers
+ * together. Stored decisions returned for redelivered records are sent again:
+ * their earlier send was part of a transaction that never committed.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "decision.consumer.batch.enabled", havingValue = "true")
+public class BatchTransactionConsumer {
+
+    private final DecisionService decisionService;
+    private final DecisionMetrics metrics;
+    private final KafkaTemplate<String, Object> transactionalKafkaTemplate;
+    private final DeadLetterPublishingRecoverer deadLetters;
+
+    /** Failed deliveries of the record each partition is stuck on. */
+    private final Map<TopicPartition, Attempts> attempts = new ConcurrentHashMap<>();
+
+    @Value("${decision.consumer.batch.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    /** Deliveries of a failing record, including the first, before it is dead-lettered. */
+    @Value("${decision.consumer.batch.max-attempts:4}")
+    private int maxAttempts = 4;
+
+    @Value("${decision.topics.output:decision-results}")
+    private String outputTopic = "decision-results";
+
+    private record Attempts(long offset, int count) {}
+
+    public BatchTransactionConsumer(DecisionService decisionService,
+                                    DecisionMetrics metrics,
+                                    KafkaTemplate<String, Object> kafkaTemplate,
+                                    @Qualifier("transactionalKafkaTemplate")
+                                    ObjectProvider<KafkaTemplate<String, Object>> transactionalKafkaTemplate) {
+        this.decisionService = decisionService;
+        this.metrics = metrics;
+        this.transactionalKafkaTemplate = transactionalKafkaTemplate.getIfAvailable();
+        // Inside the poll's transaction in exactly-once mode; any DLT partition
+        this.deadLetters = new DeadLetterPublishingRecoverer(
+            this.transactionalKafkaTemplate != null ? this.transactionalKafkaTemplate : kafkaTemplate,
+            (record, e) -> new TopicPartition(record.topic() + "-dlt", -1));
+    }
+
+    @KafkaListener(
+        topics = "${decision.topics.input:txn-events}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "batchKafkaListenerContainerFactory"
+    )
+    public void consume(List<ConsumerRecord<String, Transaction>> records, Acknowledgment acknowledgment) {
+        log.info("Received batch of {} transactions", records.size());
+        boolean exactlyOnce = transactionalKafkaTemplate != null;
+
+        List<BatchItem> results = evaluate(records, !exactlyOnce);
+
+        // The first failure that is retried; the ones before it are dead-lettered
+        int blocking = -1;
+        for (int i = 0; i < results.size() && blocking < 0; i++) {
+            if (!results.get(i).succeeded() && !deadLetter(records.get(i), results.get(i).error())) {
+                blocking = i;
+            }
+        }
+
+        if (exactlyOnce) {
+            // Only records whose offsets this transaction commits
+            int committed = blocking < 0 ? results.size() : blocking;
+            for (int i = 0; i < committed; i++) {
+                Decision decision = results.get(i).decision();
+                if (decision != null) {
+                    transactionalKafkaTemplate.send(outputTopic, decision.transactionId(), decision);
+                }
+            }
+        }
+
+        if (blocking < 0) {
+            forgetAttempts(records);
+            acknowledgment.acknowledge();
+            log.info("Batch of {} transactions processed successfully", records.size());
+        } else {
+            ConsumerRecord<String, Transaction> failed = records.get(blocking);
+            TopicPartition partition = new TopicPartition(failed.topic(), failed.partition());
+            int attempt = attempts.merge(partition, new Attempts(failed.offset(), 1), (previous, first) ->
+                previous.offset() == failed.offset() ? new Attempts(failed.offset(), previous.count() + 1) : first)
+                .count();
+            metrics.recordConsumerFailure(TransactionFailures.classify(results.get(blocking).error()));
+            metrics.recordConsumerRetry();
+            log.error("Failed to process record at {}-{}, offset {} (attempt {} of {}), will retry from there",
+                     failed.topic(), failed.partition(), failed.offset(), attempt, maxAttempts,
+                     results.get(blocking).error());
+            // Commit everything before the failure and redeliver the remainder
+            acknowledgment.nack(blocking, Duration.ofMillis(retryBackoffMs));
+        }
+    }
+
+    /**
+     * Evaluate the records that have a transaction; the others fail in place
+     * without reaching the decision service.
+     */
+    private List<BatchItem> evaluate(List<ConsumerRecord<String, Transaction>> records, boolean publish) {
+        List<Transaction> transactions = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Transaction> record : records) {
+            if (record.value() != null) {
+                transactions.add(record.value());
+            }
+        }
+        Iterator<BatchItem> evaluated = transactions.isEmpty()
+            ? List.<BatchItem>of().iterator()
+            : decisionService.evaluateBatch(transactions, publish).iterator();
+
+        List<BatchItem> results = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Transaction> record : records) {
+            results.add(record.value() != null ? evaluated.next() : new BatchItem(null, null,
+                new DecisionEvaluationException("No transaction in record at offset " + record.offset(),
+                    new IllegalArgumentException("Record value is null"))));
+        }
+        return results;
+    }
+
+    /**
+     * Move a failed record to the dead-letter topic if it is poison or has
+     * used up its attempts.
+     *
+     * @return false if it should be retried, or could not be dead-lettered
+     */
+    private boolean deadLetter(ConsumerRecord<String, Transaction> record, Exception error) {
+        FailureKind kind = TransactionFailures.classify(error);
+        Attempts previous = attempts.get(new TopicPartition(record.topic(), record.partition()));
+        int attempt = previous != null && previous.offset() == record.offset() ? previous.count() + 1 : 1;
+        if (kind != FailureKind.POISON && attempt < maxAttempts) {
+            return false;
+        }
+        try {
+            deadLetters.accept(record, error);
+        } catch (RuntimeException e) {
+            log.error("Could not dead-letter record at {}-{}, offset {}; retrying it",
+                      record.topic(), record.partition(), record.offset(), e);
+            return false;
+        }
+        metrics.recordConsumerFailure(kind);
+        metrics.recordDeadLetter();
+        log.error("Dead-lettered record at {}-{}, offset {} after {} attempt(s) ({} failure)",
+                  record.topic(), record.partition(), record.offset(), attempt, kind, error);
+        return true;
+    }
+
+    private void forgetAttempts(List<ConsumerRecord<String, Transaction>> records) {
+        if (!attempts.isEmpty()) {
+            records.forEach(record -> attempts.remove(new TopicPartition(record.topic(), record.partition())));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.decision.consumer;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/consumers}: pause state, pool saturation, in-flight
+ * evaluations and per-partition lag from the last backpressure sample.
+ */
+@Component
+@Endpoint(id = "consumers")
+@RequiredArgsConstructor
+public class ConsumerEndpoint {
+
+    private final BackpressureController controller;
+
+    @ReadOperation
+    public BackpressureController.Status consumers() {
+        return controller.status();
+    }
+}
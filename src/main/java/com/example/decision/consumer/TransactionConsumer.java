@@ -2,9 +2,14 @@ package com.example.decision.consumer;
 
 import com.example.decision.model.Decision;
 import com.example.decision.model.Transaction;
+import com.example.decision.service.DecisionMetrics;
+import com.example.decision.service.DecisionMetrics.FailureKind;
 import com.example.decision.service.DecisionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
@@ -12,16 +17,30 @@ import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Kafka consumer for transaction events.
  * Processes events and commits offsets manually after successful processing.
+ * <p>
+ * A failed evaluation is rethrown to the container. With the retry pipeline
+ * enabled ({@code KafkaConfig#transactionRetryTopics}) the record is republished
+ * to a retry topic and the input partition moves on; the same listener consumes
+ * the retry topics once their backoff has passed, and records that exhaust
+ * their attempts, or are classified as poison, end up in
+ * {@link #consumeDeadLetter}.
  */
 @Component
 @Slf4j
 @RequiredArgsConstructor
+@ConditionalOnExpression("!${decision.consumer.batch.enabled:false} && !${decision.execution.virtual-threads.enabled:false}")
 public class TransactionConsumer {
 
     private final DecisionService decisionService;
+    private final DecisionMetrics metrics;
+
+    @Value("${decision.topics.input:txn-events}")
+    private String inputTopic;
 
     @KafkaListener(
         topics = "${decision.topics.input:txn-events}",
@@ -29,27 +48,52 @@ public class TransactionConsumer {
         containerFactory = "kafkaListenerContainerFactory"
     )
     public void consume(@Payload Transaction transaction,
+                       @Header(KafkaHeaders.RECEIVED_TOPIC) String topic,
                        @Header(KafkaHeaders.RECEIVED_PARTITION) int partition,
                        @Header(KafkaHeaders.OFFSET) long offset,
                        Acknowledgment acknowledgment) {
-        
-        log.info("Received transaction from partition {}, offset {}: {}", 
-                 partition, offset, transaction.transactionId());
+
+        log.info("Received transaction from {}-{}, offset {}: {}",
+                 topic, partition, offset, transaction.transactionId());
+        if (!topic.equals(inputTopic)) {
+            metrics.recordConsumerRetry();
+        }
 
         try {
             Decision decision = decisionService.evaluate(transaction);
-            
+
             // Commit offset only after successful processing
             acknowledgment.acknowledge();
-            
-            log.info("Transaction processed successfully: {} with outcome: {}", 
+
+            log.info("Transaction processed successfully: {} with outcome: {}",
                      transaction.transactionId(), decision.outcome());
-            
-        } catch (Exception e) {
-            log.error("Failed to process transaction: {}, will retry", 
-                     transaction.transactionId(), e);
-            // Don't acknowledge - message will be reprocessed
-            // In production, add dead letter queue after N retries
+
+        } catch (RuntimeException e) {
+            FailureKind kind = TransactionFailures.classify(e);
+            metrics.recordConsumerFailure(kind);
+            log.error("Failed to process transaction: {} from {}-{}, offset {} ({} failure)",
+                     transaction.transactionId(), topic, partition, offset, kind, e);
+            // The error handler routes the record to a retry topic or the DLT
+            throw e;
         }
     }
+
+    /**
+     * Handler for {@code <input>-dlt}: records that failed every attempt, or
+     * failed with a poison payload. They are only counted and logged; replay
+     * them by republishing to the input topic once the cause is fixed.
+     */
+    public void consumeDeadLetter(ConsumerRecord<String, Transaction> record, Acknowledgment acknowledgment) {
+        metrics.recordDeadLetter();
+        log.error("Transaction: {} dead-lettered to {}-{}, offset {}: {}",
+                  record.value() != null ? record.value().transactionId() : record.key(),
+                  record.topic(), record.partition(), record.offset(),
+                  headerValue(record, KafkaHeaders.DLT_EXCEPTION_MESSAGE));
+        acknowledgment.acknowledge();
+    }
+
+    private static String headerValue(ConsumerRecord<?, ?> record, String name) {
+        org.apache.kafka.common.header.Header header = record.headers().lastHeader(name);
+        return header != null ? new String(header.value(), StandardCharsets.UTF_8) : "unknown cause";
+    }
 }
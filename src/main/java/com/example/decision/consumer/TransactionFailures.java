@@ -0,0 +1,43 @@
+package com.example.decision.consumer;
+
+import com.example.decision.service.DecisionMetrics.FailureKind;
+import jakarta.validation.ValidationException;
+
+import java.time.DateTimeException;
+import java.util.List;
+
+/**
+ * Classifies evaluation failures for the retry pipeline.
+ * <p>
+ * A failure is {@link FailureKind#POISON} if any exception in its cause chain
+ * is one of {@link #POISON}: the record itself cannot be evaluated, so it goes
+ * straight to the dead-letter topic. Everything else (breakers, bulkheads,
+ * budget exhaustion, timeouts, database errors) is {@link FailureKind#TRANSIENT}
+ * and is retried with backoff.
+ */
+public final class TransactionFailures {
+
+    /** Exceptions caused by the payload; retrying the same record cannot help. */
+    public static final List<Class<? extends Throwable>> POISON = List.of(
+        IllegalArgumentException.class,
+        NullPointerException.class,
+        ClassCastException.class,
+        ArithmeticException.class,
+        DateTimeException.class,
+        ValidationException.class
+    );
+
+    private TransactionFailures() {
+    }
+
+    public static FailureKind classify(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            for (Class<? extends Throwable> poison : POISON) {
+                if (poison.isInstance(cause)) {
+                    return FailureKind.POISON;
+                }
+            }
+        }
+        return FailureKind.TRANSIENT;
+    }
+}
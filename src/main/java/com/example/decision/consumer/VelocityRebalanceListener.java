@@ -0,0 +1,56 @@
+package com.example.decision.consumer;
+
+import com.example.decision.service.LocalVelocityStore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Moves local velocity state with input partition ownership.
+ * State for revoked partitions is flushed before offsets are committed;
+ * state for newly assigned partitions is rebuilt from the changelog.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VelocityRebalanceListener implements ConsumerAwareRebalanceListener {
+
+    private final LocalVelocityStore localVelocityStore;
+
+    @Value("${decision.topics.input:txn-events}")
+    private String inputTopic;
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        if (!localVelocityStore.isEnabled()) {
+            return;
+        }
+        int totalPartitions = consumer.partitionsFor(inputTopic).size();
+        localVelocityStore.assign(totalPartitions, inputPartitions(partitions));
+    }
+
+    @Override
+    public void onPartitionsRevokedBeforeCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        localVelocityStore.revoke(inputPartitions(partitions), true);
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        // Another instance already owns these; our state may be stale
+        localVelocityStore.revoke(inputPartitions(partitions), false);
+    }
+
+    private List<Integer> inputPartitions(Collection<TopicPartition> partitions) {
+        return partitions.stream()
+            .filter(tp -> tp.topic().equals(inputTopic))
+            .map(TopicPartition::partition)
+            .toList();
+    }
+}
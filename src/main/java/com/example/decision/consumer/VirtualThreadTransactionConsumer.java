@@ -0,0 +1,112 @@
+package com.example.decision.consumer;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.Transaction;
+import com.example.decision.service.ConcurrencyLimiter;
+import com.example.decision.service.DecisionService;
+import com.example.decision.service.KeyOrderedExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Kafka consumer for virtual-thread mode.
+ * <p>
+ * The poll thread only takes a permit from the {@link ConcurrencyLimiter} and
+ * hands the record to a virtual thread, so up to {@code max-in-flight} records
+ * are evaluated at once. Records with the same key (or, without a key, from the
+ * same partition) run one at a time in offset order. Acks arrive out of order;
+ * the container ({@code asyncAcks}) only commits an offset once every earlier
+ * record is acked.
+ * <p>
+ * A failing record is retried in its lane with backoff; after the last attempt
+ * it is logged, counted and acked so the partition keeps moving.
+ */
+@Component
+@Slf4j
+@ConditionalOnExpression("${decision.execution.virtual-threads.enabled:false} && !${decision.consumer.batch.enabled:false}")
+public class VirtualThreadTransactionConsumer {
+
+    private final DecisionService decisionService;
+    private final ConcurrencyLimiter limiter;
+    private final KeyOrderedExecutor lanes;
+    private final Counter failures;
+
+    @Value("${decision.execution.retry.attempts:3}")
+    private int attempts = 3;
+
+    @Value("${decision.execution.retry.backoff:200ms}")
+    private Duration backoff = Duration.ofMillis(200);
+
+    public VirtualThreadTransactionConsumer(DecisionService decisionService,
+                                            ConcurrencyLimiter limiter,
+                                            @Qualifier("decisionExecutor") Executor decisionExecutor,
+                                            MeterRegistry meterRegistry) {
+        this.decisionService = decisionService;
+        this.limiter = limiter;
+        this.lanes = new KeyOrderedExecutor(decisionExecutor);
+        this.failures = Counter.builder("decision.consumer.failed")
+            .description("Records acked after exhausting evaluation attempts")
+            .register(meterRegistry);
+        Gauge.builder("decision.consumer.lanes", lanes, KeyOrderedExecutor::activeKeys)
+            .description("Keys with records queued or in flight")
+            .register(meterRegistry);
+    }
+
+    @KafkaListener(
+        topics = "${decision.topics.input:txn-events}",
+        groupId = "${spring.kafka.consumer.group-id}",
+        containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void consume(ConsumerRecord<String, Transaction> record,
+                        Acknowledgment acknowledgment) throws InterruptedException {
+        limiter.acquire();
+        String lane = record.key() != null ? record.key() : "partition-" + record.partition();
+        lanes.submit(lane, () -> {
+            try {
+                process(record);
+            } finally {
+                limiter.release();
+                acknowledgment.acknowledge();
+            }
+        });
+    }
+
+    private void process(ConsumerRecord<String, Transaction> record) {
+        Transaction transaction = record.value();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Decision decision = decisionService.evaluate(transaction);
+                log.info("Transaction processed successfully: {} with outcome: {}",
+                         transaction.transactionId(), decision.outcome());
+                return;
+            } catch (Exception e) {
+                if (attempt >= attempts) {
+                    failures.increment();
+                    log.error("Failed to process transaction: {} from partition {}, offset {} after {} attempts",
+                              transaction.transactionId(), record.partition(), record.offset(), attempt, e);
+                    return;
+                }
+                log.warn("Failed to process transaction: {} (attempt {}), retrying",
+                         transaction.transactionId(), attempt, e);
+                try {
+                    Thread.sleep(backoff.toMillis() << (attempt - 1));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.example.decision.controller;
 
 import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.model.StageTimings;
 import com.example.decision.model.Transaction;
 import com.example.decision.repository.DecisionRepository;
+import com.example.decision.service.ConcurrencyLimiter;
+import com.example.decision.service.DecisionHistoryService;
+import com.example.decision.service.DecisionHistoryService.DecisionPage;
 import com.example.decision.service.DecisionService;
+import com.example.decision.service.DecisionStatistics;
+import com.example.decision.service.DecisionStatistics.Snapshot;
+import com.example.decision.service.DecisionStatistics.Stats;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 
@@ -22,76 +35,147 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DecisionController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    /** Longest range {@code /slowest} sorts; it reads every row in the range. */
+    private static final Duration SLOWEST_MAX_RANGE = Duration.ofHours(1);
+
     private final DecisionService decisionService;
+    private final DecisionHistoryService historyService;
+    private final DecisionStatistics statistics;
     private final DecisionRepository repository;
+    private final ConcurrencyLimiter concurrencyLimiter;
 
     /**
      * Synchronous decision evaluation endpoint.
-     * For testing and low-volume scenarios.
+     * For testing and low-volume scenarios. Returns 503 when the concurrency
+     * limit is reached (virtual-thread mode only).
      */
     @PostMapping("/evaluate")
     public ResponseEntity<Decision> evaluate(@Valid @RequestBody Transaction transaction) {
         log.info("REST: Evaluating transaction: {}", transaction.transactionId());
-        Decision decision = decisionService.evaluate(transaction);
-        return ResponseEntity.ok(decision);
+        if (!concurrencyLimiter.tryAcquire()) {
+            log.warn("REST: Concurrency limit reached, rejecting transaction: {}", transaction.transactionId());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        try {
+            Decision decision = decisionService.evaluate(transaction);
+            return ResponseEntity.ok(decision);
+        } finally {
+            concurrencyLimiter.release();
+        }
     }
 
     /**
-     * Get decision history for a user.
+     * Get one page of a user's decision history, newest first, optionally
+     * within [from, to). Pass the returned {@code nextCursor} to get the next page.
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Decision>> getUserDecisions(@PathVariable String userId) {
-        var entities = repository.findByUserIdOrderByTimestampDesc(userId);
-        var decisions = entities.stream()
-            .map(e -> new Decision(
-                e.getTransactionId(),
-                e.getUserId(),
-                e.getOutcome(),
-                e.getRiskScore(),
-                List.of(e.getReasonCodes().split(",")),
-                e.getRuleVersion(),
-                e.getLatencyMs(),
-                e.getTimestamp()
-            ))
-            .toList();
-        return ResponseEntity.ok(decisions);
+    public ResponseEntity<DecisionPage> getUserDecisions(
+            @PathVariable String userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(historyService.page(userId, from, to, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("REST: Rejected history cursor for user: {}", userId);
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Stream a user's whole decision history (optionally within [from, to)) as
+     * newline-delimited JSON, newest first, for bulk exports.
+     */
+    @GetMapping(value = "/user/{userId}/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportUserDecisions(
+            @PathVariable String userId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        log.info("REST: Exporting decision history for user: {}", userId);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(NDJSON))
+            .body(out -> historyService.export(userId, from, to, out));
     }
 
     /**
-     * Get decision by transaction ID.
+     * Get decision by transaction ID, optionally made within [from, to), which
+     * limits the lookup to the audit partitions covering the range.
      */
     @GetMapping("/transaction/{transactionId}")
-    public ResponseEntity<Decision> getDecision(@PathVariable String transactionId) {
-        return repository.findByTransactionId(transactionId)
-            .map(e -> new Decision(
-                e.getTransactionId(),
-                e.getUserId(),
-                e.getOutcome(),
-                e.getRiskScore(),
-                List.of(e.getReasonCodes().split(",")),
-                e.getRuleVersion(),
-                e.getLatencyMs(),
-                e.getTimestamp()
-            ))
+    public ResponseEntity<Decision> getDecision(
+            @PathVariable String transactionId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return historyService.find(transactionId, from, to)
+            .map(DecisionEntity::toDecision)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the per-stage latency breakdown of one decision, optionally made
+     * within [from, to).
+     */
+    @GetMapping("/transaction/{transactionId}/timings")
+    public ResponseEntity<StageTimings> getTimings(
+            @PathVariable String transactionId,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to) {
+        return historyService.find(transactionId, from, to)
+            .map(DecisionEntity::getStageTimings)
             .map(ResponseEntity::ok)
             .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Get statistics.
+     * Get the slowest decisions in [since, until), by total stage time. The
+     * range is at most an hour; longer ones are rejected with 400.
+     */
+    @GetMapping("/slowest")
+    public ResponseEntity<List<Decision>> getSlowest(
+            @RequestParam(required = false) Instant since,
+            @RequestParam(required = false) Instant until,
+            @RequestParam(defaultValue = "20") int limit) {
+        Instant to = until != null ? until : since != null ? since.plus(SLOWEST_MAX_RANGE) : Instant.now();
+        Instant from = since != null ? since : to.minus(SLOWEST_MAX_RANGE);
+        if (from.isAfter(to) || Duration.between(from, to).compareTo(SLOWEST_MAX_RANGE) > 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        var decisions = repository.findSlowest(from, to, PageRequest.of(0, Math.min(Math.max(limit, 1), 500)))
+            .stream()
+            .map(DecisionEntity::toDecision)
+            .toList();
+        return ResponseEntity.ok(decisions);
+    }
+
+    /**
+     * Rolling statistics of this instance, from memory.
      */
     @GetMapping("/stats")
-    public ResponseEntity<DecisionStats> getStats() {
-        long totalDecisions = repository.count();
-        Double avgLatency = repository.getAverageLatencySince(
-            Instant.now().minusSeconds(3600)
-        );
-        
-        return ResponseEntity.ok(new DecisionStats(
-            totalDecisions,
-            avgLatency != null ? avgLatency : 0.0
-        ));
+    public ResponseEntity<Stats> getStats() {
+        return ResponseEntity.ok(statistics.stats());
     }
 
-    record DecisionStats(long totalDecisions, double avgLatencyMs) {}
+    /**
+     * This instance's statistics in the form {@code POST /stats/merge} accepts.
+     */
+    @GetMapping("/stats/snapshot")
+    public ResponseEntity<Snapshot> getStatsSnapshot() {
+        return ResponseEntity.ok(statistics.snapshot());
+    }
+
+    /**
+     * Statistics across instances, from their snapshots.
+     */
+    @PostMapping("/stats/merge")
+    public ResponseEntity<Stats> mergeStats(@RequestBody List<Snapshot> snapshots) {
+        try {
+            return ResponseEntity.ok(DecisionStatistics.merge(snapshots));
+        } catch (IllegalArgumentException e) {
+            log.warn("REST: Rejected stats snapshots: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
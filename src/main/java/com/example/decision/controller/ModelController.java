@@ -0,0 +1,46 @@
+package com.example.decision.controller;
+
+import com.example.decision.service.MLScoringService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Inspect and hot-swap the risk scoring model.
+ */
+@RestController
+@RequestMapping("/api/v1/model")
+@Slf4j
+@RequiredArgsConstructor
+public class ModelController {
+
+    private final MLScoringService scoringService;
+
+    @GetMapping
+    public ResponseEntity<ModelInfo> getModel() {
+        return ResponseEntity.ok(new ModelInfo(scoringService.activeModel()));
+    }
+
+    /**
+     * Load a model and swap it in. Traffic keeps flowing on the current model
+     * until the new one has loaded and passed warm-up.
+     */
+    @PutMapping
+    public ResponseEntity<ModelInfo> loadModel(@Valid @RequestBody LoadModelRequest request) {
+        log.info("REST: Loading scoring model from: {}", request.location());
+        try {
+            scoringService.loadModel(request.location());
+        } catch (IllegalArgumentException e) {
+            log.warn("Scoring model not loaded: {}", e.getMessage());
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return ResponseEntity.ok(new ModelInfo(scoringService.activeModel()));
+    }
+
+    record ModelInfo(String model) {}
+
+    record LoadModelRequest(@NotBlank String location) {}
+}
@@ -0,0 +1,56 @@
+package com.example.decision.controller;
+
+import com.example.decision.service.RuleEngineService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Inspect and hot-swap the rule version.
+ */
+@RestController
+@RequestMapping("/api/v1/rules")
+@Slf4j
+@RequiredArgsConstructor
+public class RuleController {
+
+    private final RuleEngineService ruleEngineService;
+
+    @GetMapping
+    public ResponseEntity<RulesInfo> getRules() {
+        return ResponseEntity.ok(rulesInfo());
+    }
+
+    /**
+     * Build a rule version and swap it in. Traffic keeps flowing on the current
+     * rules until the new version has been built and passed warm-up.
+     */
+    @PutMapping
+    public ResponseEntity<RulesInfo> loadRules(@Valid @RequestBody LoadRulesRequest request) {
+        log.info("REST: Loading rules version: {}", request.version());
+        try {
+            ruleEngineService.reloadRules(request.version()).join();
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof IllegalArgumentException)) {
+                throw e;
+            }
+            log.warn("Rules not loaded: {}", e.getCause().getMessage());
+            return ResponseEntity.unprocessableEntity().build();
+        }
+        return ResponseEntity.ok(rulesInfo());
+    }
+
+    private RulesInfo rulesInfo() {
+        return new RulesInfo(ruleEngineService.activeVersion(),
+                             ruleEngineService.engine().name().toLowerCase());
+    }
+
+    record RulesInfo(String version, String engine) {}
+
+    record LoadRulesRequest(@NotBlank String version) {}
+}
@@ -7,6 +7,10 @@ import java.util.List;
 
 /**
  * Result of a decision evaluation.
+ * {@code missingFeatures} names the features that were unavailable within the
+ * latency budget; it is empty for a fully enriched decision. {@code timings}
+ * breaks the evaluation down by stage (null for decisions recorded before
+ * stage timings existed).
  */
 public record Decision(
     String transactionId,
@@ -16,10 +20,38 @@ public record Decision(
     List<String> reasonCodes,
     String ruleVersion,
     long latencyMs,
-    @JsonFormat(shape = JsonFormat.Shape.STRING) Instant timestamp
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Instant timestamp,
+    List<String> missingFeatures,
+    StageTimings timings
 ) {
+    public Decision {
+        missingFeatures = missingFeatures != null ? List.copyOf(missingFeatures) : List.of();
+    }
+
+    public Decision(String transactionId, String userId, DecisionOutcome outcome,
+                    double riskScore, List<String> reasonCodes, String ruleVersion, long latencyMs,
+                    Instant timestamp, List<String> missingFeatures) {
+        this(transactionId, userId, outcome, riskScore, reasonCodes, ruleVersion, latencyMs, timestamp,
+             missingFeatures, null);
+    }
+
+    public Decision(String transactionId, String userId, DecisionOutcome outcome,
+                    double riskScore, List<String> reasonCodes, String ruleVersion, long latencyMs,
+                    Instant timestamp) {
+        this(transactionId, userId, outcome, riskScore, reasonCodes, ruleVersion, latencyMs, timestamp, List.of());
+    }
+
     public Decision(String transactionId, String userId, DecisionOutcome outcome, 
                     double riskScore, List<String> reasonCodes, String ruleVersion, long latencyMs) {
         this(transactionId, userId, outcome, riskScore, reasonCodes, ruleVersion, latencyMs, Instant.now());
     }
+
+    public boolean degraded() {
+        return !missingFeatures.isEmpty();
+    }
+
+    public Decision withTimings(StageTimings stageTimings) {
+        return new Decision(transactionId, userId, outcome, riskScore, reasonCodes, ruleVersion, latencyMs,
+                            timestamp, missingFeatures, stageTimings);
+    }
 }
@@ -7,13 +7,20 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Audit entity for persisting decisions.
+ * <p>
+ * On PostgreSQL the table is created by {@code schema-postgresql.sql},
+ * range-partitioned by {@code timestamp} with a primary key of (id, timestamp)
+ * and {@code transactionId} unique within each partition; the mapping below is
+ * validated against it. Other databases get the table from this mapping.
  */
 @Entity
 @Table(name = "decisions", indexes = {
-    @Index(name = "idx_user_id", columnList = "userId"),
+    // Keyset pagination of a user's history: WHERE userId = ? ORDER BY timestamp DESC, id DESC
+    @Index(name = "idx_user_timestamp_id", columnList = "userId, timestamp DESC, id DESC"),
     @Index(name = "idx_timestamp", columnList = "timestamp"),
     @Index(name = "idx_outcome", columnList = "outcome")
 })
@@ -51,7 +58,75 @@ public class DecisionEntity {
     
     @Column(nullable = false)
     private Instant timestamp;
+
+    /** Comma-separated features missing from a degraded decision; null when fully enriched. */
+    private String missingFeatures;
+
+    /*
+     * Stage timings in nanoseconds (see StageTimings). The row is built before
+     * the audit write and the Kafka send, so persist and publish are zero and
+     * total stops at the decision until AuditWriter.writeTimings completes them.
+     */
+    private Long enrichNanos;
+    private Long rulesNanos;
+    private Long scoreNanos;
+    private Long persistNanos;
+    private Long publishNanos;
+    private Long totalNanos;
     
+    @Builder.Default
     @Column(nullable = false, updatable = false)
     private Instant createdAt = Instant.now();
+
+    /**
+     * The decision as it was returned when this row was written.
+     */
+    public Decision toDecision() {
+        return new Decision(
+            transactionId,
+            userId,
+            outcome,
+            riskScore,
+            splitCodes(reasonCodes),
+            ruleVersion,
+            latencyMs,
+            timestamp,
+            splitCodes(missingFeatures),
+            getStageTimings()
+        );
+    }
+
+    /**
+     * A comma-separated column as a list; null or empty (a decision without
+     * reason codes or missing features) is the empty list it was written from.
+     */
+    public static List<String> splitCodes(String codes) {
+        return codes == null || codes.isEmpty() ? List.of() : List.of(codes.split(","));
+    }
+
+    public StageTimings getStageTimings() {
+        if (totalNanos == null) {
+            return null;
+        }
+        return new StageTimings(
+            nanos(enrichNanos), nanos(rulesNanos), nanos(scoreNanos),
+            nanos(persistNanos), nanos(publishNanos), totalNanos
+        );
+    }
+
+    public void setStageTimings(StageTimings timings) {
+        if (timings == null) {
+            return;
+        }
+        enrichNanos = timings.enrichNanos();
+        rulesNanos = timings.rulesNanos();
+        scoreNanos = timings.scoreNanos();
+        persistNanos = timings.persistNanos();
+        publishNanos = timings.publishNanos();
+        totalNanos = timings.totalNanos();
+    }
+
+    private static long nanos(Long value) {
+        return value != null ? value : 0;
+    }
 }
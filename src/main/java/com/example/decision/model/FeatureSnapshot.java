@@ -0,0 +1,42 @@
+package com.example.decision.model;
+
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Features fetched for a single user in one round trip: the cached profile
+ * plus the transaction count for every configured velocity window.
+ * <p>
+ * When a dependency is slow or unavailable the snapshot is degraded: the
+ * affected features hold defaults and are listed in {@code missing}, so the
+ * decision can be routed by policy instead of treating the defaults as real.
+ */
+public record FeatureSnapshot(
+    UserProfile profile,
+    Map<Duration, Integer> velocities,
+    Set<Feature> missing
+) {
+    public enum Feature { PROFILE, VELOCITY }
+
+    public FeatureSnapshot {
+        velocities = Map.copyOf(velocities);
+        missing = missing.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(missing));
+    }
+
+    public FeatureSnapshot(UserProfile profile, Map<Duration, Integer> velocities) {
+        this(profile, velocities, Set.of());
+    }
+
+    /**
+     * Velocity for the given window, or 0 if the window was not fetched.
+     */
+    public int velocity(Duration window) {
+        return velocities.getOrDefault(window, 0);
+    }
+
+    public boolean degraded() {
+        return !missing.isEmpty();
+    }
+}
@@ -1,22 +1,53 @@
 package com.example.decision.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * Result from rule engine evaluation.
+ * Instances built by the compiled rule set are frozen and shared between
+ * evaluations; their mutators throw {@link UnsupportedOperationException}.
  */
 public class RuleResult {
     private DecisionOutcome suggestedOutcome;
-    private final List<String> firedRules = new ArrayList<>();
-    private final List<String> reasonCodes = new ArrayList<>();
+    private final List<String> firedRules;
+    private final List<String> reasonCodes;
+    private final List<String> firedRulesView;
+    private final List<String> reasonCodesView;
     private String ruleVersion;
+    private final boolean frozen;
+
+    public RuleResult() {
+        this(null, new ArrayList<>(), new ArrayList<>(), null, false);
+    }
+
+    private RuleResult(DecisionOutcome outcome, List<String> firedRules, List<String> reasonCodes,
+                       String ruleVersion, boolean frozen) {
+        this.suggestedOutcome = outcome;
+        this.firedRules = firedRules;
+        this.reasonCodes = reasonCodes;
+        this.firedRulesView = Collections.unmodifiableList(firedRules);
+        this.reasonCodesView = Collections.unmodifiableList(reasonCodes);
+        this.ruleVersion = ruleVersion;
+        this.frozen = frozen;
+    }
+
+    /**
+     * Immutable result that can be shared across evaluations.
+     */
+    public static RuleResult frozen(DecisionOutcome outcome, List<String> firedRules,
+                                    List<String> reasonCodes, String ruleVersion) {
+        return new RuleResult(outcome, List.copyOf(firedRules), List.copyOf(reasonCodes), ruleVersion, true);
+    }
     
     public void addFiredRule(String ruleName) {
+        checkMutable();
         firedRules.add(ruleName);
     }
     
     public void addReasonCode(String code) {
+        checkMutable();
         reasonCodes.add(code);
     }
     
@@ -25,15 +56,22 @@ public class RuleResult {
     }
     
     public void setSuggestedOutcome(DecisionOutcome outcome) {
+        checkMutable();
         this.suggestedOutcome = outcome;
     }
     
+    /**
+     * Read-only view of the fired rules, in firing order.
+     */
     public List<String> getFiredRules() {
-        return new ArrayList<>(firedRules);
+        return firedRulesView;
     }
     
+    /**
+     * Read-only view of the reason codes, in firing order.
+     */
     public List<String> getReasonCodes() {
-        return new ArrayList<>(reasonCodes);
+        return reasonCodesView;
     }
     
     public String getRuleVersion() {
@@ -41,6 +79,13 @@ public class RuleResult {
     }
     
     public void setRuleVersion(String version) {
+        checkMutable();
         this.ruleVersion = version;
     }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("RuleResult is shared and cannot be modified");
+        }
+    }
 }
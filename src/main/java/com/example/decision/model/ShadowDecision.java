@@ -0,0 +1,32 @@
+package com.example.decision.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A challenger's decision for a sampled transaction, next to the champion's.
+ * {@code challenger} is {@code rules:<version>} or {@code model:<name>}; the
+ * other component is the champion's, so a disagreement is down to the
+ * challenger alone. Published to the shadow topic, never acted on.
+ */
+public record ShadowDecision(
+    String transactionId,
+    String userId,
+    String challenger,
+    DecisionOutcome championOutcome,
+    DecisionOutcome challengerOutcome,
+    double championRiskScore,
+    double challengerRiskScore,
+    List<String> championReasonCodes,
+    List<String> challengerReasonCodes,
+    String championRuleVersion,
+    String challengerRuleVersion,
+    long challengerLatencyMicros,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Instant timestamp
+) {
+    public boolean agrees() {
+        return championOutcome == challengerOutcome;
+    }
+}
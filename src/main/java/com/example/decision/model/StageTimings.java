@@ -0,0 +1,20 @@
+package com.example.decision.model;
+
+/**
+ * Where the time of one decision went, in nanoseconds.
+ * <p>
+ * Stages are recorded as they finish, so a snapshot taken mid-evaluation has
+ * zero for the stages not yet reached: the published message and the audit
+ * row are built before the audit write and the Kafka send, and carry the time
+ * up to that point as {@code total}. The decision returned to the caller has
+ * every stage, and the audit row is updated with them once it is written.
+ */
+public record StageTimings(
+    long enrichNanos,
+    long rulesNanos,
+    long scoreNanos,
+    long persistNanos,
+    long publishNanos,
+    long totalNanos
+) {
+}
@@ -0,0 +1,11 @@
+package com.example.decision.model;
+
+/**
+ * Changelog entry for a locally owned velocity counter.
+ * Buckets are stored oldest to newest, ending at {@code headBucket}.
+ */
+public record VelocitySnapshot(
+    String userId,
+    long headBucket,
+    int[] counts
+) {}
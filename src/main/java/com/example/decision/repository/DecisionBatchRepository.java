@@ -0,0 +1,100 @@
+package com.example.decision.repository;
+
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.model.StageTimings;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Multi-row audit inserts through JDBC batching.
+ * JPA cannot batch inserts for {@code DecisionEntity} because its key is
+ * IDENTITY-generated, so bulk writes bypass the entity manager.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DecisionBatchRepository {
+
+    private static final String INSERT_SQL =
+        "INSERT INTO decisions (transaction_id, user_id, outcome, risk_score, reason_codes, " +
+        "rule_version, latency_ms, timestamp, missing_features, enrich_nanos, rules_nanos, score_nanos, " +
+        "persist_nanos, publish_nanos, total_nanos, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_TIMINGS_SQL =
+        "UPDATE decisions SET persist_nanos = ?, publish_nanos = ?, total_nanos = ? " +
+        "WHERE transaction_id = ? AND timestamp = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Final stage timings of a written row, which is found by its transaction
+     * ID and decision time (so each update touches one partition).
+     */
+    public record Timings(String transactionId, Instant timestamp, StageTimings timings) {}
+
+    /**
+     * Insert all rows in one JDBC batch.
+     */
+    public void insertAll(List<DecisionEntity> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, entities, entities.size(), DecisionBatchRepository::bind);
+    }
+
+    /**
+     * Insert a single row; used to isolate failures when a batch is rejected.
+     */
+    public void insert(DecisionEntity entity) {
+        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entity));
+    }
+
+    /**
+     * Complete the stage timings of written rows with the stages that finish
+     * after the insert: persist, publish and the total. No indexed column
+     * changes, so PostgreSQL can update the rows in place.
+     */
+    public void updateTimings(List<Timings> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPDATE_TIMINGS_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.timings().persistNanos());
+            ps.setLong(2, row.timings().publishNanos());
+            ps.setLong(3, row.timings().totalNanos());
+            ps.setString(4, row.transactionId());
+            ps.setObject(5, toOffsetDateTime(row.timestamp()));
+        });
+    }
+
+    private static void bind(PreparedStatement ps, DecisionEntity entity) throws SQLException {
+        ps.setString(1, entity.getTransactionId());
+        ps.setString(2, entity.getUserId());
+        ps.setString(3, entity.getOutcome().name());
+        ps.setDouble(4, entity.getRiskScore());
+        ps.setString(5, entity.getReasonCodes());
+        ps.setString(6, entity.getRuleVersion());
+        ps.setLong(7, entity.getLatencyMs());
+        ps.setObject(8, toOffsetDateTime(entity.getTimestamp()));
+        ps.setString(9, entity.getMissingFeatures());
+        ps.setObject(10, entity.getEnrichNanos(), Types.BIGINT);
+        ps.setObject(11, entity.getRulesNanos(), Types.BIGINT);
+        ps.setObject(12, entity.getScoreNanos(), Types.BIGINT);
+        ps.setObject(13, entity.getPersistNanos(), Types.BIGINT);
+        ps.setObject(14, entity.getPublishNanos(), Types.BIGINT);
+        ps.setObject(15, entity.getTotalNanos(), Types.BIGINT);
+        ps.setObject(16, toOffsetDateTime(entity.getCreatedAt() != null ? entity.getCreatedAt() : Instant.now()));
+    }
+
+    private static OffsetDateTime toOffsetDateTime(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
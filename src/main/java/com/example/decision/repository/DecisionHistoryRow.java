@@ -0,0 +1,43 @@
+package com.example.decision.repository;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.model.DecisionOutcome;
+
+import java.time.Instant;
+
+/**
+ * Columns of an audit row needed for decision history, selected with a JPQL
+ * constructor expression so no entity is hydrated or tracked. {@code id} is the
+ * tie-breaker of the history cursor.
+ */
+public record DecisionHistoryRow(
+    Long id,
+    String transactionId,
+    String userId,
+    DecisionOutcome outcome,
+    Double riskScore,
+    String reasonCodes,
+    String ruleVersion,
+    Long latencyMs,
+    Instant timestamp,
+    String missingFeatures
+) {
+    /**
+     * The decision without stage timings, which history does not select
+     * ({@code /transaction/{id}/timings} has them).
+     */
+    public Decision toDecision() {
+        return new Decision(
+            transactionId,
+            userId,
+            outcome,
+            riskScore,
+            DecisionEntity.splitCodes(reasonCodes),
+            ruleVersion,
+            latencyMs,
+            timestamp,
+            DecisionEntity.splitCodes(missingFeatures)
+        );
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.decision.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.support.DataAccessUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * PostgreSQL range partitions of the {@code decisions} audit table, which
+ * {@code schema-postgresql.sql} creates partitioned by {@code timestamp}.
+ * <p>
+ * Every partition gets its own unique index on {@code transaction_id}:
+ * PostgreSQL cannot enforce a unique key across partitions unless it includes
+ * the partition key. A detached partition is marked as pending archival in its
+ * table comment until it is dropped.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DecisionPartitionRepository {
+
+    /** Advisory lock held while partitions are maintained ("decision" in ASCII). */
+    private static final long MAINTENANCE_LOCK = 0x6465636973696f6eL;
+    private static final String ARCHIVE_PENDING = "decisions: archive pending";
+    private static final Pattern TABLE_NAME = Pattern.compile("decisions_[a-z0-9_]+");
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    // Bounds are read back as timestamptz; MINVALUE and MAXVALUE come back null
+    private static final String ATTACHED_SQL =
+        "SELECT c.relname AS name, " +
+        "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'FROM \\(''([^'']+)''\\)'))[1]::timestamptz AS range_from, " +
+        "(regexp_match(pg_get_expr(c.relpartbound, c.oid), 'TO \\(''([^'']+)''\\)'))[1]::timestamptz AS range_to " +
+        "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+        "WHERE i.inhparent = to_regclass('decisions') AND pg_get_expr(c.relpartbound, c.oid) <> 'DEFAULT' " +
+        "ORDER BY range_from NULLS FIRST";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * A partition holding [{@code from}, {@code to}); a null bound is unbounded.
+     */
+    public record Partition(String name, Instant from, Instant to) {
+
+        public boolean contains(Instant instant) {
+            return (from == null || !from.isAfter(instant)) && (to == null || instant.isBefore(to));
+        }
+    }
+
+    public boolean isPartitioned() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass('decisions'))",
+            Boolean.class));
+    }
+
+    /**
+     * Run {@code work} on a single connection that holds the maintenance
+     * advisory lock, so that one instance at a time creates, detaches and drops
+     * partitions.
+     *
+     * @return false, without running it, if another instance holds the lock
+     */
+    public boolean withMaintenanceLock(Consumer<DecisionPartitionRepository> work) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            JdbcTemplate locked = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+            if (!Boolean.TRUE.equals(locked.queryForObject(
+                    "SELECT pg_try_advisory_lock(?)", Boolean.class, MAINTENANCE_LOCK))) {
+                return false;
+            }
+            try {
+                work.accept(new DecisionPartitionRepository(locked));
+                return true;
+            } finally {
+                locked.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, MAINTENANCE_LOCK);
+            }
+        }));
+    }
+
+    /**
+     * Attached partitions, oldest first; the default partition is left out.
+     */
+    public List<Partition> attached() {
+        return jdbcTemplate.query(ATTACHED_SQL, (rs, row) -> new Partition(
+            rs.getString("name"), instant(rs, "range_from"), instant(rs, "range_to")));
+    }
+
+    /**
+     * Detached partitions not archived yet.
+     */
+    public List<String> detached() {
+        return jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_class c WHERE c.relkind = 'r' AND NOT c.relispartition " +
+            "AND pg_table_is_visible(c.oid) AND obj_description(c.oid, 'pg_class') = ? ORDER BY c.relname",
+            String.class, ARCHIVE_PENDING);
+    }
+
+    public void create(String name, Instant from, Instant to) {
+        inTransaction(
+            "CREATE TABLE " + checked(name) + " PARTITION OF decisions " +
+            "FOR VALUES FROM ('" + from + "') TO ('" + to + "')",
+            "CREATE UNIQUE INDEX " + name + "_transaction_id ON " + name + " (transaction_id)");
+    }
+
+    /**
+     * Detach a partition and mark it pending archival.
+     * <p>
+     * {@code DETACH PARTITION ... CONCURRENTLY} (PostgreSQL 14+) only takes a
+     * share update exclusive lock on {@code decisions}, so inserts and queries
+     * go on while it runs. It commits twice and cannot run in a transaction
+     * block. Between the two it waits for transactions that may still see the
+     * partition, for at most {@code lockTimeout}; if that wait fails the
+     * partition is left detach-pending, and the next call completes it with
+     * {@code FINALIZE}. The table is marked before it is detached, so a
+     * detached partition is always picked up for archival.
+     */
+    public void detach(String name, Duration lockTimeout) {
+        String table = checked(name);
+        boolean pending = isDetachPending(table);
+        jdbcTemplate.execute("COMMENT ON TABLE " + table + " IS '" + ARCHIVE_PENDING + "'");
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET lock_timeout = " + lockTimeout.toMillis());
+                try {
+                    statement.execute("ALTER TABLE decisions DETACH PARTITION " + table
+                        + (pending ? " FINALIZE" : " CONCURRENTLY"));
+                } finally {
+                    statement.execute("RESET lock_timeout");
+                }
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Whether a partition was left half detached by an interrupted
+     * concurrent detach.
+     */
+    public boolean isDetachPending(String name) {
+        return Boolean.TRUE.equals(DataAccessUtils.singleResult(jdbcTemplate.queryForList(
+            "SELECT inhdetachpending FROM pg_inherits WHERE inhrelid = to_regclass(?)", Boolean.class,
+            checked(name))));
+    }
+
+    /**
+     * Stream every row of a detached partition through {@code handler}, a
+     * fetch at a time.
+     */
+    public void forEachRow(String name, RowCallbackHandler handler) {
+        String sql = "SELECT * FROM " + checked(name);
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            // PostgreSQL only reads with a cursor inside a transaction
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.setFetchSize(EXPORT_FETCH_SIZE);
+                try (ResultSet rows = statement.executeQuery(sql)) {
+                    while (rows.next()) {
+                        handler.processRow(rows);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    public void drop(String name) {
+        jdbcTemplate.execute("DROP TABLE " + checked(name));
+    }
+
+    private void inTransaction(String... statements) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String sql : statements) {
+                    statement.execute(sql);
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    /** Names are spliced into DDL, so only partition-like identifiers get through. */
+    private static String checked(String name) {
+        if (!TABLE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Not a decisions partition: " + name);
+        }
+        return name;
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        OffsetDateTime value = rs.getObject(column, OffsetDateTime.class);
+        return value != null ? value.toInstant() : null;
+    }
+}
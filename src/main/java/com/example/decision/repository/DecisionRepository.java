@@ -2,6 +2,7 @@ package com.example.decision.repository;
 
 import com.example.decision.model.DecisionEntity;
 import com.example.decision.model.DecisionOutcome;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,9 +15,41 @@ import java.util.Optional;
 @Repository
 public interface DecisionRepository extends JpaRepository<DecisionEntity, Long> {
     
-    Optional<DecisionEntity> findByTransactionId(String transactionId);
+    /**
+     * The decision for a transaction made in [from, to). PostgreSQL only probes
+     * the unique index of the partitions overlapping the range.
+     */
+    @Query("SELECT d FROM DecisionEntity d WHERE d.transactionId = :transactionId " +
+           "AND d.timestamp >= :from AND d.timestamp < :to")
+    Optional<DecisionEntity> findByTransactionId(@Param("transactionId") String transactionId,
+                                                 @Param("from") Instant from, @Param("to") Instant to);
     
-    List<DecisionEntity> findByUserIdOrderByTimestampDesc(String userId);
+    /**
+     * Newest decisions of a user in [from, to), as projections. Served by
+     * {@code idx_user_timestamp_id}; pass {@code limit + 1} rows to learn
+     * whether there is a next page.
+     */
+    @Query("SELECT new com.example.decision.repository.DecisionHistoryRow(d.id, d.transactionId, d.userId, " +
+           "d.outcome, d.riskScore, d.reasonCodes, d.ruleVersion, d.latencyMs, d.timestamp, d.missingFeatures) " +
+           "FROM DecisionEntity d WHERE d.userId = :userId AND d.timestamp >= :from AND d.timestamp < :to " +
+           "ORDER BY d.timestamp DESC, d.id DESC")
+    List<DecisionHistoryRow> findHistory(@Param("userId") String userId, @Param("from") Instant from,
+                                         @Param("to") Instant to, Pageable pageable);
+
+    /**
+     * As {@link #findHistory}, continuing after the row at ({@code timestamp}, {@code id}).
+     * The redundant {@code timestamp <= :timestamp} lets PostgreSQL skip the
+     * partitions after the cursor, which it cannot tell from the OR alone.
+     */
+    @Query("SELECT new com.example.decision.repository.DecisionHistoryRow(d.id, d.transactionId, d.userId, " +
+           "d.outcome, d.riskScore, d.reasonCodes, d.ruleVersion, d.latencyMs, d.timestamp, d.missingFeatures) " +
+           "FROM DecisionEntity d WHERE d.userId = :userId AND d.timestamp >= :from AND d.timestamp < :to " +
+           "AND d.timestamp <= :timestamp " +
+           "AND (d.timestamp < :timestamp OR (d.timestamp = :timestamp AND d.id < :id)) " +
+           "ORDER BY d.timestamp DESC, d.id DESC")
+    List<DecisionHistoryRow> findHistoryAfter(@Param("userId") String userId, @Param("from") Instant from,
+                                              @Param("to") Instant to, @Param("timestamp") Instant timestamp,
+                                              @Param("id") long id, Pageable pageable);
     
     List<DecisionEntity> findByOutcome(DecisionOutcome outcome);
     
@@ -26,6 +59,16 @@ public interface DecisionRepository extends JpaRepository<DecisionEntity, Long>
     @Query("SELECT COUNT(d) FROM DecisionEntity d WHERE d.userId = :userId AND d.timestamp >= :since")
     long countRecentByUserId(@Param("userId") String userId, @Param("since") Instant since);
     
-    @Query("SELECT AVG(d.latencyMs) FROM DecisionEntity d WHERE d.timestamp >= :since")
-    Double getAverageLatencySince(@Param("since") Instant since);
+    @Query("SELECT d.transactionId FROM DecisionEntity d WHERE d.timestamp >= :since")
+    List<String> findTransactionIdsSince(@Param("since") Instant since);
+    
+    /**
+     * Decisions in [from, to) by total stage time, slowest first. There is no
+     * index on {@code total_nanos} (its update after the audit write stays in
+     * place that way), so this reads the range through {@code idx_timestamp}
+     * and sorts it: callers keep the range short.
+     */
+    @Query("SELECT d FROM DecisionEntity d WHERE d.timestamp >= :from AND d.timestamp < :to " +
+           "AND d.totalNanos IS NOT NULL ORDER BY d.totalNanos DESC")
+    List<DecisionEntity> findSlowest(@Param("from") Instant from, @Param("to") Instant to, Pageable pageable);
 }
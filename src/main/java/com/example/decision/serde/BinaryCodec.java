@@ -0,0 +1,408 @@
+package com.example.decision.serde;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.StageTimings;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Fixed-layout binary encoding of {@link Transaction} and {@link Decision}
+ * (Kafka values) and {@link UserProfile} (Redis values).
+ * <p>
+ * Every payload starts with a three-byte preamble: {@link #MAGIC}, the schema
+ * version and a type byte. JSON never starts with {@code 0x00}, so a payload
+ * can be told apart from a JSON one even without the {@link WireFormat#HEADER}
+ * header. Fields follow in declaration order:
+ * <ul>
+ *   <li>strings: unsigned varint of the UTF-8 length plus one (zero is null), then the bytes</li>
+ *   <li>{@code BigDecimal}: zig-zag varint scale, then a zig-zag varlong unscaled value, or
+ *       {@link #BIG_UNSCALED} followed by a length-prefixed two's-complement value when it
+ *       does not fit in 63 bits</li>
+ *   <li>{@code Instant}: zig-zag varlong epoch seconds and unsigned varint nanos</li>
+ *   <li>{@code double}: eight bytes, big-endian IEEE 754</li>
+ *   <li>{@code DecisionOutcome}: one byte, the ordinal (new outcomes are appended)</li>
+ *   <li>lists and sets: unsigned varint count, then the elements</li>
+ *   <li>{@code StageTimings} and the profile's average amount: a presence byte, then the value</li>
+ * </ul>
+ * Adding a field means a new {@link #VERSION}; readers keep decoding the old
+ * versions they know.
+ */
+public final class BinaryCodec {
+
+    public static final byte MAGIC = 0x00;
+    public static final byte VERSION = 1;
+
+    static final byte TYPE_TRANSACTION = 'T';
+    static final byte TYPE_DECISION = 'D';
+    static final byte TYPE_PROFILE = 'P';
+
+    /** Scale marker for unscaled values that need more than a varlong. */
+    private static final int BIG_UNSCALED = Integer.MIN_VALUE;
+
+    private static final DecisionOutcome[] OUTCOMES = DecisionOutcome.values();
+
+    private BinaryCodec() {
+    }
+
+    public static boolean supports(Object value) {
+        return value instanceof Transaction || value instanceof Decision || value instanceof UserProfile;
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length >= 3 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(Object value) {
+        if (value instanceof Transaction transaction) {
+            return encode(transaction);
+        }
+        if (value instanceof Decision decision) {
+            return encode(decision);
+        }
+        if (value instanceof UserProfile profile) {
+            return encode(profile);
+        }
+        throw new SerializationException("No binary encoding for " + (value == null ? null : value.getClass()));
+    }
+
+    public static byte[] encode(Transaction transaction) {
+        Writer out = new Writer(96);
+        out.preamble(TYPE_TRANSACTION);
+        out.string(transaction.transactionId());
+        out.string(transaction.userId());
+        out.decimal(transaction.amount());
+        out.string(transaction.currency());
+        out.string(transaction.merchant());
+        out.string(transaction.merchantCategory());
+        out.string(transaction.deviceId());
+        out.string(transaction.location());
+        out.instant(transaction.timestamp());
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(Decision decision) {
+        Writer out = new Writer(128);
+        out.preamble(TYPE_DECISION);
+        out.string(decision.transactionId());
+        out.string(decision.userId());
+        out.raw(decision.outcome().ordinal());
+        out.fixed64(Double.doubleToRawLongBits(decision.riskScore()));
+        out.strings(decision.reasonCodes());
+        out.string(decision.ruleVersion());
+        out.varlong(decision.latencyMs());
+        out.instant(decision.timestamp());
+        out.strings(decision.missingFeatures());
+        StageTimings timings = decision.timings();
+        out.raw(timings != null ? 1 : 0);
+        if (timings != null) {
+            out.varlong(timings.enrichNanos());
+            out.varlong(timings.rulesNanos());
+            out.varlong(timings.scoreNanos());
+            out.varlong(timings.persistNanos());
+            out.varlong(timings.publishNanos());
+            out.varlong(timings.totalNanos());
+        }
+        return out.toByteArray();
+    }
+
+    public static byte[] encode(UserProfile profile) {
+        Writer out = new Writer(64);
+        out.preamble(TYPE_PROFILE);
+        out.string(profile.userId());
+        out.raw(profile.averageTransactionAmount() != null ? 1 : 0);
+        if (profile.averageTransactionAmount() != null) {
+            out.decimal(profile.averageTransactionAmount());
+        }
+        out.string(profile.homeLocation());
+        out.strings(profile.trustedDevices());
+        out.strings(profile.frequentMerchants());
+        out.varint(profile.totalTransactionCount());
+        out.raw(profile.isPremiumCustomer() ? 1 : 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Decode a payload written by {@link #encode(Object)}.
+     *
+     * @throws SerializationException if the payload is not a known type and version, or is truncated
+     */
+    public static Object decode(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("Not a binary payload");
+        }
+        if (data[1] != VERSION) {
+            throw new SerializationException("Unsupported binary schema version " + data[1]);
+        }
+        Reader in = new Reader(data, 3);
+        try {
+            return switch (data[2]) {
+                case TYPE_TRANSACTION -> decodeTransaction(in);
+                case TYPE_DECISION -> decodeDecision(in);
+                case TYPE_PROFILE -> decodeProfile(in);
+                default -> throw new SerializationException("Unknown binary payload type " + data[2]);
+            };
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new SerializationException("Truncated binary payload", e);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            // Rejected by the record's own validation
+            throw new SerializationException("Invalid binary payload: " + e.getMessage(), e);
+        }
+    }
+
+    private static Transaction decodeTransaction(Reader in) {
+        return new Transaction(
+            in.string(),
+            in.string(),
+            in.decimal(),
+            in.string(),
+            in.string(),
+            in.string(),
+            in.string(),
+            in.string(),
+            in.instant()
+        );
+    }
+
+    private static Decision decodeDecision(Reader in) {
+        String transactionId = in.string();
+        String userId = in.string();
+        int outcome = in.raw();
+        if (outcome >= OUTCOMES.length) {
+            throw new SerializationException("Unknown decision outcome " + outcome);
+        }
+        double riskScore = Double.longBitsToDouble(in.fixed64());
+        List<String> reasonCodes = in.strings();
+        String ruleVersion = in.string();
+        long latencyMs = in.varlong();
+        Instant timestamp = in.instant();
+        List<String> missingFeatures = in.strings();
+        StageTimings timings = in.raw() == 1
+            ? new StageTimings(in.varlong(), in.varlong(), in.varlong(), in.varlong(), in.varlong(), in.varlong())
+            : null;
+        return new Decision(transactionId, userId, OUTCOMES[outcome], riskScore, reasonCodes, ruleVersion,
+                            latencyMs, timestamp, missingFeatures, timings);
+    }
+
+    private static UserProfile decodeProfile(Reader in) {
+        String userId = in.string();
+        BigDecimal averageAmount = in.raw() == 1 ? in.decimal() : null;
+        return new UserProfile(
+            userId,
+            averageAmount,
+            in.string(),
+            in.stringSet(),
+            in.stringSet(),
+            in.varint(),
+            in.raw() == 1
+        );
+    }
+
+    private static final class Writer {
+        private byte[] buffer;
+        private int position;
+
+        Writer(int initialCapacity) {
+            buffer = new byte[initialCapacity];
+        }
+
+        void preamble(byte type) {
+            raw(MAGIC);
+            raw(VERSION);
+            raw(type);
+        }
+
+        void raw(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void varint(int value) {
+            varlong(value & 0xFFFFFFFFL);
+        }
+
+        void varlong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varlong((value << 1) ^ (value >> 63));
+        }
+
+        void fixed64(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        void string(String value) {
+            if (value == null) {
+                raw(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length + 1);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void strings(Collection<String> values) {
+            varint(values.size());
+            for (String value : values) {
+                string(value);
+            }
+        }
+
+        void decimal(BigDecimal value) {
+            BigInteger unscaled = value.unscaledValue();
+            if (unscaled.bitLength() < 64) {
+                zigzag(value.scale());
+                zigzag(unscaled.longValue());
+            } else {
+                zigzag(BIG_UNSCALED);
+                zigzag(value.scale());
+                byte[] bytes = unscaled.toByteArray();
+                varint(bytes.length);
+                ensure(bytes.length);
+                System.arraycopy(bytes, 0, buffer, position, bytes.length);
+                position += bytes.length;
+            }
+        }
+
+        void instant(Instant value) {
+            zigzag(value.getEpochSecond());
+            varint(value.getNano());
+        }
+
+        private void ensure(int bytes) {
+            if (position + bytes > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + bytes));
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int raw() {
+            return data[position++] & 0xFF;
+        }
+
+        int varint() {
+            long value = varlong();
+            if (value > Integer.MAX_VALUE) {
+                throw new SerializationException("Varint out of range: " + value);
+            }
+            return (int) value;
+        }
+
+        long varlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        long zigzag() {
+            long value = varlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long fixed64() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String string() {
+            int length = varint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            checkRemaining(length);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        List<String> strings() {
+            int count = varint();
+            checkRemaining(count);
+            List<String> values = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                values.add(string());
+            }
+            return values;
+        }
+
+        Set<String> stringSet() {
+            int count = varint();
+            checkRemaining(count);
+            Set<String> values = new HashSet<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                values.add(string());
+            }
+            return values;
+        }
+
+        BigDecimal decimal() {
+            long scale = zigzag();
+            if (scale != BIG_UNSCALED) {
+                return BigDecimal.valueOf(zigzag(), (int) scale);
+            }
+            int realScale = (int) zigzag();
+            int length = varint();
+            checkRemaining(length);
+            BigInteger unscaled = new BigInteger(data, position, length);
+            position += length;
+            return new BigDecimal(unscaled, realScale);
+        }
+
+        Instant instant() {
+            long seconds = zigzag();
+            return Instant.ofEpochSecond(seconds, varint());
+        }
+
+        private void checkRemaining(int bytes) {
+            if (bytes > data.length - position) {
+                throw new SerializationException("Truncated binary payload");
+            }
+        }
+    }
+}
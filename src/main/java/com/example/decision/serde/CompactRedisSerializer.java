@@ -0,0 +1,44 @@
+package com.example.decision.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Redis value serializer that stores {@link com.example.decision.model.UserProfile}
+ * in the {@link BinaryCodec} layout and everything else as typed JSON.
+ * <p>
+ * Reads accept both: binary values start with {@code 0x00}, which JSON never
+ * does, so profiles cached as JSON by earlier versions are still decoded until
+ * they expire. With {@code writeBinary} off, profiles are written as JSON too,
+ * for rolling deploys where older instances still read the same keys.
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final boolean writeBinary;
+
+    public CompactRedisSerializer(boolean writeBinary) {
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) {
+        if (writeBinary && BinaryCodec.supports(value)) {
+            return BinaryCodec.encode(value);
+        }
+        return json.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) {
+        if (!BinaryCodec.isBinary(bytes)) {
+            return json.deserialize(bytes);
+        }
+        try {
+            return BinaryCodec.decode(bytes);
+        } catch (SerializationException e) {
+            throw new org.springframework.data.redis.serializer.SerializationException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.decision.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka value deserializer that reads both wire formats.
+ * <p>
+ * The {@link WireFormat#HEADER} header decides: {@code binary;v=N} goes to
+ * {@link BinaryCodec}, {@code json} to Spring's {@link JsonDeserializer}. Records
+ * from producers that predate the header are sniffed by their first byte.
+ * Configuration other than the wire format is passed to the JSON delegate
+ * ({@code spring.json.trusted.packages} and friends).
+ */
+public class WireDeserializer implements Deserializer<Object> {
+
+    private static final String BINARY_PREFIX = "binary";
+
+    private final JsonDeserializer<Object> json = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        return BinaryCodec.isBinary(data) ? BinaryCodec.decode(data) : json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header header = headers.lastHeader(WireFormat.HEADER);
+        if (header == null) {
+            return BinaryCodec.isBinary(data) ? BinaryCodec.decode(data) : json.deserialize(topic, headers, data);
+        }
+        String value = new String(header.value(), StandardCharsets.UTF_8);
+        if (value.startsWith(BINARY_PREFIX)) {
+            return BinaryCodec.decode(data);
+        }
+        if (value.equals(WireFormat.JSON.headerValue())) {
+            return json.deserialize(topic, headers, data);
+        }
+        throw new SerializationException("Unsupported wire format '" + value + "' on topic " + topic);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
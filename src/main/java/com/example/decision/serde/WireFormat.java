@@ -0,0 +1,49 @@
+package com.example.decision.serde;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Encodings of {@code txn-events} and {@code decision-results} values.
+ * <p>
+ * Producers mark each record with a {@link #HEADER} header naming its format,
+ * and {@link WireDeserializer} picks the decoder from it, so JSON and binary
+ * producers can share a topic while they migrate.
+ */
+public enum WireFormat {
+    /** Spring Kafka JSON with {@code __TypeId__} headers. */
+    JSON("json"),
+    /** {@link BinaryCodec}, schema version {@link BinaryCodec#VERSION}. */
+    BINARY("binary;v=" + BinaryCodec.VERSION);
+
+    public static final String HEADER = "wire-format";
+
+    /** Producer and consumer config key, read by {@link WireSerializer}. */
+    public static final String CONFIG = "decision.wire-format";
+
+    private final String headerValue;
+    private final byte[] headerBytes;
+
+    WireFormat(String headerValue) {
+        this.headerValue = headerValue;
+        this.headerBytes = headerValue.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public String headerValue() {
+        return headerValue;
+    }
+
+    byte[] headerBytes() {
+        return headerBytes.clone();
+    }
+
+    /**
+     * Parse a config value such as {@code binary} or {@code JSON}.
+     */
+    public static WireFormat of(Object value) {
+        if (value instanceof WireFormat format) {
+            return format;
+        }
+        return value == null ? JSON : valueOf(value.toString().trim().toUpperCase(Locale.ROOT));
+    }
+}
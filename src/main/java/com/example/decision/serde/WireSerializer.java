@@ -0,0 +1,53 @@
+package com.example.decision.serde;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+
+/**
+ * Kafka value serializer that writes {@link BinaryCodec} payloads when
+ * {@value WireFormat#CONFIG} is {@code binary} and JSON otherwise.
+ * <p>
+ * Types the codec does not know are always written as JSON. Every record gets
+ * a {@link WireFormat#HEADER} header so consumers need no configuration to
+ * read either format.
+ */
+public class WireSerializer implements Serializer<Object> {
+
+    private final JsonSerializer<Object> json = new JsonSerializer<>();
+    private WireFormat format = WireFormat.JSON;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        format = WireFormat.of(configs.get(WireFormat.CONFIG));
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return format == WireFormat.BINARY && BinaryCodec.supports(data)
+            ? BinaryCodec.encode(data)
+            : json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(WireFormat.HEADER);
+        if (format == WireFormat.BINARY && BinaryCodec.supports(data)) {
+            headers.add(WireFormat.HEADER, WireFormat.BINARY.headerBytes());
+            return BinaryCodec.encode(data);
+        }
+        headers.add(WireFormat.HEADER, WireFormat.JSON.headerBytes());
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        json.close();
+    }
+}
@@ -0,0 +1,334 @@
+package com.example.decision.service;
+
+import com.example.decision.repository.DecisionPartitionRepository;
+import com.example.decision.repository.DecisionPartitionRepository.Partition;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Time partitions of the audit table.
+ * <p>
+ * Partitions are created {@code premake} periods ahead of the current one, at
+ * startup (before the first insert) and on every maintenance run, so inserts
+ * only ever touch the current partition and its indexes. Partitions that end
+ * more than {@code retention} ago are detached concurrently, exported to
+ * {@code archive-dir} as gzipped NDJSON (one object per row, every column) and
+ * dropped once the file is on disk. A partition whose export fails stays
+ * detached and is retried on the next run.
+ * <p>
+ * Maintenance runs on one instance at a time, under a PostgreSQL advisory
+ * lock, and on its own thread: an archive can take minutes, and the shared
+ * scheduler thread has to keep running backpressure checks, dedup syncs and
+ * velocity snapshots meanwhile. A {@code decisions} table that is not partitioned (created by an
+ * earlier version) is left alone; {@code scripts/partition-decisions.sql}
+ * converts it.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    /** Partition length; boundaries are UTC midnights. */
+    public enum Period {
+        DAY, MONTH;
+
+        Instant start(Instant instant) {
+            LocalDate date = LocalDate.ofInstant(instant, ZoneOffset.UTC);
+            return (this == DAY ? date : date.withDayOfMonth(1)).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+
+        Instant next(Instant start) {
+            LocalDate date = LocalDate.ofInstant(start, ZoneOffset.UTC);
+            return (this == DAY ? date.plusDays(1) : date.plusMonths(1)).atStartOfDay(ZoneOffset.UTC).toInstant();
+        }
+    }
+
+    private static final DateTimeFormatter PARTITION_DATE =
+        DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final int ARCHIVE_BUFFER = 64 * 1024;
+
+    private final DecisionPartitionRepository repository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.audit.partitions.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${decision.audit.partitions.period:month}")
+    private Period period = Period.MONTH;
+
+    /** Periods created ahead of the current one. */
+    @Value("${decision.audit.partitions.premake:2}")
+    private int premake = 2;
+
+    /** How long rows stay in the table after their partition ends; 0 keeps them. */
+    @Value("${decision.audit.partitions.retention:90d}")
+    private Duration retention = Duration.ofDays(90);
+
+    @Value("${decision.audit.partitions.archive-dir:archive/decisions}")
+    private String archiveDir = "archive/decisions";
+
+    @Value("${decision.audit.partitions.detach-lock-timeout:2s}")
+    private Duration detachLockTimeout = Duration.ofSeconds(2);
+
+    /** Detach and archive run here, never on the scheduler thread. */
+    private final ExecutorService maintenance = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "audit-partitions");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean maintaining = new AtomicBoolean();
+
+    private volatile boolean partitioned;
+    private Counter created;
+    private Counter archived;
+    private Counter archivedRows;
+    private Counter failures;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        created = Counter.builder("decision.audit.partitions.created")
+            .description("Audit partitions created ahead of their period")
+            .register(meterRegistry);
+        archived = Counter.builder("decision.audit.partitions.archived")
+            .description("Partitions exported to the archive and dropped")
+            .register(meterRegistry);
+        archivedRows = Counter.builder("decision.audit.partitions.archived_rows")
+            .description("Audit rows written to the archive")
+            .register(meterRegistry);
+        failures = Counter.builder("decision.audit.partitions.failures")
+            .description("Partition creations, detaches and exports that failed and will be retried")
+            .register(meterRegistry);
+        try {
+            partitioned = repository.isPartitioned();
+        } catch (DataAccessException e) {
+            log.warn("Audit partitions not managed: {}", e.getMessage());
+            return;
+        }
+        if (!partitioned) {
+            log.warn("Audit table is not partitioned; run scripts/partition-decisions.sql to convert it");
+            return;
+        }
+        try {
+            // If another instance holds the lock, it is creating them
+            repository.withMaintenanceLock(this::createUpcoming);
+        } catch (DataAccessException e) {
+            failures.increment();
+            log.error("Audit partitions not created at startup; retrying at the next maintenance run", e);
+        }
+        log.info("Audit partitions managed (period: {}, premake: {}, retention: {}, archive: {})",
+                 period, premake, retention, archiveDir);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // An interrupted export stays detached and is retried by the next instance to run
+        maintenance.shutdownNow();
+    }
+
+    /**
+     * Hand a maintenance run to the maintenance thread; a run still in
+     * progress is not queued behind.
+     */
+    @Scheduled(initialDelayString = "${decision.audit.partitions.maintenance-interval:3600000}",
+               fixedDelayString = "${decision.audit.partitions.maintenance-interval:3600000}")
+    public void scheduleMaintenance() {
+        if (partitioned && maintaining.compareAndSet(false, true)) {
+            maintenance.execute(() -> {
+                try {
+                    maintain();
+                } finally {
+                    maintaining.set(false);
+                }
+            });
+        }
+    }
+
+    public void maintain() {
+        if (!partitioned) {
+            return;
+        }
+        try {
+            boolean ran = repository.withMaintenanceLock(partitions -> {
+                createUpcoming(partitions);
+                retire(partitions);
+            });
+            if (!ran) {
+                log.debug("Audit partition maintenance is running on another instance");
+            }
+        } catch (DataAccessException e) {
+            failures.increment();
+            log.error("Audit partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create partitions for whatever part of the current and the next
+     * {@code premake} periods no partition covers yet.
+     */
+    void createUpcoming(DecisionPartitionRepository partitions) {
+        List<Partition> attached = new ArrayList<>(partitions.attached());
+        Instant start = period.start(Instant.now());
+        for (int i = 0; i <= premake; i++) {
+            Instant end = period.next(start);
+            Instant from = start;
+            while (from.isBefore(end)) {
+                Partition covering = covering(attached, from);
+                if (covering != null) {
+                    if (covering.to() == null) {
+                        break;
+                    }
+                    from = covering.to();
+                    continue;
+                }
+                Instant to = end;
+                for (Partition partition : attached) {
+                    if (partition.from() != null && partition.from().isAfter(from) && partition.from().isBefore(to)) {
+                        to = partition.from();
+                    }
+                }
+                String name = "decisions_p" + PARTITION_DATE.format(from);
+                try {
+                    partitions.create(name, from, to);
+                    created.increment();
+                    log.info("Created audit partition {} [{}, {})", name, from, to);
+                } catch (DataAccessException e) {
+                    failures.increment();
+                    log.error("Audit partition {} [{}, {}) not created: {}", name, from, to, e.getMessage());
+                }
+                attached.add(new Partition(name, from, to));
+                from = to;
+            }
+            start = end;
+        }
+    }
+
+    /**
+     * Detach the partitions past retention, then archive and drop every
+     * detached one, including those left by an earlier failed run.
+     */
+    void retire(DecisionPartitionRepository partitions) {
+        if (retention.isZero()) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(retention);
+        for (Partition partition : partitions.attached()) {
+            if (partition.to() == null || partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            try {
+                partitions.detach(partition.name(), detachLockTimeout);
+                log.info("Detached audit partition {}", partition.name());
+            } catch (DataAccessException e) {
+                failures.increment();
+                log.warn("Audit partition {} not detached: {}", partition.name(), e.getMessage());
+            }
+        }
+        for (String table : partitions.detached()) {
+            archive(partitions, table);
+        }
+    }
+
+    private void archive(DecisionPartitionRepository partitions, String table) {
+        Path dir = Path.of(archiveDir);
+        Path target = dir.resolve(table + ".ndjson.gz");
+        Path partial = dir.resolve(table + ".ndjson.gz.partial");
+        try {
+            Files.createDirectories(dir);
+            long rows;
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                GZIPOutputStream out = new GZIPOutputStream(Channels.newOutputStream(channel), ARCHIVE_BUFFER);
+                rows = writeRows(partitions, table, out);
+                out.finish();
+                // The rows are dropped next, so the file must be on disk first
+                channel.force(true);
+                out.close();
+            }
+            Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            partitions.drop(table);
+            archived.increment();
+            archivedRows.increment(rows);
+            log.info("Archived {} rows of audit partition {} to {}", rows, table, target);
+        } catch (IOException | UncheckedIOException | DataAccessException e) {
+            failures.increment();
+            log.error("Audit partition {} not archived; it stays detached until the next run", table, e);
+        }
+    }
+
+    private long writeRows(DecisionPartitionRepository partitions, String table, OutputStream out)
+            throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Rows are separated by the newline below, not the default space
+        json.setRootValueSeparator(null);
+        long[] rows = {0};
+        partitions.forEachRow(table, row -> {
+            ResultSetMetaData columns = row.getMetaData();
+            try {
+                json.writeStartObject();
+                for (int i = 1; i <= columns.getColumnCount(); i++) {
+                    json.writeFieldName(columns.getColumnLabel(i));
+                    Object value = row.getObject(i);
+                    if (value instanceof Timestamp timestamp) {
+                        json.writeString(timestamp.toInstant().toString());
+                    } else {
+                        json.writeObject(value);
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        json.close();
+        return rows[0];
+    }
+
+    private static Partition covering(List<Partition> partitions, Instant instant) {
+        for (Partition partition : partitions) {
+            if (partition.contains(instant)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+}
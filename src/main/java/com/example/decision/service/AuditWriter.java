@@ -0,0 +1,284 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.repository.DecisionBatchRepository;
+import com.example.decision.repository.DecisionBatchRepository.Timings;
+import com.example.decision.repository.DecisionRepository;
+import com.example.decision.service.DependencyGuard.Dependency;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes decision audit rows.
+ * <p>
+ * In {@code async} mode (the default) rows go onto a bounded queue and a
+ * single flusher thread writes them in multi-row JDBC batches, so the decision
+ * path never holds a database connection. Callers get a future per row that
+ * completes when the row is written; a full queue blocks callers for up to
+ * {@code offer-timeout-ms} before rejecting. In {@code sync} mode rows are
+ * written on the caller's thread (single rows through JPA, batches through
+ * JDBC batching).
+ * <p>
+ * Writes go through the {@code postgres} circuit breaker and bulkhead; while
+ * the breaker is open rows fail immediately instead of waiting for a
+ * connection.
+ * <p>
+ * A row is built before it is written and sent, so its persist, publish and
+ * total timings are filled in afterwards by {@link #writeTimings(List)}: a
+ * second bounded queue, drained in JDBC batches by its own thread in both
+ * modes. Timings are diagnostic, so they are dropped (and counted) rather
+ * than slow down a decision.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class AuditWriter {
+
+    public enum Mode { SYNC, ASYNC }
+
+    public enum Durability {
+        /** Kafka offsets are acknowledged only after the audit row is written. */
+        AFTER_FLUSH,
+        /** Offsets are acknowledged immediately; audit failures are only logged. */
+        FIRE_AND_FORGET
+    }
+
+    private final DecisionRepository repository;
+    private final DecisionBatchRepository batchRepository;
+    private final MeterRegistry meterRegistry;
+    private final DependencyGuard dependencyGuard;
+
+    @Value("${decision.audit.mode:async}")
+    private Mode mode = Mode.ASYNC;
+
+    @Value("${decision.audit.durability:after-flush}")
+    private Durability durability = Durability.AFTER_FLUSH;
+
+    @Value("${decision.audit.queue-capacity:10000}")
+    private int queueCapacity = 10_000;
+
+    @Value("${decision.audit.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${decision.audit.linger-ms:0}")
+    private long lingerMs;
+
+    @Value("${decision.audit.offer-timeout-ms:100}")
+    private long offerTimeoutMs = 100;
+
+    private BlockingQueue<PendingRow> queue;
+    private Thread flusher;
+    private BlockingQueue<Timings> timingsQueue;
+    private Thread timingsFlusher;
+    private volatile boolean running;
+    private Timer flushTimer;
+    private DistributionSummary flushSize;
+
+    private record PendingRow(DecisionEntity entity, CompletableFuture<Void> written) {}
+
+    @PostConstruct
+    public void init() {
+        flushTimer = Timer.builder("audit.flush.latency")
+            .description("Time to write one audit batch")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        flushSize = DistributionSummary.builder("audit.flush.size")
+            .description("Rows per audit batch")
+            .register(meterRegistry);
+
+        running = true;
+        if (mode == Mode.ASYNC) {
+            queue = new ArrayBlockingQueue<>(queueCapacity);
+            Gauge.builder("audit.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+            flusher = new Thread(this::runFlusher, "audit-writer");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        timingsQueue = new ArrayBlockingQueue<>(queueCapacity);
+        timingsFlusher = new Thread(this::runTimingsFlusher, "audit-timings");
+        timingsFlusher.setDaemon(true);
+        timingsFlusher.start();
+        log.info("Audit writer initialized (mode: {}, durability: {}, batchSize: {})", mode, durability, batchSize);
+    }
+
+    /**
+     * Whether consumers must wait for the audit write before acknowledging.
+     */
+    public boolean isAckAfterFlush() {
+        return mode == Mode.SYNC || durability == Durability.AFTER_FLUSH;
+    }
+
+    public CompletableFuture<Void> write(DecisionEntity entity) {
+        if (mode == Mode.SYNC) {
+            long start = System.nanoTime();
+            dependencyGuard.run(Dependency.POSTGRES, () -> repository.save(entity));
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushSize.record(1);
+            return CompletableFuture.completedFuture(null);
+        }
+        return enqueue(entity);
+    }
+
+    /**
+     * Write several rows; the returned futures are in input order.
+     */
+    public List<CompletableFuture<Void>> writeAll(List<DecisionEntity> entities) {
+        if (mode == Mode.SYNC) {
+            List<PendingRow> rows = entities.stream()
+                .map(entity -> new PendingRow(entity, new CompletableFuture<Void>()))
+                .toList();
+            flush(rows);
+            return rows.stream().map(PendingRow::written).toList();
+        }
+        return entities.stream().map(this::enqueue).toList();
+    }
+
+    /**
+     * Complete the timings of rows that have been written. Never blocks; when
+     * the queue is full the timings are dropped and the rows keep the ones
+     * they were written with.
+     */
+    public void writeTimings(List<Timings> rows) {
+        for (Timings row : rows) {
+            if (!timingsQueue.offer(row)) {
+                meterRegistry.counter("audit.timings.dropped").increment();
+            }
+        }
+    }
+
+    private CompletableFuture<Void> enqueue(DecisionEntity entity) {
+        PendingRow row = new PendingRow(entity, new CompletableFuture<>());
+        try {
+            if (!queue.offer(row, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                meterRegistry.counter("audit.rejected").increment();
+                row.written().completeExceptionally(new RejectedExecutionException(
+                    "Audit queue full, rejected transaction: " + entity.getTransactionId()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            row.written().completeExceptionally(e);
+        }
+        return row.written();
+    }
+
+    private void runFlusher() {
+        List<PendingRow> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingRow first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+
+                // Optionally wait a little longer for the batch to fill
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize && System.nanoTime() < deadline) {
+                    PendingRow next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error in audit writer", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void runTimingsFlusher() {
+        List<Timings> batch = new ArrayList<>(batchSize);
+        while (running || !timingsQueue.isEmpty()) {
+            try {
+                Timings first = timingsQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                timingsQueue.drainTo(batch, batchSize - batch.size());
+                dependencyGuard.run(Dependency.POSTGRES, () -> batchRepository.updateTimings(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.debug("Stage timings of {} audit rows not written: {}", batch.size(), e.getMessage());
+                meterRegistry.counter("audit.timings.failures").increment(batch.size());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write rows in one JDBC batch. If the batch is rejected, fall back to
+     * row-by-row inserts so only the offending rows fail.
+     */
+    private void flush(List<PendingRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            dependencyGuard.run(Dependency.POSTGRES,
+                () -> batchRepository.insertAll(rows.stream().map(PendingRow::entity).toList()));
+            rows.forEach(row -> row.written().complete(null));
+        } catch (CallNotPermittedException open) {
+            log.warn("Postgres circuit open, failing {} audit rows", rows.size());
+            meterRegistry.counter("audit.failures").increment(rows.size());
+            rows.forEach(row -> row.written().completeExceptionally(open));
+        } catch (Exception batchFailure) {
+            log.warn("Batch audit insert of {} rows failed, retrying row by row", rows.size(), batchFailure);
+            for (PendingRow row : rows) {
+                try {
+                    dependencyGuard.run(Dependency.POSTGRES, () -> batchRepository.insert(row.entity()));
+                    row.written().complete(null);
+                } catch (Exception e) {
+                    log.error("Failed to write audit row for transaction: {}", row.entity().getTransactionId(), e);
+                    meterRegistry.counter("audit.failures").increment();
+                    row.written().completeExceptionally(e);
+                }
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            flushSize.record(rows.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+            log.info("Audit writer stopped ({} rows left unwritten)", queue.size());
+        }
+        if (timingsFlusher != null) {
+            timingsFlusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+}
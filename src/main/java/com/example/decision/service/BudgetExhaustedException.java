@@ -0,0 +1,11 @@
+package com.example.decision.service;
+
+/**
+ * A dependency call did not complete within the remaining latency budget.
+ */
+public class BudgetExhaustedException extends RuntimeException {
+
+    public BudgetExhaustedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Immutable evaluation plan for the Java rule set, and the result table shared
+ * with the Drools rules in {@code rules/<version>}.
+ * <p>
+ * Thresholds are constants and shared predicates are evaluated once. The rules
+ * that fire are collected in an int bitmask, and every reachable mask maps to
+ * a frozen {@link RuleResult} built at compile time, so evaluation allocates
+ * no result objects.
+ */
+public final class CompiledRuleSet {
+
+    /**
+     * Rules in firing order; the ordinal is the bit in the fired mask.
+     */
+    enum Rule {
+        HIGH_AMOUNT_NEW_DEVICE(DecisionOutcome.REJECT, "HIGH_AMOUNT_NEW_DEVICE"),
+        HIGH_VELOCITY_1M(DecisionOutcome.REJECT, "HIGH_VELOCITY"),
+        MEDIUM_VELOCITY_5M(DecisionOutcome.REVIEW, "ELEVATED_VELOCITY"),
+        NEW_DEVICE_UNUSUAL_LOCATION(DecisionOutcome.REVIEW, "NEW_DEVICE", "UNUSUAL_LOCATION"),
+        HIGH_AMOUNT_THRESHOLD(DecisionOutcome.REVIEW, "HIGH_AMOUNT"),
+        AMOUNT_DEVIATION(DecisionOutcome.REVIEW, "AMOUNT_ANOMALY");
+
+        final DecisionOutcome outcome;
+        final String[] reasonCodes;
+        final int bit;
+
+        Rule(DecisionOutcome outcome, String... reasonCodes) {
+            this.outcome = outcome;
+            this.reasonCodes = reasonCodes;
+            this.bit = 1 << ordinal();
+        }
+    }
+
+    static final String DEFAULT_APPROVE = "DEFAULT_APPROVE";
+
+    /** Versions whose rules {@link #evaluate} implements; others only run on Drools. */
+    static final Set<String> VERSIONS = Set.of("v1");
+
+    private static final BigDecimal REJECT_AMOUNT_NEW_DEVICE = new BigDecimal("10000");
+    private static final BigDecimal REVIEW_AMOUNT = new BigDecimal("5000");
+    private static final BigDecimal DEVIATION_MULTIPLIER = new BigDecimal("5");
+    private static final int REJECT_VELOCITY_1M = 5;
+    private static final int REVIEW_VELOCITY_5M = 10;
+
+    private static final int HIGH_AMOUNT_NEW_DEVICE = Rule.HIGH_AMOUNT_NEW_DEVICE.bit;
+    private static final int HIGH_VELOCITY_1M = Rule.HIGH_VELOCITY_1M.bit;
+    private static final int MEDIUM_VELOCITY_5M = Rule.MEDIUM_VELOCITY_5M.bit;
+    private static final int NEW_DEVICE_UNUSUAL_LOCATION = Rule.NEW_DEVICE_UNUSUAL_LOCATION.bit;
+    private static final int HIGH_AMOUNT_THRESHOLD = Rule.HIGH_AMOUNT_THRESHOLD.bit;
+    private static final int AMOUNT_DEVIATION = Rule.AMOUNT_DEVIATION.bit;
+
+    private final String version;
+    private final RuleResult[] results;
+
+    private CompiledRuleSet(String version, RuleResult[] results) {
+        this.version = version;
+        this.results = results;
+    }
+
+    /**
+     * Build the plan, precomputing the result for every combination of fired rules.
+     */
+    public static CompiledRuleSet compile(String version) {
+        RuleResult[] results = new RuleResult[1 << Rule.values().length];
+        for (int mask = 0; mask < results.length; mask++) {
+            results[mask] = buildResult(mask, version);
+        }
+        return new CompiledRuleSet(version, results);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public RuleResult evaluate(Transaction txn, UserProfile profile, int velocity1m, int velocity5m) {
+        BigDecimal amount = txn.amount();
+        boolean newDevice = profile.isNewDevice(txn.deviceId());
+
+        // Terminal rules: the first match decides alone
+        if (newDevice && amount.compareTo(REJECT_AMOUNT_NEW_DEVICE) > 0) {
+            return results[HIGH_AMOUNT_NEW_DEVICE];
+        }
+        if (velocity1m >= REJECT_VELOCITY_1M) {
+            return results[HIGH_VELOCITY_1M];
+        }
+
+        int fired = 0;
+        if (velocity5m >= REVIEW_VELOCITY_5M) {
+            fired |= MEDIUM_VELOCITY_5M;
+        }
+        if (newDevice && profile.isUnusualLocation(txn.location())) {
+            fired |= NEW_DEVICE_UNUSUAL_LOCATION;
+        }
+        if (amount.compareTo(REVIEW_AMOUNT) > 0) {
+            fired |= HIGH_AMOUNT_THRESHOLD;
+        }
+        BigDecimal average = profile.averageTransactionAmount();
+        if (average != null && amount.compareTo(average.multiply(DEVIATION_MULTIPLIER)) > 0) {
+            fired |= AMOUNT_DEVIATION;
+        }
+        return results[fired];
+    }
+
+    /**
+     * Result for a mask of fired {@link Rule} bits, as collected by the Drools
+     * rules in {@link RuleFacts}.
+     */
+    RuleResult result(int firedMask) {
+        return results[firedMask];
+    }
+
+    private static RuleResult buildResult(int mask, String version) {
+        List<String> firedRules = new ArrayList<>();
+        List<String> reasonCodes = new ArrayList<>();
+        DecisionOutcome outcome = null;
+
+        for (Rule rule : Rule.values()) {
+            if ((mask & rule.bit) == 0) {
+                continue;
+            }
+            firedRules.add(rule.name());
+            reasonCodes.addAll(List.of(rule.reasonCodes));
+            if (outcome == null || rule.outcome == DecisionOutcome.REJECT) {
+                outcome = rule.outcome;
+            }
+        }
+
+        if (outcome == null) {
+            outcome = DecisionOutcome.APPROVE;
+            firedRules.add(DEFAULT_APPROVE);
+        }
+        return RuleResult.frozen(outcome, firedRules, reasonCodes, version);
+    }
+}
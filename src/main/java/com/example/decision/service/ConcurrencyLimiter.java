@@ -0,0 +1,121 @@
+package com.example.decision.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds concurrent evaluations in virtual-thread mode, where threads are no
+ * longer the limit. Sized by default to the JDBC plus Redis pool sizes, so
+ * evaluations wait here, where it is measured, rather than deep in a
+ * connection pool. A no-op when virtual-thread mode is off.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ConcurrencyLimiter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.execution.virtual-threads.enabled:false}")
+    private boolean enabled;
+
+    /** 0 sizes the limit to the connection pools. */
+    @Value("${decision.execution.max-in-flight:0}")
+    private int maxInFlight;
+
+    @Value("${decision.execution.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs = 1000;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int jdbcPoolSize = 10;
+
+    @Value("${spring.data.redis.lettuce.pool.max-active:8}")
+    private int redisPoolSize = 8;
+
+    private int limit;
+    private Semaphore permits;
+    private Timer waitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        limit = maxInFlight > 0 ? maxInFlight : jdbcPoolSize + redisPoolSize;
+        permits = new Semaphore(limit);
+        waitTimer = Timer.builder("decision.limiter.wait")
+            .description("Time spent waiting for an evaluation permit")
+            .register(meterRegistry);
+        rejected = Counter.builder("decision.limiter.rejected")
+            .description("Evaluations rejected because no permit was free in time")
+            .register(meterRegistry);
+        Gauge.builder("decision.inflight", this, ConcurrencyLimiter::inFlight)
+            .description("Evaluations currently holding a permit")
+            .register(meterRegistry);
+        if (enabled) {
+            log.info("Concurrency limiter initialized (maxInFlight: {})", limit);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait up to the acquire timeout for a permit. Callers that get
+     * {@code true} must {@link #release()}.
+     */
+    public boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        long start = System.nanoTime();
+        try {
+            if (permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+            rejected.increment();
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Wait as long as needed for a permit. Used by the Kafka consumer, where
+     * blocking the poll thread is the backpressure.
+     */
+    public void acquire() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            permits.acquire();
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void release() {
+        if (enabled) {
+            permits.release();
+        }
+    }
+
+    /** Evaluations holding a permit; always 0 when the limiter is off. */
+    public int inFlight() {
+        return enabled ? limit - permits.availablePermits() : 0;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.repository.DecisionRepository;
+import com.example.decision.service.DependencyGuard.Dependency;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recognises transactions that were already decided, so a redelivered record
+ * returns the stored decision instead of being evaluated, counted towards
+ * velocity and published again.
+ * <p>
+ * A {@link TransactionIdFilter} answers "never seen" with a hash lookup, which
+ * is the common case. A positive answer is confirmed from a cache of recent
+ * decisions and then from the audit table; false positives cost one indexed
+ * query and are counted. The filter holds IDs decided here and is topped up
+ * from the audit table every {@code sync-interval}, so records decided by
+ * another instance before a rebalance are recognised too, except for the last
+ * few seconds' worth, which still fail at the unique audit insert as before
+ * (transaction IDs are unique within an audit partition).
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DecisionDeduplicator {
+
+    private final DecisionRepository repository;
+    private final DependencyGuard dependencyGuard;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.dedup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${decision.dedup.expected-ids:1000000}")
+    private int expectedIds = 1_000_000;
+
+    @Value("${decision.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${decision.dedup.recent-size:10000}")
+    private int recentSize = 10_000;
+
+    /** How far back the first sync from the audit table reaches. */
+    @Value("${decision.dedup.warmup:15m}")
+    private Duration warmup = Duration.ofMinutes(15);
+
+    /**
+     * How old a stored decision a redelivered record may find; the lookup only
+     * probes the audit partitions since then. Kafka's default topic retention.
+     */
+    @Value("${decision.dedup.lookback:7d}")
+    private Duration lookback = Duration.ofDays(7);
+
+    /** Overlap between syncs, covering rows written with an earlier decision timestamp. */
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(10);
+
+    private TransactionIdFilter filter;
+    private Cache<String, Decision> recent;
+    private Instant syncedUntil;
+    private Counter unseen;
+    private Counter recentHits;
+    private Counter storedHits;
+    private Counter falsePositives;
+
+    @PostConstruct
+    public void init() {
+        filter = new TransactionIdFilter(expectedIds, falsePositiveRate);
+        recent = Caffeine.newBuilder().maximumSize(recentSize).build();
+        unseen = lookups("unseen");
+        recentHits = lookups("recent");
+        storedHits = lookups("stored");
+        falsePositives = lookups("false_positive");
+        log.info("Decision deduplicator initialized (enabled: {}, expectedIds: {}, filter: {} KiB x 2)",
+                 enabled, expectedIds, filter.generationBytes() / 1024);
+    }
+
+    private Counter lookups(String result) {
+        return Counter.builder("decision.dedup.lookups")
+            .description("Transaction ID lookups before evaluation, by what answered them")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The stored decision if this transaction was already decided. Lookup errors
+     * are treated as "not decided": the record is evaluated and the unique audit
+     * insert still rejects a real duplicate.
+     */
+    public Optional<Decision> findDecided(String transactionId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        if (!filter.mightContain(transactionId)) {
+            unseen.increment();
+            return Optional.empty();
+        }
+        Decision cached = recent.getIfPresent(transactionId);
+        if (cached != null) {
+            recentHits.increment();
+            return Optional.of(cached);
+        }
+        try {
+            Optional<Decision> stored = dependencyGuard.call(Dependency.POSTGRES,
+                () -> repository.findByTransactionId(transactionId,
+                    Instant.now().minus(lookback), DecisionHistoryService.LATEST))
+                .map(DecisionEntity::toDecision);
+            if (stored.isPresent()) {
+                storedHits.increment();
+                recent.put(transactionId, stored.get());
+            } else {
+                falsePositives.increment();
+            }
+            return stored;
+        } catch (Exception e) {
+            log.warn("Duplicate check failed for transaction: {}: {}", transactionId, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Remember a decision once its audit row is written (or accepted, when acks
+     * do not wait for the write).
+     */
+    public void markDecided(Decision decision) {
+        if (!enabled) {
+            return;
+        }
+        filter.put(decision.transactionId());
+        recent.put(decision.transactionId(), decision);
+    }
+
+    /**
+     * Add IDs written to the audit table since the last sync, by any instance.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${decision.dedup.sync-interval:5000}")
+    public void syncFromAudit() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        Instant since = syncedUntil != null ? syncedUntil.minus(SYNC_OVERLAP) : now.minus(warmup);
+        try {
+            List<String> ids = dependencyGuard.call(Dependency.POSTGRES,
+                () -> repository.findTransactionIdsSince(since));
+            ids.forEach(filter::put);
+            syncedUntil = now;
+            log.debug("Deduplicator synced {} transaction IDs since {}", ids.size(), since);
+        } catch (Exception e) {
+            log.warn("Deduplicator sync from audit table failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.repository.DecisionHistoryRow;
+import com.example.decision.repository.DecisionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decision history of a user, newest first.
+ * <p>
+ * Pages are read by keyset on ({@code timestamp}, {@code id}) through the
+ * {@code idx_user_timestamp_id} index, so every page costs the same however far
+ * back it is, and rows are selected as {@link DecisionHistoryRow} projections
+ * rather than entities. A page carries an opaque cursor for the next one.
+ * <p>
+ * Exports walk the same pages and write each decision as one JSON line, so
+ * memory stays at one page and no connection is held between pages.
+ */
+@Service
+@RequiredArgsConstructor
+public class DecisionHistoryService {
+
+    /** Bounds for an open time range; both are valid PostgreSQL timestamps. */
+    static final Instant EARLIEST = Instant.EPOCH;
+    static final Instant LATEST = Instant.parse("9999-12-31T00:00:00Z");
+
+    private static final int CURSOR_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final DecisionRepository repository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${decision.history.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    @Value("${decision.history.export-page-size:1000}")
+    private int exportPageSize = 1000;
+
+    /**
+     * One page of decisions in [{@code from}, {@code to}) (either may be null),
+     * after {@code cursor} if it is not null.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public DecisionPage page(String userId, Instant from, Instant to, String cursor, int limit) {
+        int size = Math.min(Math.max(limit, 1), maxPageSize);
+        // One row more than the page tells whether there is a next one
+        Cursor after = cursor != null ? Cursor.decode(cursor) : null;
+        List<DecisionHistoryRow> rows = fetch(userId, from, to, after, size + 1);
+
+        String next = null;
+        if (rows.size() > size) {
+            rows = rows.subList(0, size);
+            next = Cursor.of(rows.get(size - 1)).encode();
+        }
+        return new DecisionPage(rows.stream().map(DecisionHistoryRow::toDecision).toList(), next);
+    }
+
+    /**
+     * Write every decision in [{@code from}, {@code to}) to {@code out} as
+     * newline-delimited JSON, a page at a time.
+     */
+    public void export(String userId, Instant from, Instant to, OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Decision.class);
+        Cursor after = null;
+        List<DecisionHistoryRow> rows;
+        do {
+            rows = fetch(userId, from, to, after, exportPageSize);
+            for (DecisionHistoryRow row : rows) {
+                out.write(writer.writeValueAsBytes(row.toDecision()));
+                out.write('\n');
+            }
+            out.flush();
+            if (!rows.isEmpty()) {
+                after = Cursor.of(rows.get(rows.size() - 1));
+            }
+        } while (rows.size() == exportPageSize);
+    }
+
+    /**
+     * The decision for a transaction made in [{@code from}, {@code to}) (either
+     * may be null). Without a range every partition is probed.
+     */
+    public Optional<DecisionEntity> find(String transactionId, Instant from, Instant to) {
+        return repository.findByTransactionId(transactionId,
+            from != null ? from : EARLIEST, to != null ? to : LATEST);
+    }
+
+    private List<DecisionHistoryRow> fetch(String userId, Instant from, Instant to, Cursor after, int rows) {
+        Instant lower = from != null ? from : EARLIEST;
+        Instant upper = to != null ? to : LATEST;
+        PageRequest page = PageRequest.ofSize(rows);
+        return after == null
+            ? repository.findHistory(userId, lower, upper, page)
+            : repository.findHistoryAfter(userId, lower, upper, after.timestamp(), after.id(), page);
+    }
+
+    /**
+     * A page of history; {@code nextCursor} is null on the last page.
+     */
+    public record DecisionPage(List<Decision> decisions, String nextCursor) {}
+
+    /**
+     * Position after a row: its timestamp (to the nanosecond) and id, encoded
+     * as URL-safe Base64.
+     */
+    record Cursor(Instant timestamp, long id) {
+
+        static Cursor of(DecisionHistoryRow row) {
+            return new Cursor(row.timestamp(), row.id());
+        }
+
+        String encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(CURSOR_BYTES)
+                .putLong(timestamp.getEpochSecond())
+                .putInt(timestamp.getNano())
+                .putLong(id);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+        }
+
+        static Cursor decode(String cursor) {
+            // Invalid Base64 throws IllegalArgumentException too
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor.getBytes(StandardCharsets.US_ASCII));
+            if (bytes.length != CURSOR_BYTES) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            try {
+                return new Cursor(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), buffer.getLong());
+            } catch (DateTimeException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.FeatureSnapshot.Feature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decision meters, registered once at startup.
+ * <p>
+ * Every tag value comes from a fixed enum, so the number of series is bounded
+ * no matter how many transactions are evaluated, and recording is a lookup in
+ * an {@link EnumMap} followed by a lock-free update: nothing is allocated per
+ * decision.
+ * <p>
+ * Stage timings are sampled one in {@code stage-sampling} decisions (one in
+ * 16 by default, every decision at 1); the end-to-end latency, counts and
+ * distributions are always recorded.
+ */
+@Component
+@RequiredArgsConstructor
+public class DecisionMetrics {
+
+    /** Timed steps of an evaluation; the tag value is the lower-case name. */
+    public enum Stage {
+        ENRICH, RULES, SCORING, PERSIST, VELOCITY, PUBLISH,
+        /** The whole evaluation including persist and publish, unlike {@code decision.latency}. */
+        TOTAL;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /** Where an evaluation failed: single-record (sync or async) or batch path. */
+    public enum ErrorPath {
+        SINGLE, BATCH;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Why a consumed record failed: a dependency that may recover, or a payload
+     * that will fail however often it is retried.
+     */
+    public enum FailureKind {
+        TRANSIENT, POISON;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.metrics.stage-sampling:16}")
+    private int stageSampling = 16;
+
+    private final Map<DecisionOutcome, Timer> latency = new EnumMap<>(DecisionOutcome.class);
+    private final Map<DecisionOutcome, Counter> count = new EnumMap<>(DecisionOutcome.class);
+    private final Map<Stage, Timer> stageLatency = new EnumMap<>(Stage.class);
+    private final Map<Stage, Counter> stageTimeouts = new EnumMap<>(Stage.class);
+    private final Map<ErrorPath, Counter> errors = new EnumMap<>(ErrorPath.class);
+    private final Map<Feature, Counter> degraded = new EnumMap<>(Feature.class);
+    private final Map<FailureKind, Counter> consumerFailures = new EnumMap<>(FailureKind.class);
+    private DistributionSummary riskScore;
+    private DistributionSummary velocity1m;
+    private DistributionSummary velocity5m;
+    private Counter publishErrors;
+    private Counter consumerRetries;
+    private Counter deadLettered;
+
+    @PostConstruct
+    public void init() {
+        for (DecisionOutcome outcome : DecisionOutcome.values()) {
+            latency.put(outcome, Timer.builder("decision.latency")
+                .description("End-to-end decision latency")
+                .tag("outcome", outcome.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+            count.put(outcome, Counter.builder("decision.count")
+                .tag("outcome", outcome.name())
+                .register(meterRegistry));
+        }
+        for (Stage stage : Stage.values()) {
+            stageLatency.put(stage, Timer.builder("decision.stage.latency")
+                .description("Time spent in one decision stage")
+                .tag("stage", stage.tag)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100))
+                .register(meterRegistry));
+            stageTimeouts.put(stage, Counter.builder("decision.stage.timeouts")
+                .description("Async stages that missed their deadline")
+                .tag("stage", stage.tag)
+                .register(meterRegistry));
+        }
+        for (ErrorPath path : ErrorPath.values()) {
+            errors.put(path, Counter.builder("decision.errors")
+                .tag("path", path.tag)
+                .register(meterRegistry));
+        }
+        for (Feature feature : Feature.values()) {
+            degraded.put(feature, Counter.builder("decision.degraded")
+                .description("Decisions made without this feature")
+                .tag("feature", feature.name())
+                .register(meterRegistry));
+        }
+        for (FailureKind kind : FailureKind.values()) {
+            consumerFailures.put(kind, Counter.builder("decision.consumer.failures")
+                .description("Consumed records whose evaluation failed")
+                .tag("kind", kind.tag)
+                .register(meterRegistry));
+        }
+        consumerRetries = Counter.builder("decision.consumer.retries")
+            .description("Records redelivered from a retry topic")
+            .register(meterRegistry);
+        deadLettered = Counter.builder("decision.consumer.dead_lettered")
+            .description("Records that reached the dead-letter topic")
+            .register(meterRegistry);
+        // Buckets at the REVIEW and REJECT thresholds of determineOutcome
+        riskScore = DistributionSummary.builder("decision.risk_score")
+            .description("ML risk score per decision")
+            .serviceLevelObjectives(10, 25, 50, 65, 80, 90)
+            .register(meterRegistry);
+        velocity1m = velocitySummary("1m");
+        velocity5m = velocitySummary("5m");
+        publishErrors = Counter.builder("decision.publish.errors").register(meterRegistry);
+    }
+
+    private DistributionSummary velocitySummary(String window) {
+        return DistributionSummary.builder("decision.velocity")
+            .description("Transactions by the same user within the window, as seen by the rules")
+            .tag("window", window)
+            .serviceLevelObjectives(1, 2, 3, 5, 10, 20)
+            .register(meterRegistry);
+    }
+
+    public void recordDecision(DecisionOutcome outcome, long latencyNanos, double score) {
+        latency.get(outcome).record(latencyNanos, TimeUnit.NANOSECONDS);
+        count.get(outcome).increment();
+        riskScore.record(score);
+    }
+
+    public void recordVelocity(int oneMinute, int fiveMinutes) {
+        velocity1m.record(oneMinute);
+        velocity5m.record(fiveMinutes);
+    }
+
+    /**
+     * Whether this decision's stages should be timed; decide once per decision
+     * so a sampled decision has every stage recorded.
+     */
+    public boolean sampleStages() {
+        return stageSampling <= 1 || ThreadLocalRandom.current().nextInt(stageSampling) == 0;
+    }
+
+    public void recordStage(Stage stage, long nanos) {
+        stageLatency.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordStageTimeout(Stage stage) {
+        stageTimeouts.get(stage).increment();
+    }
+
+    public void recordError(ErrorPath path) {
+        errors.get(path).increment();
+    }
+
+    public void recordDegraded(Feature feature) {
+        degraded.get(feature).increment();
+    }
+
+    public void recordPublishError() {
+        publishErrors.increment();
+    }
+
+    public void recordConsumerFailure(FailureKind kind) {
+        consumerFailures.get(kind).increment();
+    }
+
+    public void recordConsumerRetry() {
+        consumerRetries.increment();
+    }
+
+    public void recordDeadLetter() {
+        deadLettered.increment();
+    }
+}
@@ -1,21 +1,66 @@
 package com.example.decision.service;
 
+import com.example.decision.config.VirtualThreads;
 import com.example.decision.model.*;
-import com.example.decision.repository.DecisionRepository;
-import io.micrometer.core.instrument.MeterRegistry;
-import io.micrometer.core.instrument.Timer;
+import com.example.decision.model.FeatureSnapshot.Feature;
+import com.example.decision.repository.DecisionBatchRepository.Timings;
+import com.example.decision.service.DecisionMetrics.ErrorPath;
+import com.example.decision.service.DecisionMetrics.Stage;
+import com.example.decision.service.DependencyGuard.Dependency;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Core decision orchestration service.
  * Coordinates rule evaluation, feature enrichment, ML scoring, and audit.
+ * <p>
+ * In {@code async} orchestration mode the feature fetch and each post-decision
+ * side effect run as separate stages with their own deadline. The audit write
+ * and the velocity update run concurrently, and the Kafka publish never blocks,
+ * so the time to acknowledge is the slowest side effect rather than their sum.
+ * <p>
+ * Every evaluation gets a {@link LatencyBudget}; enrichment waits only for what
+ * is left of it. Features that are not available in time are recorded on the
+ * decision as missing, and the degraded policy sets the least severe outcome
+ * such a decision may have (REVIEW by default).
+ * <p>
+ * Transactions that were already decided (Kafka redelivery after a failed ack,
+ * a rebalance or a crash) are recognised by the {@link DecisionDeduplicator}
+ * before enrichment and answered with the stored decision, without touching
+ * velocity, the audit table or the output topic again.
+ * <p>
+ * A sample of decisions is handed to the {@link ShadowEvaluator} with the
+ * features it was made from, for challenger rule versions and models.
+ * <p>
+ * Every decision is also added to the in-memory {@link DecisionStatistics}
+ * served by the stats endpoint.
+ * <p>
+ * The audit row is built before it is written, so once the write has completed
+ * its persist, publish and total timings are completed with the final ones
+ * ({@link AuditWriter#writeTimings(List)}).
  */
 @Service
 @Slf4j
@@ -25,78 +70,514 @@ public class DecisionService {
     private final RuleEngineService ruleEngineService;
     private final FeatureService featureService;
     private final MLScoringService mlScoringService;
-    private final DecisionRepository repository;
+    private final AuditWriter auditWriter;
     private final KafkaTemplate<String, Object> kafkaTemplate;
-    private final MeterRegistry meterRegistry;
+    private final DependencyGuard dependencyGuard;
+    private final DecisionDeduplicator deduplicator;
+    private final DecisionMetrics metrics;
+    private final ShadowEvaluator shadowEvaluator;
+    private final DecisionStatistics statistics;
 
-    @Transactional
+    private static final Duration VELOCITY_WINDOW_1M = Duration.ofMinutes(1);
+    private static final Duration VELOCITY_WINDOW_5M = Duration.ofMinutes(5);
+    private static final String DEGRADED_REASON_CODE = "DEGRADED_FEATURES";
+
+    public enum Orchestration { SEQUENTIAL, ASYNC }
+
+    @Value("${decision.budget.total:50ms}")
+    private Duration latencyBudget = Duration.ofMillis(50);
+
+    /** Least severe outcome for a decision made without all features. */
+    @Value("${decision.degraded.outcome:review}")
+    private DecisionOutcome degradedOutcome = DecisionOutcome.REVIEW;
+
+    @Value("${decision.orchestration.mode:sequential}")
+    private Orchestration orchestration = Orchestration.SEQUENTIAL;
+
+    @Value("${decision.orchestration.pool-size:16}")
+    private int stagePoolSize = 16;
+
+    @Value("${decision.orchestration.queue-capacity:1000}")
+    private int stageQueueCapacity = 1000;
+
+    /**
+     * How long past the decision budget the enrichment stage is awaited. The
+     * feature fetch itself stops at the budget, so this only ends the wait
+     * for a stage that could not run in time.
+     */
+    @Value("${decision.orchestration.deadline.enrich-margin:10ms}")
+    private Duration enrichMargin = Duration.ofMillis(10);
+
+    @Value("${decision.orchestration.deadline.audit:500ms}")
+    private Duration auditDeadline = Duration.ofMillis(500);
+
+    @Value("${decision.orchestration.deadline.velocity:100ms}")
+    private Duration velocityDeadline = Duration.ofMillis(100);
+
+    @Value("${decision.execution.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private Executor stageExecutor;
+
+    @PostConstruct
+    public void init() {
+        if (orchestration != Orchestration.ASYNC) {
+            return;
+        }
+        stageExecutor = virtualThreads
+            ? VirtualThreads.factory("decision-stage-vt-")
+                .<Executor>map(factory -> task -> factory.newThread(task).start())
+                .orElseGet(this::stagePool)
+            : stagePool();
+        log.info("Async orchestration enabled (deadlines: enrich budget + {}, audit {}, velocity {})",
+                 enrichMargin, auditDeadline, velocityDeadline);
+    }
+
+    /**
+     * Bounded pool for stage work; when it is saturated the caller runs the
+     * stage itself, which degrades to sequential execution instead of queueing.
+     */
+    private ExecutorService stagePool() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "decision-stage-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return new ThreadPoolExecutor(stagePoolSize, stagePoolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(stageQueueCapacity), factory, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (stageExecutor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Evaluate a transaction and wait until it may be acknowledged
+     * (see {@link #evaluateForAck(Transaction)}).
+     */
     public Decision evaluate(Transaction transaction) {
+        try {
+            return evaluateForAck(transaction).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof DecisionEvaluationException evaluationFailure) {
+                throw evaluationFailure;
+            }
+            throw new DecisionEvaluationException(
+                "Failed to persist decision for transaction: " + transaction.transactionId(), e.getCause());
+        }
+    }
+
+    /**
+     * Evaluate a transaction. The returned future completes once the decision may
+     * be acknowledged, which depends on the audit writer's durability mode. In
+     * sequential mode evaluation errors are thrown directly; in async mode they
+     * complete the future with a {@link DecisionEvaluationException}.
+     * <p>
+     * A transaction that was already decided is answered with the stored
+     * decision, which is published again: its first send may have been lost
+     * after the audit row was written, and consumers of the output topic
+     * already see each decision at least once.
+     */
+    public CompletableFuture<Decision> evaluateForAck(Transaction transaction) {
+        Optional<Decision> replayed = deduplicator.findDecided(transaction.transactionId());
+        if (replayed.isPresent()) {
+            log.info("Transaction: {} already decided, republishing stored decision", transaction.transactionId());
+            publishDecision(replayed.get());
+            return CompletableFuture.completedFuture(replayed.get());
+        }
+        if (orchestration == Orchestration.ASYNC) {
+            return evaluateAsync(transaction);
+        }
         long startTime = System.nanoTime();
+        StageClock clock = new StageClock(metrics, startTime);
         String correlationId = transaction.transactionId();
         
         log.info("Starting decision evaluation for transaction: {}, user: {}", 
                  correlationId, transaction.userId());
 
         try {
-            // Step 1: Enrich with cached features
-            UserProfile profile = featureService.getUserProfile(transaction.userId());
-            int velocity1m = featureService.getVelocity(transaction.userId(), Duration.ofMinutes(1));
-            int velocity5m = featureService.getVelocity(transaction.userId(), Duration.ofMinutes(5));
-            
-            log.debug("Features enriched - velocity1m: {}, velocity5m: {}, isNewDevice: {}", 
-                     velocity1m, velocity5m, profile.isNewDevice(transaction.deviceId()));
-
-            // Step 2: Execute rules
-            RuleResult ruleResult = ruleEngineService.evaluate(
-                transaction, profile, velocity1m, velocity5m
-            );
+            // Step 1: Enrich with cached features (single Redis round trip, within budget)
+            LatencyBudget budget = LatencyBudget.start(latencyBudget);
+            FeatureSnapshot features = featureService.fetchFeatures(transaction.userId(), budget);
+            clock.lap(Stage.ENRICH, startTime);
 
-            // Step 3: Calculate ML risk score
-            double riskScore = mlScoringService.calculateRiskScore(
-                transaction, profile, velocity1m, velocity5m
-            );
+            // Steps 2-6: Rules, scoring, outcome, metrics
+            Decision decision = decide(transaction, features, 0, clock);
 
-            // Step 4: Make final decision
-            DecisionOutcome outcome = determineOutcome(ruleResult, riskScore);
-
-            // Step 5: Record metrics
-            long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
-            recordMetrics(outcome, latencyMs, riskScore);
-
-            // Step 6: Create decision
-            Decision decision = new Decision(
-                transaction.transactionId(),
-                transaction.userId(),
-                outcome,
-                riskScore,
-                ruleResult.getReasonCodes(),
-                ruleResult.getRuleVersion(),
-                latencyMs
-            );
-
-            // Step 7: Persist to audit trail
-            persistDecision(decision);
+            // Step 7: Persist to audit trail (may be queued)
+            long stageStart = System.nanoTime();
+            CompletableFuture<Void> audited = auditWriter.write(toEntity(decision));
+            stageStart = clock.lap(Stage.PERSIST, stageStart);
 
             // Step 8: Update velocity counters
             featureService.incrementVelocity(transaction.userId());
+            stageStart = clock.lap(Stage.VELOCITY, stageStart);
 
             // Step 9: Publish result to output topic
             publishDecision(decision);
+            clock.lap(Stage.PUBLISH, stageStart);
 
+            Decision timed = decision.withTimings(clock.finish());
+            completeTimings(audited, timed);
             log.info("Decision completed: {} for transaction: {} (score: {}, latency: {}ms)", 
-                     outcome, correlationId, riskScore, latencyMs);
+                     timed.outcome(), correlationId, timed.riskScore(), timed.latencyMs());
 
-            return decision;
+            if (!auditWriter.isAckAfterFlush()) {
+                deduplicator.markDecided(timed);
+                return CompletableFuture.completedFuture(timed);
+            }
+            return audited.thenApply(v -> {
+                deduplicator.markDecided(timed);
+                return timed;
+            });
 
         } catch (Exception e) {
             long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
             log.error("Error evaluating transaction: {}, latency: {}ms", correlationId, latencyMs, e);
-            meterRegistry.counter("decision.errors", "transaction", correlationId).increment();
+            metrics.recordError(ErrorPath.SINGLE);
             throw new DecisionEvaluationException("Failed to evaluate transaction: " + correlationId, e);
         }
     }
 
-    private DecisionOutcome determineOutcome(RuleResult ruleResult, double riskScore) {
+    private CompletableFuture<Decision> evaluateAsync(Transaction transaction) {
+        long startTime = System.nanoTime();
+        StageClock clock = new StageClock(metrics, startTime);
+        String correlationId = transaction.transactionId();
+
+        log.info("Starting async decision evaluation for transaction: {}, user: {}",
+                 correlationId, transaction.userId());
+
+        LatencyBudget budget = LatencyBudget.start(latencyBudget);
+        CompletableFuture<FeatureSnapshot> enriched = CompletableFuture.supplyAsync(() -> {
+            long stageStart = System.nanoTime();
+            FeatureSnapshot features = featureService.fetchFeatures(transaction.userId(), budget);
+            clock.lap(Stage.ENRICH, stageStart);
+            return features;
+        }, stageExecutor);
+        if (!budget.isUnbounded()) {
+            // Past the budget the fetch returns a degraded snapshot; past the margin, decide without it
+            Duration deadline = Duration.ofNanos(Math.max(0, budget.remainingNanos())).plus(enrichMargin);
+            enriched = stage(Stage.ENRICH, deadline, enriched).exceptionally(error -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (!(cause instanceof TimeoutException)) {
+                    throw error instanceof CompletionException completion ? completion : new CompletionException(cause);
+                }
+                log.warn("Features for transaction: {} not fetched in time, deciding without them", correlationId);
+                return featureService.unavailableFeatures(transaction.userId());
+            });
+        }
+        return enriched
+            .thenApply(features -> decide(transaction, features, 0, clock))
+            .handle((decision, error) -> {
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                    log.error("Error evaluating transaction: {}, latency: {}ms", correlationId, latencyMs, cause);
+                    metrics.recordError(ErrorPath.SINGLE);
+                    throw new DecisionEvaluationException("Failed to evaluate transaction: " + correlationId, cause);
+                }
+                return decision;
+            })
+            .thenCompose(decision -> runSideEffects(decision, clock));
+    }
+
+    /**
+     * Start the audit write, velocity update and publish together. The result
+     * completes when the velocity update is done (so the user's next transaction
+     * sees it) and, if acks wait for audit, when the audit row is written.
+     */
+    private CompletableFuture<Decision> runSideEffects(Decision decision, StageClock clock) {
+        CompletableFuture<Void> audited = stage(Stage.PERSIST, auditDeadline,
+            CompletableFuture.supplyAsync(() -> {
+                long stageStart = System.nanoTime();
+                CompletableFuture<Void> written = auditWriter.write(toEntity(decision));
+                clock.lap(Stage.PERSIST, stageStart);
+                return written;
+            }, stageExecutor).thenCompose(written -> written));
+
+        CompletableFuture<Void> velocity = stage(Stage.VELOCITY, velocityDeadline,
+                CompletableFuture.runAsync(() -> {
+                    long stageStart = System.nanoTime();
+                    featureService.incrementVelocity(decision.userId());
+                    clock.lap(Stage.VELOCITY, stageStart);
+                }, stageExecutor))
+            .exceptionally(e -> {
+                log.warn("Velocity update failed for transaction: {}", decision.transactionId(), e);
+                return null;
+            });
+
+        long publishStart = System.nanoTime();
+        publishDecision(decision);
+        clock.lap(Stage.PUBLISH, publishStart);
+
+        log.info("Decision completed: {} for transaction: {} (score: {}, latency: {}ms)",
+                 decision.outcome(), decision.transactionId(), decision.riskScore(), decision.latencyMs());
+
+        if (!auditWriter.isAckAfterFlush()) {
+            audited.exceptionally(e -> {
+                log.error("Audit write failed for transaction: {}", decision.transactionId(), e);
+                return null;
+            });
+            deduplicator.markDecided(decision);
+            return velocity.thenApply(v -> {
+                Decision timed = decision.withTimings(clock.finish());
+                completeTimings(audited, timed);
+                return timed;
+            });
+        }
+        return CompletableFuture.allOf(audited, velocity).thenApply(v -> {
+            Decision timed = decision.withTimings(clock.finish());
+            completeTimings(audited, timed);
+            deduplicator.markDecided(timed);
+            return timed;
+        });
+    }
+
+    /**
+     * Bound a stage by its deadline and count the stages that miss it. The work
+     * itself is not cancelled; only the wait for it ends.
+     */
+    private <T> CompletableFuture<T> stage(Stage stage, Duration deadline, CompletableFuture<T> work) {
+        return work.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((result, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof TimeoutException) {
+                    metrics.recordStageTimeout(stage);
+                }
+            });
+    }
+
+    /**
+     * Evaluate a poll batch together: features for all distinct users are fetched
+     * in one round trip, audit rows are written as one batch and velocity is
+     * updated in one pipeline. A failure on one record does not fail the others;
+     * results are returned in input order. Records already decided are returned
+     * with their stored decision, which is published again; they are not
+     * audited or counted towards velocity a second time.
+     */
+    public List<BatchItem> evaluateBatch(List<Transaction> transactions) {
+        return evaluateBatch(transactions, true);
+    }
+
+    /**
+     * Evaluate a poll batch as {@link #evaluateBatch(List)} does; with
+     * {@code publish} false no decision is sent to the output topic and the
+     * caller publishes them (in exactly-once mode, inside the consumer's Kafka
+     * transaction).
+     */
+    public List<BatchItem> evaluateBatch(List<Transaction> transactions, boolean publish) {
+        long batchStart = System.nanoTime();
+        StageClock batchClock = new StageClock(metrics, batchStart);
+        List<BatchItem> items = new ArrayList<>(transactions.size());
+
+        Map<String, Decision> replayed = new HashMap<>();
+        List<String> userIds = new ArrayList<>(transactions.size());
+        for (Transaction transaction : transactions) {
+            deduplicator.findDecided(transaction.transactionId())
+                .ifPresentOrElse(decision -> replayed.put(transaction.transactionId(), decision),
+                                 () -> userIds.add(transaction.userId()));
+        }
+        Map<String, FeatureSnapshot> features = userIds.isEmpty()
+            ? Map.of()
+            : featureService.fetchFeatures(userIds);
+        long enrichNanos = batchClock.lap(Stage.ENRICH, batchStart) - batchStart;
+
+        // Earlier records for the same user in this batch count towards velocity
+        Map<String, Integer> seenInBatch = new HashMap<>();
+        long[] itemStarts = new long[transactions.size()];
+        for (Transaction transaction : transactions) {
+            Decision stored = replayed.get(transaction.transactionId());
+            if (stored != null) {
+                items.add(new BatchItem(transaction, stored, null, true));
+                continue;
+            }
+            try {
+                int earlier = seenInBatch.merge(transaction.userId(), 1, Integer::sum) - 1;
+                itemStarts[items.size()] = System.nanoTime() - enrichNanos;
+                Decision decision = decide(
+                    transaction,
+                    features.get(transaction.userId()),
+                    earlier,
+                    batchClock.forBatchItem(itemStarts[items.size()])
+                );
+                items.add(new BatchItem(transaction, decision, null));
+            } catch (Exception e) {
+                items.add(failed(transaction, e));
+            }
+        }
+
+        long persistStart = System.nanoTime();
+        CompletableFuture<Void> audited = persistBatch(items);
+        long publishStart = batchClock.lap(Stage.PERSIST, persistStart);
+
+        List<String> decidedUsers = new ArrayList<>();
+        for (BatchItem item : items) {
+            if (!item.succeeded()) {
+                continue;
+            }
+            if (!item.replayed()) {
+                deduplicator.markDecided(item.decision());
+                decidedUsers.add(item.transaction().userId());
+            }
+            // A replay is published again: the first send may have been lost after the audit write
+            if (publish) {
+                publishDecision(item.decision());
+            }
+        }
+        long publishEnd = batchClock.lap(Stage.PUBLISH, publishStart);
+        featureService.incrementVelocity(decidedUsers);
+        batchClock.lap(Stage.VELOCITY, publishEnd);
+
+        // Every record of the batch waited for the whole persist and publish
+        List<Timings> timings = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            BatchItem item = items.get(i);
+            if (item.succeeded() && !item.replayed()) {
+                StageTimings decided = item.decision().timings();
+                timings.add(new Timings(item.decision().transactionId(), item.decision().timestamp(),
+                    new StageTimings(decided.enrichNanos(), decided.rulesNanos(), decided.scoreNanos(),
+                        publishStart - persistStart, publishEnd - publishStart, publishEnd - itemStarts[i])));
+            }
+        }
+        audited.thenRun(() -> auditWriter.writeTimings(timings));
+
+        log.info("Batch of {} transactions evaluated in {}ms ({} failed, {} already decided)",
+                 transactions.size(),
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - batchStart),
+                 items.stream().filter(item -> !item.succeeded()).count(),
+                 replayed.size());
+        return items;
+    }
+
+    /**
+     * Result of one record in a batch: either a decision or the failure.
+     * {@code replayed} marks a stored decision returned for a redelivered record.
+     */
+    public record BatchItem(Transaction transaction, Decision decision, Exception error, boolean replayed) {
+        public BatchItem(Transaction transaction, Decision decision, Exception error) {
+            this(transaction, decision, error, false);
+        }
+
+        public boolean succeeded() {
+            return error == null;
+        }
+    }
+
+    private Decision decide(Transaction transaction, FeatureSnapshot features,
+                            int earlierInBatch, StageClock clock) {
+        UserProfile profile = features.profile();
+        int velocity1m = features.velocity(VELOCITY_WINDOW_1M) + earlierInBatch;
+        int velocity5m = features.velocity(VELOCITY_WINDOW_5M) + earlierInBatch;
+
+        if (log.isDebugEnabled()) {
+            log.debug("Features enriched - velocity1m: {}, velocity5m: {}, isNewDevice: {}",
+                     velocity1m, velocity5m, profile.isNewDevice(transaction.deviceId()));
+        }
+
+        // Step 2: Execute rules
+        long stageStart = System.nanoTime();
+        RuleResult ruleResult = ruleEngineService.evaluate(
+            transaction, profile, velocity1m, velocity5m
+        );
+        stageStart = clock.lap(Stage.RULES, stageStart);
+
+        // Step 3: Calculate ML risk score
+        double riskScore = mlScoringService.calculateRiskScore(
+            transaction, profile, velocity1m, velocity5m
+        );
+        clock.lap(Stage.SCORING, stageStart);
+
+        // Step 4: Make final decision
+        DecisionOutcome outcome = determineOutcome(ruleResult, riskScore);
+        List<String> reasonCodes = ruleResult.getReasonCodes();
+        List<String> missingFeatures = List.of();
+        if (features.degraded()) {
+            missingFeatures = features.missing().stream().map(Enum::name).sorted().toList();
+            DecisionOutcome policyOutcome = applyDegradedPolicy(outcome);
+            if (policyOutcome != outcome) {
+                reasonCodes = new ArrayList<>(reasonCodes);
+                reasonCodes.add(DEGRADED_REASON_CODE);
+                outcome = policyOutcome;
+            }
+            for (Feature feature : features.missing()) {
+                metrics.recordDegraded(feature);
+            }
+        }
+
+        // Step 5: Record metrics
+        long latencyNanos = System.nanoTime() - clock.startNanos();
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+        metrics.recordDecision(outcome, latencyNanos, riskScore);
+        statistics.record(outcome, latencyNanos, riskScore);
+        metrics.recordVelocity(velocity1m, velocity5m);
+
+        // Step 6: Create decision
+        Decision decision = new Decision(
+            transaction.transactionId(),
+            transaction.userId(),
+            outcome,
+            riskScore,
+            reasonCodes,
+            ruleResult.getRuleVersion(),
+            latencyMs,
+            Instant.now(),
+            missingFeatures,
+            clock.snapshot()
+        );
+
+        // Challengers see the same features, off this thread
+        shadowEvaluator.submit(transaction, profile, velocity1m, velocity5m, ruleResult, decision);
+        return decision;
+    }
+
+    private BatchItem failed(Transaction transaction, Throwable e) {
+        String correlationId = transaction.transactionId();
+        log.error("Error evaluating transaction: {} in batch", correlationId, e);
+        metrics.recordError(ErrorPath.BATCH);
+        return new BatchItem(
+            transaction,
+            null,
+            new DecisionEvaluationException("Failed to evaluate transaction: " + correlationId, e)
+        );
+    }
+
+    /**
+     * Write all successful decisions as one audit batch. When acknowledgement
+     * waits for the audit write, records whose row could not be written fail.
+     * The result completes when every write has completed, written or not.
+     */
+    private CompletableFuture<Void> persistBatch(List<BatchItem> items) {
+        List<Integer> indexes = new ArrayList<>();
+        List<DecisionEntity> entities = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).succeeded() && !items.get(i).replayed()) {
+                indexes.add(i);
+                entities.add(toEntity(items.get(i).decision()));
+            }
+        }
+
+        List<CompletableFuture<Void>> written = auditWriter.writeAll(entities);
+        CompletableFuture<Void> settled = CompletableFuture.allOf(written.toArray(CompletableFuture[]::new))
+            .exceptionally(e -> null);
+        if (!auditWriter.isAckAfterFlush()) {
+            return settled;
+        }
+        for (int j = 0; j < written.size(); j++) {
+            int index = indexes.get(j);
+            try {
+                written.get(j).join();
+            } catch (CompletionException e) {
+                items.set(index, failed(items.get(index).transaction(), e.getCause()));
+            }
+        }
+        return settled;
+    }
+
+    static DecisionOutcome determineOutcome(RuleResult ruleResult, double riskScore) {
         // Rule engine has priority
         if (ruleResult.getSuggestedOutcome() == DecisionOutcome.REJECT) {
             return DecisionOutcome.REJECT;
@@ -115,18 +596,23 @@ public class DecisionService {
             : DecisionOutcome.APPROVE;
     }
 
-    private void recordMetrics(DecisionOutcome outcome, long latencyMs, double riskScore) {
-        Timer.builder("decision.latency")
-            .tag("outcome", outcome.name())
-            .register(meterRegistry)
-            .record(latencyMs, TimeUnit.MILLISECONDS);
+    /**
+     * Raise the outcome of a degraded decision to the configured policy outcome;
+     * more severe outcomes are kept.
+     */
+    DecisionOutcome applyDegradedPolicy(DecisionOutcome outcome) {
+        return outcome.compareTo(degradedOutcome) < 0 ? degradedOutcome : outcome;
+    }
 
-        meterRegistry.counter("decision.count", "outcome", outcome.name()).increment();
-        
-        meterRegistry.gauge("decision.risk_score", riskScore);
+    /**
+     * Once the audit row of {@code timed} is written, complete its timings.
+     */
+    private void completeTimings(CompletableFuture<Void> audited, Decision timed) {
+        audited.thenRun(() -> auditWriter.writeTimings(
+            List.of(new Timings(timed.transactionId(), timed.timestamp(), timed.timings()))));
     }
 
-    private void persistDecision(Decision decision) {
+    private DecisionEntity toEntity(Decision decision) {
         DecisionEntity entity = DecisionEntity.builder()
             .transactionId(decision.transactionId())
             .userId(decision.userId())
@@ -136,21 +622,30 @@ public class DecisionService {
             .ruleVersion(decision.ruleVersion())
             .latencyMs(decision.latencyMs())
             .timestamp(decision.timestamp())
+            .missingFeatures(decision.degraded() ? String.join(",", decision.missingFeatures()) : null)
             .build();
-        
-        repository.save(entity);
+        entity.setStageTimings(decision.timings());
+        return entity;
     }
 
     private void publishDecision(Decision decision) {
-        kafkaTemplate.send("decision-results", decision.transactionId(), decision)
-            .whenComplete((result, ex) -> {
-                if (ex != null) {
-                    log.error("Failed to publish decision for transaction: {}", 
-                             decision.transactionId(), ex);
-                    meterRegistry.counter("decision.publish.errors").increment();
-                } else {
-                    log.debug("Published decision to Kafka: {}", decision.transactionId());
-                }
-            });
+        CompletableFuture<?> sent;
+        try {
+            sent = dependencyGuard.callAsync(Dependency.KAFKA,
+                () -> kafkaTemplate.send("decision-results", decision.transactionId(), decision));
+        } catch (Exception e) {
+            log.warn("Decision for transaction: {} not published: {}", decision.transactionId(), e.getMessage());
+            metrics.recordPublishError();
+            return;
+        }
+        sent.whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("Failed to publish decision for transaction: {}",
+                         decision.transactionId(), ex);
+                metrics.recordPublishError();
+            } else {
+                log.debug("Published decision to Kafka: {}", decision.transactionId());
+            }
+        });
     }
 }
@@ -0,0 +1,349 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.zip.DataFormatException;
+
+/**
+ * Rolling decision statistics over the last minute, five minutes and hour,
+ * kept in memory.
+ * <p>
+ * Each window is a ring of time slots. A decision is recorded into the current
+ * slot of every window: a {@link LongAdder} per outcome and a
+ * {@link ConcurrentHistogram} each for latency and risk score, all without
+ * locks. The first decision of a new slot period clears what the
+ * ring left in that slot; a decision recorded by another thread while it is
+ * being cleared can be lost. Reading a window adds up its live slots, so
+ * windows move in slot steps and cover their length less at most one slot.
+ * <p>
+ * Counts start when the instance starts. A {@link Snapshot} carries the counts
+ * and the histograms in HdrHistogram's compressed encoding, so the snapshots of
+ * every instance can be merged into cluster statistics with the same percentile
+ * accuracy.
+ */
+@Component
+public class DecisionStatistics {
+
+    /** Rolling windows; the label is the key in statistics and snapshots. */
+    public enum Window {
+        ONE_MINUTE("1m", Duration.ofMinutes(1), Duration.ofSeconds(10)),
+        FIVE_MINUTES("5m", Duration.ofMinutes(5), Duration.ofSeconds(30)),
+        ONE_HOUR("1h", Duration.ofHours(1), Duration.ofMinutes(5));
+
+        final String label;
+        final long slotMillis;
+        final int slots;
+
+        Window(String label, Duration length, Duration slot) {
+            this.label = label;
+            this.slotMillis = slot.toMillis();
+            this.slots = (int) (length.toMillis() / slotMillis);
+        }
+    }
+
+    /** Latencies above a minute are recorded as a minute. */
+    static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int LATENCY_DIGITS = 2;
+
+    /** Risk scores are kept in tenths, which three digits hold exactly. */
+    private static final long MAX_SCORE_TENTHS = 1000;
+    private static final int SCORE_DIGITS = 3;
+
+    /** Score bands at the REVIEW and REJECT thresholds, as for {@code decision.risk_score}. */
+    private static final int[] SCORE_BANDS = {0, 10, 25, 50, 65, 80, 90, 100};
+
+    private static final DecisionOutcome[] OUTCOMES = DecisionOutcome.values();
+    private static final Window[] WINDOWS = Window.values();
+
+    private final LongSupplier clock;
+    private final Instant since;
+    private final LongAdder total = new LongAdder();
+    private final Ring[] rings = new Ring[WINDOWS.length];
+
+    public DecisionStatistics() {
+        this(System::currentTimeMillis);
+    }
+
+    DecisionStatistics(LongSupplier clock) {
+        this.clock = clock;
+        this.since = Instant.ofEpochMilli(clock.getAsLong());
+        for (Window window : WINDOWS) {
+            rings[window.ordinal()] = new Ring(window);
+        }
+    }
+
+    public void record(DecisionOutcome outcome, long latencyNanos, double riskScore) {
+        long now = clock.getAsLong();
+        long latencyMicros = Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(latencyNanos), 0), MAX_LATENCY_MICROS);
+        long scoreTenths = Math.min(Math.max(Math.round(riskScore * 10), 0), MAX_SCORE_TENTHS);
+        total.increment();
+        for (Ring ring : rings) {
+            ring.current(now).record(outcome, latencyMicros, scoreTenths);
+        }
+    }
+
+    /**
+     * Statistics of this instance.
+     */
+    public Stats stats() {
+        return summarize(since, total.sum(), windowTotals());
+    }
+
+    /**
+     * This instance's windows in the mergeable form.
+     */
+    public Snapshot snapshot() {
+        Map<String, WindowSnapshot> windows = new LinkedHashMap<>();
+        windowTotals().forEach((window, totals) -> windows.put(window.label, totals.encode()));
+        return new Snapshot(since, Instant.ofEpochMilli(clock.getAsLong()), total.sum(), windows);
+    }
+
+    /**
+     * Statistics across the instances that took {@code snapshots}. A window
+     * missing from a snapshot counts as empty.
+     *
+     * @throws IllegalArgumentException if a histogram is malformed
+     */
+    public static Stats merge(Collection<Snapshot> snapshots) {
+        Map<Window, Totals> windows = new EnumMap<>(Window.class);
+        for (Window window : WINDOWS) {
+            windows.put(window, new Totals());
+        }
+        Instant since = null;
+        long decisions = 0;
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.since() != null && (since == null || snapshot.since().isBefore(since))) {
+                since = snapshot.since();
+            }
+            decisions += snapshot.totalDecisions();
+            if (snapshot.windows() == null) {
+                continue;
+            }
+            for (Window window : WINDOWS) {
+                WindowSnapshot encoded = snapshot.windows().get(window.label);
+                if (encoded != null) {
+                    windows.get(window).add(encoded);
+                }
+            }
+        }
+        return summarize(since, decisions, windows);
+    }
+
+    private Map<Window, Totals> windowTotals() {
+        long now = clock.getAsLong();
+        Map<Window, Totals> windows = new EnumMap<>(Window.class);
+        for (Ring ring : rings) {
+            Totals totals = new Totals();
+            ring.addTo(totals, now);
+            windows.put(ring.window, totals);
+        }
+        return windows;
+    }
+
+    private static Stats summarize(Instant since, long decisions, Map<Window, Totals> windows) {
+        Map<String, WindowStats> stats = new LinkedHashMap<>();
+        windows.forEach((window, totals) -> stats.put(window.label, totals.summarize()));
+        double avgLatencyMs = windows.get(Window.ONE_HOUR).latency.getMean() / 1000.0;
+        return new Stats(since, decisions, avgLatencyMs, stats);
+    }
+
+    /**
+     * Decision statistics; {@code avgLatencyMs} is over the last hour and
+     * {@code totalDecisions} counts since {@code since}.
+     */
+    public record Stats(Instant since, long totalDecisions, double avgLatencyMs, Map<String, WindowStats> windows) {}
+
+    public record WindowStats(long decisions, Map<DecisionOutcome, Long> outcomes,
+                              LatencyStats latencyMs, RiskScoreStats riskScore) {}
+
+    public record LatencyStats(double mean, double p50, double p95, double p99, double max) {}
+
+    /** Score percentiles and decisions per score band, e.g. {@code "65-80"}. */
+    public record RiskScoreStats(double mean, double p50, double p90, double p99, Map<String, Long> bands) {}
+
+    /**
+     * One instance's statistics in mergeable form. Histograms are
+     * Base64-encoded, compressed HdrHistograms: latency in microseconds, risk
+     * score in tenths.
+     */
+    public record Snapshot(Instant since, Instant takenAt, long totalDecisions,
+                           Map<String, WindowSnapshot> windows) {}
+
+    public record WindowSnapshot(Map<DecisionOutcome, Long> outcomes, String latencyMicros,
+                                 String riskScoreTenths) {}
+
+    /**
+     * A window's slots of one ring, one more than the window holds so the slot
+     * being cleared is never one being read.
+     */
+    private static final class Ring {
+
+        private final Window window;
+        private final Slot[] slots;
+
+        Ring(Window window) {
+            this.window = window;
+            this.slots = new Slot[window.slots + 1];
+            for (int i = 0; i < slots.length; i++) {
+                slots[i] = new Slot();
+            }
+        }
+
+        Slot current(long nowMillis) {
+            long period = nowMillis / window.slotMillis;
+            Slot slot = slots[(int) (period % slots.length)];
+            slot.roll(period);
+            return slot;
+        }
+
+        void addTo(Totals totals, long nowMillis) {
+            long period = nowMillis / window.slotMillis;
+            for (Slot slot : slots) {
+                long slotPeriod = slot.period.get();
+                if (slotPeriod > period - window.slots && slotPeriod <= period) {
+                    totals.add(slot);
+                }
+            }
+        }
+    }
+
+    private static final class Slot {
+
+        final AtomicLong period = new AtomicLong(-1);
+        final LongAdder[] outcomes = new LongAdder[OUTCOMES.length];
+        final ConcurrentHistogram latencyMicros = new ConcurrentHistogram(MAX_LATENCY_MICROS, LATENCY_DIGITS);
+        final ConcurrentHistogram scoreTenths = new ConcurrentHistogram(MAX_SCORE_TENTHS, SCORE_DIGITS);
+
+        Slot() {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] = new LongAdder();
+            }
+        }
+
+        void roll(long to) {
+            long at = period.get();
+            if (at < to && period.compareAndSet(at, to)) {
+                for (LongAdder outcome : outcomes) {
+                    outcome.reset();
+                }
+                latencyMicros.reset();
+                scoreTenths.reset();
+            }
+        }
+
+        void record(DecisionOutcome outcome, long latency, long score) {
+            outcomes[outcome.ordinal()].increment();
+            latencyMicros.recordValue(latency);
+            scoreTenths.recordValue(score);
+        }
+    }
+
+    /** Counts and histograms of a window, added up from slots or snapshots. */
+    private static final class Totals {
+
+        final long[] outcomes = new long[OUTCOMES.length];
+        final Histogram latency = histogram(MAX_LATENCY_MICROS, LATENCY_DIGITS);
+        final Histogram score = histogram(MAX_SCORE_TENTHS, SCORE_DIGITS);
+
+        void add(Slot slot) {
+            for (int i = 0; i < outcomes.length; i++) {
+                outcomes[i] += slot.outcomes[i].sum();
+            }
+            latency.add(slot.latencyMicros);
+            score.add(slot.scoreTenths);
+        }
+
+        void add(WindowSnapshot snapshot) {
+            if (snapshot.outcomes() != null) {
+                snapshot.outcomes().forEach((outcome, count) -> {
+                    if (outcome != null && count != null) {
+                        outcomes[outcome.ordinal()] += count;
+                    }
+                });
+            }
+            latency.add(decode(snapshot.latencyMicros()));
+            score.add(decode(snapshot.riskScoreTenths()));
+        }
+
+        WindowSnapshot encode() {
+            return new WindowSnapshot(outcomeCounts(), DecisionStatistics.encode(latency),
+                                      DecisionStatistics.encode(score));
+        }
+
+        WindowStats summarize() {
+            Map<String, Long> bands = new LinkedHashMap<>();
+            for (int i = 0; i < SCORE_BANDS.length - 1; i++) {
+                // Bands are [low, high) in tenths but the last one holds 100
+                long high = i == SCORE_BANDS.length - 2 ? MAX_SCORE_TENTHS : SCORE_BANDS[i + 1] * 10L - 1;
+                bands.put(SCORE_BANDS[i] + "-" + SCORE_BANDS[i + 1],
+                          score.getCountBetweenValues(SCORE_BANDS[i] * 10L, high));
+            }
+            return new WindowStats(
+                Arrays.stream(outcomes).sum(),
+                outcomeCounts(),
+                new LatencyStats(
+                    latency.getMean() / 1000.0,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(95) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0),
+                new RiskScoreStats(
+                    score.getMean() / 10.0,
+                    score.getValueAtPercentile(50) / 10.0,
+                    score.getValueAtPercentile(90) / 10.0,
+                    score.getValueAtPercentile(99) / 10.0,
+                    bands)
+            );
+        }
+
+        private Map<DecisionOutcome, Long> outcomeCounts() {
+            Map<DecisionOutcome, Long> counts = new EnumMap<>(DecisionOutcome.class);
+            for (DecisionOutcome outcome : OUTCOMES) {
+                counts.put(outcome, outcomes[outcome.ordinal()]);
+            }
+            return counts;
+        }
+
+        private static Histogram histogram(long highestTrackableValue, int digits) {
+            Histogram histogram = new Histogram(highestTrackableValue, digits);
+            // Snapshots from another build may track a wider range
+            histogram.setAutoResize(true);
+            return histogram;
+        }
+    }
+
+    static String encode(AbstractHistogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Histogram decode(String encoded) {
+        if (encoded == null) {
+            throw new IllegalArgumentException("Missing histogram");
+        }
+        try {
+            // Invalid Base64 throws IllegalArgumentException too
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException | RuntimeException e) {
+            throw new IllegalArgumentException("Malformed histogram", e);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.decision.service;
+
+import com.example.decision.config.VirtualThreads;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead for each external dependency.
+ * <p>
+ * Breakers and bulkheads come from the resilience4j registries, so they are
+ * configured under {@code resilience4j.circuitbreaker.instances.<name>} and
+ * {@code resilience4j.bulkhead.instances.<name>} and their state, call and
+ * permit metrics are exported by the resilience4j Micrometer binders.
+ * <p>
+ * Calls bounded by a {@link LatencyBudget} run on a separate thread so the
+ * caller can stop waiting when the budget runs out. The bulkhead permit is held
+ * until the call itself finishes, so a dependency that keeps hanging fills its
+ * bulkhead and further calls are rejected immediately.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class DependencyGuard {
+
+    public enum Dependency {
+        REDIS("redis"),
+        POSTGRES("postgres"),
+        KAFKA("kafka");
+
+        private final String instanceName;
+
+        Dependency(String instanceName) {
+            this.instanceName = instanceName;
+        }
+
+        public String instanceName() {
+            return instanceName;
+        }
+    }
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    @Value("${decision.execution.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    private final Map<Dependency, CircuitBreaker> breakers = new EnumMap<>(Dependency.class);
+    private final Map<Dependency, Bulkhead> bulkheads = new EnumMap<>(Dependency.class);
+    private Executor callExecutor;
+
+    @PostConstruct
+    public void init() {
+        for (Dependency dependency : Dependency.values()) {
+            breakers.put(dependency, circuitBreakerRegistry.circuitBreaker(dependency.instanceName()));
+            bulkheads.put(dependency, bulkheadRegistry.bulkhead(dependency.instanceName()));
+        }
+        // Bulkheads cap concurrent calls per dependency, so the pool cannot grow without bound
+        ThreadFactory factory = virtualThreads
+            ? VirtualThreads.factory("dependency-call-vt-").orElseGet(DependencyGuard::daemonThreads)
+            : daemonThreads();
+        callExecutor = Executors.newCachedThreadPool(factory);
+        log.info("Dependency guard initialized for {}", breakers.keySet());
+    }
+
+    private static ThreadFactory daemonThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, "dependency-call-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public CircuitBreaker circuitBreaker(Dependency dependency) {
+        return breakers.get(dependency);
+    }
+
+    public Bulkhead bulkhead(Dependency dependency) {
+        return bulkheads.get(dependency);
+    }
+
+    /**
+     * Run a call on the caller's thread through the dependency's breaker and bulkhead.
+     *
+     * @throws io.github.resilience4j.circuitbreaker.CallNotPermittedException if the breaker is open
+     * @throws BulkheadFullException if the bulkhead has no free permit
+     */
+    public <T> T call(Dependency dependency, Supplier<T> call) {
+        return CircuitBreaker.decorateSupplier(breakers.get(dependency),
+            Bulkhead.decorateSupplier(bulkheads.get(dependency), call)).get();
+    }
+
+    public void run(Dependency dependency, Runnable call) {
+        call(dependency, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run a call that must finish within what is left of the budget. A call that
+     * outlives the budget is recorded as a breaker failure and abandoned; it keeps
+     * its bulkhead permit until it actually returns.
+     *
+     * @throws BudgetExhaustedException if the budget is already spent or runs out while waiting
+     */
+    public <T> T call(Dependency dependency, LatencyBudget budget, Supplier<T> call) {
+        if (budget.isUnbounded()) {
+            return call(dependency, call);
+        }
+        long remaining = budget.remainingNanos();
+        if (remaining <= 0) {
+            throw new BudgetExhaustedException("Latency budget spent before calling " + dependency.instanceName());
+        }
+
+        CircuitBreaker breaker = breakers.get(dependency);
+        Bulkhead bulkhead = bulkheads.get(dependency);
+        breaker.acquirePermission();
+        if (!bulkhead.tryAcquirePermission()) {
+            breaker.releasePermission();
+            throw BulkheadFullException.createBulkheadFullException(bulkhead);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = CompletableFuture.supplyAsync(call, callExecutor);
+        } catch (RuntimeException e) {
+            bulkhead.onComplete();
+            breaker.releasePermission();
+            throw e;
+        }
+        result.whenComplete((value, error) -> bulkhead.onComplete());
+
+        try {
+            T value = result.get(remaining, TimeUnit.NANOSECONDS);
+            breaker.onResult(System.nanoTime() - start, TimeUnit.NANOSECONDS, value);
+            return value;
+        } catch (TimeoutException e) {
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw new BudgetExhaustedException("Latency budget ran out waiting for " + dependency.instanceName());
+        } catch (ExecutionException e) {
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e.getCause());
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            breaker.releasePermission();
+            throw new BudgetExhaustedException("Interrupted waiting for " + dependency.instanceName());
+        }
+    }
+
+    /**
+     * Start an asynchronous call (such as a Kafka send) through the breaker and
+     * bulkhead; the permit is held and the outcome recorded when the returned
+     * future completes.
+     */
+    public <T> CompletableFuture<T> callAsync(Dependency dependency, Supplier<CompletableFuture<T>> call) {
+        CircuitBreaker breaker = breakers.get(dependency);
+        Bulkhead bulkhead = bulkheads.get(dependency);
+        breaker.acquirePermission();
+        if (!bulkhead.tryAcquirePermission()) {
+            breaker.releasePermission();
+            throw BulkheadFullException.createBulkheadFullException(bulkhead);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            bulkhead.onComplete();
+            breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, e);
+            throw e;
+        }
+        result.whenComplete((value, error) -> {
+            bulkhead.onComplete();
+            if (error != null) {
+                breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, error);
+            } else {
+                breaker.onResult(System.nanoTime() - start, TimeUnit.NANOSECONDS, value);
+            }
+        });
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (callExecutor instanceof ExecutorService pool) {
+            pool.shutdown();
+        }
+    }
+}
@@ -1,24 +1,56 @@
 package com.example.decision.service;
 
+import com.example.decision.model.FeatureSnapshot;
+import com.example.decision.model.FeatureSnapshot.Feature;
 import com.example.decision.model.UserProfile;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.decision.service.DependencyGuard.Dependency;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 /**
  * Feature enrichment service using Redis for caching.
  * Provides user profiles and velocity tracking.
+ * <p>
+ * Every Redis call goes through the {@code redis} circuit breaker and bulkhead.
+ * When Redis fails, is shed, or does not answer within the caller's latency
+ * budget, the snapshot lists the features it could not fetch instead of
+ * passing defaults off as real values.
  */
 @Service
 @Slf4j
@@ -28,84 +60,399 @@ public class FeatureService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final ObjectMapper objectMapper;
     private final MeterRegistry meterRegistry;
+    private final ProfileNearCache profileNearCache;
+    private final LocalVelocityStore localVelocityStore;
+    private final DependencyGuard dependencyGuard;
 
     private static final String PROFILE_KEY_PREFIX = "profile:";
     private static final String VELOCITY_KEY_PREFIX = "velocity:";
     private static final long PROFILE_TTL_HOURS = 1;
 
-    public UserProfile getUserProfile(String userId) {
-        String key = PROFILE_KEY_PREFIX + userId;
-        
+    /**
+     * Reads the profile and counts every velocity window in one round trip.
+     * KEYS: [profile key,] velocity key. ARGV: one cutoff timestamp (ms) per window.
+     * The profile key is omitted when the profile is already near-cached.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> FETCH_FEATURES_SCRIPT = new DefaultRedisScript<>(
+        "local result = { false }\n" +
+        "if #KEYS == 2 then result[1] = redis.call('GET', KEYS[1]) end\n" +
+        "for i = 1, #ARGV do\n" +
+        "  result[i + 1] = redis.call('ZCOUNT', KEYS[#KEYS], ARGV[i], '+inf')\n" +
+        "end\n" +
+        "return result",
+        List.class
+    );
+
+    /**
+     * Records a transaction and trims the window atomically.
+     * KEYS: velocity key. ARGV: timestamp (ms), retention (ms), unique member.
+     */
+    private static final RedisScript<Long> INCREMENT_VELOCITY_SCRIPT = new DefaultRedisScript<>(
+        "local now = tonumber(ARGV[1])\n" +
+        "redis.call('ZADD', KEYS[1], now, ARGV[3])\n" +
+        "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - tonumber(ARGV[2]))\n" +
+        "redis.call('PEXPIRE', KEYS[1], ARGV[2])\n" +
+        "return 1",
+        Long.class
+    );
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    @Value("${decision.velocity.windows:1m,5m,10m}")
+    private List<Duration> velocityWindows = List.of(
+        Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(10)
+    );
+
+    /**
+     * Local velocity mode: also record owned users' transactions in Redis, so
+     * instances that evaluate them without owning them (REST calls) read the
+     * same counts.
+     */
+    @Value("${decision.velocity.local.write-through:true}")
+    private boolean localWriteThrough = true;
+
+    private Counter profileHits;
+    private Counter profileMisses;
+    private Counter snapshotErrors;
+    private Counter profileErrors;
+    private Counter velocityErrors;
+    private DistributionSummary velocityReads;
+
+    /**
+     * Register meters once; looking them up by name and tags on every call
+     * allocates an ID per lookup.
+     */
+    @PostConstruct
+    public void init() {
+        profileHits = meterRegistry.counter("feature.cache.hit", "type", "profile");
+        profileMisses = meterRegistry.counter("feature.cache.miss", "type", "profile");
+        snapshotErrors = meterRegistry.counter("feature.errors", "type", "snapshot");
+        profileErrors = meterRegistry.counter("feature.errors", "type", "profile");
+        velocityErrors = meterRegistry.counter("feature.errors", "type", "velocity");
+        velocityReads = DistributionSummary.builder("feature.velocity")
+            .description("Velocity returned by single-window reads")
+            .serviceLevelObjectives(1, 2, 3, 5, 10, 20)
+            .register(meterRegistry);
+    }
+
+    public FeatureSnapshot fetchFeatures(String userId) {
+        return fetchFeatures(userId, LatencyBudget.unbounded());
+    }
+
+    /**
+     * Fetch the user profile and all configured velocity windows in a single
+     * Redis round trip, waiting no longer than the remaining budget. If Redis is
+     * unavailable or too slow, the snapshot is degraded: a default profile and
+     * zero velocities, marked missing.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public FeatureSnapshot fetchFeatures(String userId, LatencyBudget budget) {
+        if (localVelocityStore.owns(userId)) {
+            return fetchWithLocalVelocity(userId, budget);
+        }
+
+        UserProfile nearCached = profileNearCache.get(userId);
+        List<String> keys = nearCached != null
+            ? List.of(VELOCITY_KEY_PREFIX + userId)
+            : List.of(PROFILE_KEY_PREFIX + userId, VELOCITY_KEY_PREFIX + userId);
+
         try {
-            Object cached = redisTemplate.opsForValue().get(key);
-            
-            if (cached != null) {
-                meterRegistry.counter("feature.cache.hit", "type", "profile").increment();
-                log.debug("Cache hit for user profile: {}", userId);
-                return objectMapper.convertValue(cached, UserProfile.class);
+            List<Object> result = dependencyGuard.call(Dependency.REDIS, budget, () -> redisTemplate.execute(
+                FETCH_FEATURES_SCRIPT,
+                StringRedisSerializer.UTF_8,
+                (RedisSerializer<List>) (RedisSerializer<?>) redisTemplate.getValueSerializer(),
+                keys,
+                (Object[]) velocityCutoffs(System.currentTimeMillis())
+            ));
+            return toSnapshot(userId, nearCached, result != null ? result : Collections.emptyList());
+
+        } catch (Exception e) {
+            logFetchFailure(userId, e);
+            snapshotErrors.increment();
+            return fallbackSnapshot(userId, nearCached);
+        }
+    }
+
+    /**
+     * Snapshot for a user whose features did not arrive in time: the
+     * near-cached or a default profile, and velocity only if it is held
+     * locally, with the rest marked missing.
+     */
+    public FeatureSnapshot unavailableFeatures(String userId) {
+        return fallbackSnapshot(userId, profileNearCache.get(userId));
+    }
+
+    /**
+     * Fetch features for many users with one pipelined Redis round trip.
+     * Duplicate user IDs are fetched once. Users whose profile is near-cached
+     * and whose velocity is owned locally are served without Redis.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, FeatureSnapshot> fetchFeatures(Collection<String> userIds) {
+        Map<String, FeatureSnapshot> snapshots = new LinkedHashMap<>();
+        Map<String, UserProfile> nearCached = new HashMap<>();
+        List<String> remote = new ArrayList<>();
+
+        for (String userId : new LinkedHashSet<>(userIds)) {
+            UserProfile profile = profileNearCache.get(userId);
+            if (profile != null) {
+                nearCached.put(userId, profile);
             }
-            
-            meterRegistry.counter("feature.cache.miss", "type", "profile").increment();
+            if (profile != null && localVelocityStore.owns(userId)) {
+                snapshots.put(userId, new FeatureSnapshot(profile, localVelocities(userId)));
+            } else {
+                remote.add(userId);
+            }
+        }
+        if (remote.isEmpty()) {
+            return snapshots;
+        }
+
+        String[] cutoffs = velocityCutoffs(System.currentTimeMillis());
+
+        RedisCallback<Object> fetchAll = connection -> {
+            for (String userId : remote) {
+                List<byte[]> keysAndArgs = new ArrayList<>();
+                if (!nearCached.containsKey(userId)) {
+                    keysAndArgs.add(StringRedisSerializer.UTF_8.serialize(PROFILE_KEY_PREFIX + userId));
+                }
+                keysAndArgs.add(StringRedisSerializer.UTF_8.serialize(VELOCITY_KEY_PREFIX + userId));
+                int numKeys = keysAndArgs.size();
+                if (!localVelocityStore.owns(userId)) {
+                    for (String cutoff : cutoffs) {
+                        keysAndArgs.add(StringRedisSerializer.UTF_8.serialize(cutoff));
+                    }
+                }
+                connection.scriptingCommands().evalSha(FETCH_FEATURES_SCRIPT.getSha1(),
+                    ReturnType.MULTI, numKeys, keysAndArgs.toArray(new byte[0][]));
+            }
+            return null;
+        };
+
+        try {
+            List<Object> results = dependencyGuard.call(Dependency.REDIS,
+                () -> executePipelinedScript(FETCH_FEATURES_SCRIPT, fetchAll));
+
+            for (int i = 0; i < remote.size(); i++) {
+                String userId = remote.get(i);
+                List<Object> result = i < results.size() && results.get(i) instanceof List<?> list
+                    ? (List<Object>) list
+                    : Collections.emptyList();
+                snapshots.put(userId, toSnapshot(userId, nearCached.get(userId), result));
+            }
+
+        } catch (Exception e) {
+            logFetchFailure(remote.size() + " users", e);
+            snapshotErrors.increment();
+            remote.forEach(userId -> snapshots.put(userId, fallbackSnapshot(userId, nearCached.get(userId))));
+        }
+
+        log.debug("Features fetched for {} users ({} from Redis)", snapshots.size(), remote.size());
+        return snapshots;
+    }
+
+    /**
+     * Build a snapshot from a fetch-script result: the profile (or false) followed
+     * by one count per window. Locally owned users take velocity from memory.
+     */
+    private FeatureSnapshot toSnapshot(String userId, UserProfile nearCached, List<Object> result) {
+        Object cached = result.isEmpty() ? null : result.get(0);
+        UserProfile profile;
+        if (nearCached != null) {
+            profile = nearCached;
+        } else if (cached != null) {
+            profileHits.increment();
+            profile = toProfile(cached);
+            profileNearCache.put(userId, profile);
+        } else {
+            profileMisses.increment();
             log.debug("Cache miss for user profile: {}, creating default", userId);
-            
-            // Create default profile (in production, fetch from database)
-            UserProfile profile = createDefaultProfile(userId);
+            profile = createDefaultProfile(userId);
             cacheUserProfile(userId, profile);
-            return profile;
-            
+        }
+
+        if (localVelocityStore.owns(userId)) {
+            return new FeatureSnapshot(profile, localVelocities(userId));
+        }
+
+        Map<Duration, Integer> velocities = new LinkedHashMap<>();
+        for (int i = 0; i < velocityWindows.size(); i++) {
+            Object count = i + 1 < result.size() ? result.get(i + 1) : null;
+            velocities.put(velocityWindows.get(i), count instanceof Number n ? n.intValue() : 0);
+        }
+        log.debug("Features fetched for user {}: velocities {}", userId, velocities);
+        return new FeatureSnapshot(profile, velocities);
+    }
+
+    /**
+     * Snapshot for a failed fetch. Near-cached profiles and locally owned
+     * velocities are still real; everything else is a default marked missing.
+     */
+    private FeatureSnapshot fallbackSnapshot(String userId, UserProfile nearCached) {
+        Set<Feature> missing = EnumSet.noneOf(Feature.class);
+        UserProfile profile = nearCached;
+        if (profile == null) {
+            profile = createDefaultProfile(userId);
+            missing.add(Feature.PROFILE);
+        }
+        if (localVelocityStore.owns(userId)) {
+            return new FeatureSnapshot(profile, localVelocities(userId), missing);
+        }
+        Map<Duration, Integer> velocities = new LinkedHashMap<>();
+        velocityWindows.forEach(window -> velocities.put(window, 0));
+        missing.add(Feature.VELOCITY);
+        return new FeatureSnapshot(profile, velocities, missing);
+    }
+
+    /**
+     * Breaker, bulkhead and budget rejections are expected while Redis is
+     * degraded, so they are logged without a stack trace.
+     */
+    private void logFetchFailure(String subject, Exception e) {
+        if (e instanceof BudgetExhaustedException || e instanceof CallNotPermittedException
+                || e instanceof BulkheadFullException) {
+            log.warn("Features degraded for {}: {}", subject, e.getMessage());
+        } else {
+            log.error("Error fetching features for {}", subject, e);
+        }
+    }
+
+    private String[] velocityCutoffs(long now) {
+        String[] cutoffs = new String[velocityWindows.size()];
+        for (int i = 0; i < cutoffs.length; i++) {
+            cutoffs[i] = String.valueOf(now - velocityWindows.get(i).toMillis());
+        }
+        return cutoffs;
+    }
+
+    public UserProfile getUserProfile(String userId) {
+        try {
+            return loadProfile(userId, LatencyBudget.unbounded());
         } catch (Exception e) {
             log.error("Error retrieving user profile for: {}", userId, e);
-            meterRegistry.counter("feature.errors", "type", "profile").increment();
+            profileErrors.increment();
             return createDefaultProfile(userId);
         }
     }
 
+    private UserProfile loadProfile(String userId, LatencyBudget budget) {
+        String key = PROFILE_KEY_PREFIX + userId;
+
+        UserProfile nearCached = profileNearCache.get(userId);
+        if (nearCached != null) {
+            return nearCached;
+        }
+
+        Object cached = dependencyGuard.call(Dependency.REDIS, budget, () -> redisTemplate.opsForValue().get(key));
+
+        if (cached != null) {
+            profileHits.increment();
+            log.debug("Cache hit for user profile: {}", userId);
+            UserProfile profile = toProfile(cached);
+            profileNearCache.put(userId, profile);
+            return profile;
+        }
+
+        profileMisses.increment();
+        log.debug("Cache miss for user profile: {}, creating default", userId);
+
+        // Create default profile (in production, fetch from database)
+        UserProfile profile = createDefaultProfile(userId);
+        cacheUserProfile(userId, profile);
+        return profile;
+    }
+
+    /**
+     * Binary entries decode straight to a profile; JSON entries written before
+     * the binary layout may come back as a map.
+     */
+    private UserProfile toProfile(Object cached) {
+        return cached instanceof UserProfile profile ? profile : objectMapper.convertValue(cached, UserProfile.class);
+    }
+
+    private FeatureSnapshot fetchWithLocalVelocity(String userId, LatencyBudget budget) {
+        try {
+            return new FeatureSnapshot(loadProfile(userId, budget), localVelocities(userId));
+        } catch (Exception e) {
+            logFetchFailure(userId, e);
+            profileErrors.increment();
+            return fallbackSnapshot(userId, null);
+        }
+    }
+
+    private Map<Duration, Integer> localVelocities(String userId) {
+        Map<Duration, Integer> velocities = new LinkedHashMap<>();
+        velocityWindows.forEach(window ->
+            velocities.put(window, localVelocityStore.getVelocity(userId, window)));
+        return velocities;
+    }
+
     public void cacheUserProfile(String userId, UserProfile profile) {
         String key = PROFILE_KEY_PREFIX + userId;
         try {
-            redisTemplate.opsForValue().set(key, profile, PROFILE_TTL_HOURS, TimeUnit.HOURS);
+            dependencyGuard.run(Dependency.REDIS,
+                () -> redisTemplate.opsForValue().set(key, profile, PROFILE_TTL_HOURS, TimeUnit.HOURS));
+            profileNearCache.update(userId, profile);
             log.debug("Cached user profile: {}", userId);
         } catch (Exception e) {
             log.error("Error caching user profile: {}", userId, e);
         }
     }
 
-    public int getVelocity(String userId, Duration window) {
+    /**
+     * Transactions in the window, or empty if Redis could not be read; callers
+     * must not treat an unknown velocity as zero.
+     */
+    public OptionalInt getVelocity(String userId, Duration window) {
+        if (localVelocityStore.owns(userId)) {
+            return OptionalInt.of(localVelocityStore.getVelocity(userId, window));
+        }
+
         String key = VELOCITY_KEY_PREFIX + userId;
         long windowSeconds = window.getSeconds();
         long cutoffTime = Instant.now().minusSeconds(windowSeconds).toEpochMilli();
         
         try {
             // Use Redis sorted set with timestamp scores
-            Long count = redisTemplate.opsForZSet().count(key, cutoffTime, Double.MAX_VALUE);
+            Long count = dependencyGuard.call(Dependency.REDIS,
+                () -> redisTemplate.opsForZSet().count(key, cutoffTime, Double.MAX_VALUE));
             
             int velocity = count != null ? count.intValue() : 0;
             log.debug("Velocity for user {} in window {}: {}", userId, window, velocity);
             
-            meterRegistry.gauge("feature.velocity", velocity);
-            return velocity;
+            velocityReads.record(velocity);
+            return OptionalInt.of(velocity);
             
         } catch (Exception e) {
             log.error("Error calculating velocity for user: {}", userId, e);
-            meterRegistry.counter("feature.errors", "type", "velocity").increment();
-            return 0;
+            velocityErrors.increment();
+            return OptionalInt.empty();
         }
     }
 
     public void incrementVelocity(String userId) {
+        if (localVelocityStore.owns(userId)) {
+            localVelocityStore.increment(userId);
+            if (!localWriteThrough) {
+                return;
+            }
+        }
+
         String key = VELOCITY_KEY_PREFIX + userId;
         long timestamp = System.currentTimeMillis();
         
         try {
-            // Add current timestamp to sorted set
-            redisTemplate.opsForZSet().add(key, String.valueOf(timestamp), timestamp);
-            
-            // Set expiration (keep last 10 minutes of data)
-            redisTemplate.expire(key, 10, TimeUnit.MINUTES);
-            
-            // Clean old entries (older than 10 minutes)
-            long tenMinutesAgo = Instant.now().minusSeconds(600).toEpochMilli();
-            redisTemplate.opsForZSet().removeRangeByScore(key, 0, tenMinutesAgo);
+            // Add, trim and expire in one atomic script, keeping the largest window
+            dependencyGuard.run(Dependency.REDIS, () -> redisTemplate.execute(
+                INCREMENT_VELOCITY_SCRIPT,
+                StringRedisSerializer.UTF_8,
+                LONG_SERIALIZER,
+                List.of(key),
+                String.valueOf(timestamp),
+                String.valueOf(velocityRetention().toMillis()),
+                velocityMember()
+            ));
             
             log.debug("Incremented velocity for user: {}", userId);
             
@@ -114,6 +461,104 @@ public class FeatureService {
         }
     }
 
+    /**
+     * Record one transaction per entry (duplicates count once each) with a
+     * single pipelined Redis round trip for users not owned locally, and for
+     * owned ones too with write-through.
+     */
+    public void incrementVelocity(Collection<String> userIds) {
+        List<String> remote = new ArrayList<>();
+        for (String userId : userIds) {
+            if (localVelocityStore.owns(userId)) {
+                localVelocityStore.increment(userId);
+                if (!localWriteThrough) {
+                    continue;
+                }
+            }
+            remote.add(userId);
+        }
+        if (remote.isEmpty()) {
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+        byte[] now = StringRedisSerializer.UTF_8.serialize(String.valueOf(timestamp));
+        byte[] retention = StringRedisSerializer.UTF_8.serialize(String.valueOf(velocityRetention().toMillis()));
+
+        // Drawn up front, so that a pipeline run again after NOSCRIPT adds the same members
+        List<byte[]> members = new ArrayList<>(remote.size());
+        for (int i = 0; i < remote.size(); i++) {
+            members.add(StringRedisSerializer.UTF_8.serialize(velocityMember()));
+        }
+
+        RedisCallback<Object> incrementAll = connection -> {
+            for (int i = 0; i < remote.size(); i++) {
+                connection.scriptingCommands().evalSha(INCREMENT_VELOCITY_SCRIPT.getSha1(), ReturnType.INTEGER, 1,
+                    StringRedisSerializer.UTF_8.serialize(VELOCITY_KEY_PREFIX + remote.get(i)),
+                    now,
+                    retention,
+                    members.get(i));
+            }
+            return null;
+        };
+
+        try {
+            dependencyGuard.run(Dependency.REDIS, () -> executePipelinedScript(INCREMENT_VELOCITY_SCRIPT, incrementAll));
+            log.debug("Incremented velocity for {} transactions", remote.size());
+
+        } catch (Exception e) {
+            log.error("Error incrementing velocity for {} transactions", remote.size(), e);
+        }
+    }
+
+    /**
+     * Run a pipeline of EVALSHA calls, which send the script's SHA1 instead of
+     * its body. If Redis does not have the script (after a restart, failover or
+     * SCRIPT FLUSH), load it once and run the whole pipeline again, so its
+     * commands must be safe to repeat.
+     */
+    private List<Object> executePipelinedScript(RedisScript<?> script, RedisCallback<Object> pipeline) {
+        try {
+            return redisTemplate.executePipelined(pipeline);
+        } catch (RuntimeException e) {
+            if (!isNoScript(e)) {
+                throw e;
+            }
+            log.info("Loading Redis script {} after NOSCRIPT", script.getSha1());
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                .scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+            return redisTemplate.executePipelined(pipeline);
+        }
+    }
+
+    private static boolean isNoScript(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("NOSCRIPT")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorted-set member for one transaction. The timestamp is already the
+     * score, so the member only has to be unique within the window: a random
+     * 32-bit integer, which a listpack-encoded set stores in 5 bytes instead of
+     * a ~30-byte string. Two transactions of one user collide with probability
+     * about n^2 / 2^33 for n in the window, and a collision undercounts by one.
+     * Members written as "timestamp:hex" by earlier versions still count and
+     * age out with the window.
+     */
+    private static String velocityMember() {
+        return Integer.toString(ThreadLocalRandom.current().nextInt());
+    }
+
+    private Duration velocityRetention() {
+        return velocityWindows.stream()
+            .max(Duration::compareTo)
+            .orElse(Duration.ofMinutes(10));
+    }
+
     private UserProfile createDefaultProfile(String userId) {
         // In production, this would query a user database
         Set<String> trustedDevices = new HashSet<>();
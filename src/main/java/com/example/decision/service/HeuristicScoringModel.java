@@ -0,0 +1,31 @@
+package com.example.decision.service;
+
+/**
+ * Weighted sum of the feature scores. The default model.
+ */
+public final class HeuristicScoringModel implements ScoringModel {
+
+    static final String NAME = "heuristic";
+
+    private static final double WEIGHT_AMOUNT = 0.25;
+    private static final double WEIGHT_VELOCITY = 0.30;
+    private static final double WEIGHT_DEVICE = 0.20;
+    private static final double WEIGHT_LOCATION = 0.15;
+    private static final double WEIGHT_MERCHANT = 0.10;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public double score(double[] features) {
+        double score = 0.0;
+        score += features[AMOUNT] * WEIGHT_AMOUNT;
+        score += features[VELOCITY] * WEIGHT_VELOCITY;
+        score += features[DEVICE] * WEIGHT_DEVICE;
+        score += features[LOCATION] * WEIGHT_LOCATION;
+        score += features[MERCHANT] * WEIGHT_MERCHANT;
+        return score;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.decision.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs tasks on an executor with at most one task per key at a time, in
+ * submission order. Different keys run concurrently. A key's lane is dropped
+ * once its last task finishes, so idle keys cost nothing.
+ */
+public final class KeyOrderedExecutor {
+
+    private final Executor executor;
+    private final ConcurrentMap<String, CompletableFuture<Void>> tails = new ConcurrentHashMap<>();
+
+    public KeyOrderedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Queue {@code task} behind earlier tasks for {@code key}. A failed task
+     * does not stop later ones; the returned future carries its outcome.
+     */
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        CompletableFuture<Void> next = tails.compute(key, (k, tail) -> tail == null
+            ? CompletableFuture.runAsync(task, executor)
+            : tail.handle((ignored, error) -> null).thenRunAsync(task, executor));
+        // Callers see completion only after the lane is released
+        return next.whenComplete((ignored, error) -> tails.remove(key, next));
+    }
+
+    /**
+     * Number of keys with queued or running tasks.
+     */
+    public int activeKeys() {
+        return tails.size();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.decision.service;
+
+import java.time.Duration;
+
+/**
+ * End-to-end time allowance for one decision. Created when evaluation starts
+ * and passed to every blocking dependency call, which may use only what is
+ * left of it.
+ */
+public final class LatencyBudget {
+
+    private static final LatencyBudget UNBOUNDED = new LatencyBudget(Long.MAX_VALUE);
+
+    private final long deadlineNanos;
+
+    private LatencyBudget(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Start a budget now; a zero or negative total means no budget.
+     */
+    public static LatencyBudget start(Duration total) {
+        if (total.isZero() || total.isNegative()) {
+            return UNBOUNDED;
+        }
+        return new LatencyBudget(System.nanoTime() + total.toNanos());
+    }
+
+    public static LatencyBudget unbounded() {
+        return UNBOUNDED;
+    }
+
+    public boolean isUnbounded() {
+        return this == UNBOUNDED;
+    }
+
+    public long remainingNanos() {
+        return isUnbounded() ? Long.MAX_VALUE : deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.decision.service;
+
+import com.example.decision.model.VelocitySnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.utils.Utils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory velocity counters for users on the input partitions this instance owns.
+ * Enabled with {@code decision.velocity.mode=local}. Each user is held in a
+ * {@link VelocityRingCounter} of fixed-size time buckets; dirty counters are
+ * periodically written to the {@link VelocityChangelog} and restored from it
+ * when partitions are (re)assigned. Users on other partitions fall back to Redis.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LocalVelocityStore {
+
+    private final VelocityChangelog changelog;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.velocity.mode:redis}")
+    private String mode = "redis";
+
+    @Value("${decision.velocity.windows:1m,5m,10m}")
+    private List<Duration> velocityWindows = List.of(
+        Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(10)
+    );
+
+    @Value("${decision.velocity.local.bucket-size:5s}")
+    private Duration bucketSize = Duration.ofSeconds(5);
+
+    private final Map<Integer, Map<String, VelocityRingCounter>> partitions = new ConcurrentHashMap<>();
+    private volatile int partitionCount;
+    private long bucketMillis;
+    private int ringSize;
+
+    @PostConstruct
+    public void init() {
+        bucketMillis = bucketSize.toMillis();
+        long retention = velocityWindows.stream().mapToLong(Duration::toMillis).max().orElse(600_000);
+        ringSize = (int) ((retention + bucketMillis - 1) / bucketMillis);
+        Gauge.builder("feature.velocity.local.users", partitions,
+                p -> p.values().stream().mapToInt(Map::size).sum())
+            .register(meterRegistry);
+        Gauge.builder("feature.velocity.local.partitions", partitions, Map::size)
+            .register(meterRegistry);
+        log.info("Velocity mode: {} (bucket: {}, ring size: {})", mode, bucketSize, ringSize);
+    }
+
+    public boolean isEnabled() {
+        return "local".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Whether this instance currently owns the velocity state for the user.
+     */
+    public boolean owns(String userId) {
+        int count = partitionCount;
+        return count > 0 && partitions.containsKey(partitionFor(userId, count));
+    }
+
+    public int getVelocity(String userId, Duration window) {
+        Map<String, VelocityRingCounter> counters = partitions.get(partitionFor(userId, partitionCount));
+        VelocityRingCounter counter = counters != null ? counters.get(userId) : null;
+        if (counter == null) {
+            return 0;
+        }
+        int buckets = (int) ((window.toMillis() + bucketMillis - 1) / bucketMillis);
+        return counter.count(currentBucket(), buckets);
+    }
+
+    public void increment(String userId) {
+        Map<String, VelocityRingCounter> counters = partitions.get(partitionFor(userId, partitionCount));
+        if (counters == null) {
+            return;
+        }
+        counters.computeIfAbsent(userId, id -> new VelocityRingCounter(ringSize))
+            .increment(currentBucket());
+    }
+
+    /**
+     * Take ownership of input partitions, rebuilding their counters from the changelog.
+     */
+    public void assign(int totalPartitions, Collection<Integer> assigned) {
+        if (!isEnabled()) {
+            return;
+        }
+        partitionCount = totalPartitions;
+        for (Integer partition : assigned) {
+            Map<String, VelocityRingCounter> counters = new ConcurrentHashMap<>();
+            changelog.restore(partition).forEach((userId, snapshot) -> {
+                VelocityRingCounter counter = new VelocityRingCounter(ringSize);
+                counter.restore(snapshot.headBucket(), snapshot.counts());
+                counters.put(userId, counter);
+            });
+            partitions.put(partition, counters);
+        }
+        log.info("Assigned velocity partitions: {}", assigned);
+    }
+
+    /**
+     * Release input partitions. When {@code flush} is set the latest counters are
+     * written to the changelog first so the next owner sees them.
+     */
+    public void revoke(Collection<Integer> revoked, boolean flush) {
+        for (Integer partition : revoked) {
+            if (flush) {
+                flush(partition);
+            }
+            partitions.remove(partition);
+        }
+        log.info("Revoked velocity partitions: {}", revoked);
+    }
+
+    @Scheduled(fixedDelayString = "${decision.velocity.local.snapshot-interval:5000}")
+    public void snapshot() {
+        partitions.keySet().forEach(this::flush);
+    }
+
+    private void flush(int partition) {
+        Map<String, VelocityRingCounter> counters = partitions.get(partition);
+        if (counters == null) {
+            return;
+        }
+        long now = currentBucket();
+        Iterator<Map.Entry<String, VelocityRingCounter>> it = counters.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, VelocityRingCounter> entry = it.next();
+            VelocityRingCounter counter = entry.getValue();
+            try {
+                if (counter.isExpired(now)) {
+                    it.remove();
+                    changelog.tombstone(partition, entry.getKey());
+                } else if (counter.clearDirty()) {
+                    changelog.append(partition,
+                        new VelocitySnapshot(entry.getKey(), counter.headBucket(), counter.toArray()));
+                }
+            } catch (Exception e) {
+                log.error("Failed to write velocity changelog for user: {}", entry.getKey(), e);
+                meterRegistry.counter("feature.errors", "type", "velocity_changelog").increment();
+            }
+        }
+    }
+
+    private long currentBucket() {
+        return System.currentTimeMillis() / bucketMillis;
+    }
+
+    /**
+     * Same partition the default Kafka partitioner picks for a String key.
+     */
+    static int partitionFor(String userId, int partitionCount) {
+        if (partitionCount <= 0) {
+            return -1;
+        }
+        return Utils.toPositive(Utils.murmur2(userId.getBytes(StandardCharsets.UTF_8))) % partitionCount;
+    }
+}
@@ -1,66 +1,198 @@
 package com.example.decision.service;
 
+import ai.onnxruntime.OrtException;
 import com.example.decision.model.Transaction;
 import com.example.decision.model.UserProfile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ML-based risk scoring service.
- * For MVP, uses simple weighted heuristics. Can be replaced with ONNX/TensorFlow model.
+ * <p>
+ * Computes five feature scores and hands them to the active {@link ScoringModel}:
+ * the weighted heuristic by default, or an ONNX model loaded from
+ * {@code decision.model.location}. Models can be swapped at runtime with
+ * {@link #loadModel(String)}; in-flight calls finish on the old model. Models that
+ * support batching can have concurrent calls coalesced into micro-batches.
+ * <p>
+ * Scoring runs on primitives: amounts are converted to {@code double} once and
+ * compared against precomputed cut-offs. Results are bit-identical to exact
+ * {@link BigDecimal} arithmetic; the rare inputs that land within floating-point
+ * error of a cut-off are decided with {@code BigDecimal} instead.
  */
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class MLScoringService {
 
-    private static final double WEIGHT_AMOUNT = 0.25;
-    private static final double WEIGHT_VELOCITY = 0.30;
-    private static final double WEIGHT_DEVICE = 0.20;
-    private static final double WEIGHT_LOCATION = 0.15;
-    private static final double WEIGHT_MERCHANT = 0.10;
+    private static final BigDecimal NO_HISTORY_AMOUNT = new BigDecimal("1000");
+    private static final double NO_HISTORY_AMOUNT_VALUE = 1000.0;
+
+    // The amount/average ratio is rounded HALF_UP to 4 places before comparing,
+    // so "rounded ratio > 10" is "exact ratio >= 10.00005"
+    private static final BigDecimal[] AMOUNT_RATIO_THRESHOLDS = {
+        new BigDecimal("10"), new BigDecimal("5"), new BigDecimal("3"), new BigDecimal("2")
+    };
+    private static final double[] AMOUNT_RATIO_CUTOFFS = {10.00005, 5.00005, 3.00005, 2.00005};
+    private static final double[] AMOUNT_RATIO_SCORES = {1.0, 0.8, 0.5, 0.3};
+    private static final double AMOUNT_RATIO_DEFAULT_SCORE = 0.1;
+
+    /** Relative band around a cut-off where double error could flip the comparison. */
+    private static final double CUTOFF_TOLERANCE = 1e-12;
+    /** Band around a rounding midpoint, in hundredths of a point. */
+    private static final double MIDPOINT_TOLERANCE = 1e-6;
+
+    private static final long CLOSE_GRACE_SECONDS = 5;
+
+    private final MeterRegistry meterRegistry;
+    private final ResourceLoader resourceLoader = new DefaultResourceLoader();
+
+    @Value("${decision.model.location:heuristic}")
+    private String modelLocation = HeuristicScoringModel.NAME;
+
+    /** Time one in N single-row calls; recording a histogram costs more than the heuristic itself. */
+    @Value("${decision.model.latency-sampling:16}")
+    private int latencySampling = 16;
+
+    @Value("${decision.model.batching.enabled:false}")
+    private boolean batchingEnabled;
+
+    @Value("${decision.model.batching.max-size:64}")
+    private int maxBatchSize = 64;
+
+    @Value("${decision.model.batching.window-micros:200}")
+    private long batchWindowMicros = 200;
+
+    @Value("${decision.model.batching.queue-capacity:10000}")
+    private int batchQueueCapacity = 10_000;
+
+    private volatile LoadedModel active;
+    private ScoringBatcher batcher;
+
+    private record LoadedModel(ScoringModel model, Timer latency, DistributionSummary batchSize) {}
+
+    @PostConstruct
+    public void init() {
+        loadModel(modelLocation);
+        if (batchingEnabled) {
+            batcher = new ScoringBatcher(maxBatchSize, TimeUnit.MICROSECONDS.toNanos(batchWindowMicros),
+                batchQueueCapacity, this::inferBatch);
+            Gauge.builder("model.batch.queue.size", batcher, ScoringBatcher::queueSize).register(meterRegistry);
+        }
+        log.info("ML scoring initialized (model: {}, batching: {}, maxBatchSize: {}, window: {}us)",
+            active.model().name(), batchingEnabled, maxBatchSize, batchWindowMicros);
+    }
 
     public double calculateRiskScore(Transaction txn, UserProfile profile, 
                                      int velocity1m, int velocity5m) {
-        double score = 0.0;
+        double[] features = features(txn, profile, velocity1m, velocity5m);
+
+        double risk = batcher != null && active.model().supportsBatching()
+            ? batcher.score(features)
+            : infer(features);
+
+        double score = normalize(risk);
+        if (log.isDebugEnabled()) {
+            log.debug("Calculated risk score: {} for transaction: {}", score, txn.transactionId());
+        }
+        return score;
+    }
+
+    /**
+     * Score with {@code model} instead of the active model, bypassing batching
+     * and the inference metrics. Used for challenger models in shadow evaluation.
+     */
+    public double calculateRiskScore(Transaction txn, UserProfile profile,
+                                     int velocity1m, int velocity5m, ScoringModel model) {
+        return normalize(model.score(features(txn, profile, velocity1m, velocity5m)));
+    }
+
+    private double[] features(Transaction txn, UserProfile profile, int velocity1m, int velocity5m) {
+        double[] features = new double[ScoringModel.FEATURE_COUNT];
 
         // Feature 1: Amount deviation
-        score += calculateAmountScore(txn.amount(), profile.averageTransactionAmount()) * WEIGHT_AMOUNT;
+        features[ScoringModel.AMOUNT] = calculateAmountScore(txn.amount(), profile.averageTransactionAmount());
 
         // Feature 2: Velocity
-        score += calculateVelocityScore(velocity1m, velocity5m) * WEIGHT_VELOCITY;
+        features[ScoringModel.VELOCITY] = calculateVelocityScore(velocity1m, velocity5m);
 
         // Feature 3: Device trust
-        score += calculateDeviceScore(txn.deviceId(), profile) * WEIGHT_DEVICE;
+        features[ScoringModel.DEVICE] = calculateDeviceScore(txn.deviceId(), profile);
 
         // Feature 4: Location
-        score += calculateLocationScore(txn.location(), profile) * WEIGHT_LOCATION;
+        features[ScoringModel.LOCATION] = calculateLocationScore(txn.location(), profile);
 
         // Feature 5: Merchant familiarity
-        score += calculateMerchantScore(txn.merchant(), profile) * WEIGHT_MERCHANT;
-
-        // Normalize to 0-100
-        score = Math.min(100.0, Math.max(0.0, score * 100));
+        features[ScoringModel.MERCHANT] = calculateMerchantScore(txn.merchant(), profile);
+        return features;
+    }
 
-        log.debug("Calculated risk score: {} for transaction: {}", score, txn.transactionId());
-        return round(score, 2);
+    /** Scale a model's risk to 0-100, rounded to hundredths. */
+    private static double normalize(double risk) {
+        return roundToHundredths(Math.min(100.0, Math.max(0.0, risk * 100)));
     }
 
-    private double calculateAmountScore(BigDecimal amount, BigDecimal avgAmount) {
-        if (avgAmount == null || avgAmount.compareTo(BigDecimal.ZERO) == 0) {
-            // No history: score based on absolute amount
-            return amount.compareTo(new BigDecimal("1000")) > 0 ? 0.5 : 0.1;
+    static double calculateAmountScore(BigDecimal amount, BigDecimal avgAmount) {
+        double value = amount.doubleValue();
+        if (avgAmount == null || avgAmount.signum() == 0) {
+            // No history: score based on absolute amount. doubleValue() rounds
+            // monotonically, so only an exact tie with 1000.0 is ambiguous
+            if (value == NO_HISTORY_AMOUNT_VALUE) {
+                return amount.compareTo(NO_HISTORY_AMOUNT) > 0 ? 0.5 : 0.1;
+            }
+            return value > NO_HISTORY_AMOUNT_VALUE ? 0.5 : 0.1;
+        }
+
+        double average = avgAmount.doubleValue();
+        double ratio = value / average;
+        if (!isNormal(value) || !isNormal(average) || !isNormal(ratio)) {
+            return exactAmountScore(amount, avgAmount);
         }
 
+        for (int i = 0; i < AMOUNT_RATIO_CUTOFFS.length; i++) {
+            double cutoff = AMOUNT_RATIO_CUTOFFS[i];
+            if (Math.abs(ratio - cutoff) <= cutoff * CUTOFF_TOLERANCE) {
+                return exactAmountScore(amount, avgAmount);
+            }
+            if (ratio > cutoff) {
+                return AMOUNT_RATIO_SCORES[i];
+            }
+        }
+        return AMOUNT_RATIO_DEFAULT_SCORE;
+    }
+
+    private static double exactAmountScore(BigDecimal amount, BigDecimal avgAmount) {
         BigDecimal ratio = amount.divide(avgAmount, 4, RoundingMode.HALF_UP);
-        
-        if (ratio.compareTo(new BigDecimal("10")) > 0) return 1.0;
-        if (ratio.compareTo(new BigDecimal("5")) > 0) return 0.8;
-        if (ratio.compareTo(new BigDecimal("3")) > 0) return 0.5;
-        if (ratio.compareTo(new BigDecimal("2")) > 0) return 0.3;
-        return 0.1;
+        for (int i = 0; i < AMOUNT_RATIO_THRESHOLDS.length; i++) {
+            if (ratio.compareTo(AMOUNT_RATIO_THRESHOLDS[i]) > 0) {
+                return AMOUNT_RATIO_SCORES[i];
+            }
+        }
+        return AMOUNT_RATIO_DEFAULT_SCORE;
+    }
+
+    private static boolean isNormal(double value) {
+        double abs = Math.abs(value);
+        return abs >= Double.MIN_NORMAL && abs <= Double.MAX_VALUE;
     }
 
     private double calculateVelocityScore(int velocity1m, int velocity5m) {
@@ -89,17 +221,125 @@ public class MLScoringService {
         return profile.frequentMerchants().contains(merchant) ? 0.0 : 0.4;
     }
 
-    private double round(double value, int places) {
-        BigDecimal bd = BigDecimal.valueOf(value);
-        bd = bd.setScale(places, RoundingMode.HALF_UP);
-        return bd.doubleValue();
+    /**
+     * Round HALF_UP to two decimal places of the value's shortest decimal
+     * representation, as {@code BigDecimal.valueOf(value).setScale(2, HALF_UP)}
+     * does. Only values within error of a midpoint take the decimal path.
+     */
+    static double roundToHundredths(double value) {
+        double scaled = value * 100;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        if (Math.abs(fraction - 0.5) <= MIDPOINT_TOLERANCE || !(Math.abs(scaled) < 1L << 52)) {
+            return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).doubleValue();
+        }
+        return (fraction > 0.5 ? floor + 1 : floor) / 100;
+    }
+
+    private double infer(double[] features) {
+        LoadedModel current = active;
+        if (latencySampling > 1 && ThreadLocalRandom.current().nextInt(latencySampling) != 0) {
+            return current.model().score(features);
+        }
+        long start = System.nanoTime();
+        double risk = current.model().score(features);
+        current.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return risk;
+    }
+
+    private double[] inferBatch(double[][] features) {
+        LoadedModel current = active;
+        long start = System.nanoTime();
+        double[] risk = current.model().scoreBatch(features);
+        current.latency().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        current.batchSize().record(features.length);
+        return risk;
+    }
+
+    /**
+     * Name of the model currently serving scores.
+     */
+    public String activeModel() {
+        return active.model().name();
     }
 
     /**
-     * Future: Load ONNX model and perform inference.
+     * Load a model and swap it in without dropping traffic.
+     * <p>
+     * {@code location} is {@code heuristic} or a resource location of an ONNX
+     * file ({@code classpath:...}, {@code file:...}). The new model scores one
+     * row before it goes live, so a broken model never serves traffic. The old
+     * model is closed after a grace period, long enough for callers that read
+     * it just before the swap to reach it; closing also waits for calls still
+     * running on it.
      */
-    public void loadModel(String modelPath) {
-        log.info("Model loading not implemented yet. Using heuristic scoring.");
-        // TODO: Integrate ONNX Runtime or TensorFlow Java
+    public synchronized void loadModel(String location) {
+        ScoringModel model = loadWarmedUp(location);
+
+        LoadedModel previous = active;
+        active = new LoadedModel(
+            model,
+            Timer.builder("model.inference.latency")
+                .description("Time per model call (sampled single rows, or one batch when batching)")
+                .tag("model", model.name())
+                .publishPercentileHistogram()
+                .register(meterRegistry),
+            DistributionSummary.builder("model.batch.size")
+                .description("Rows per batched model call")
+                .tag("model", model.name())
+                .register(meterRegistry)
+        );
+        log.info("Scoring model loaded: {} (previous: {})",
+            model.name(), previous != null ? previous.model().name() : "none");
+
+        if (previous != null) {
+            CompletableFuture.runAsync(previous.model()::close,
+                CompletableFuture.delayedExecutor(CLOSE_GRACE_SECONDS, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * Load a model that does not serve traffic, for shadow evaluation. It has
+     * passed warm-up; the caller closes it.
+     */
+    public ScoringModel loadChallenger(String location) {
+        return loadWarmedUp(location);
+    }
+
+    private ScoringModel loadWarmedUp(String location) {
+        ScoringModel model = createModel(location);
+        try {
+            model.score(new double[ScoringModel.FEATURE_COUNT]);
+        } catch (RuntimeException e) {
+            model.close();
+            throw new IllegalArgumentException("Scoring model failed warm-up: " + location, e);
+        }
+        return model;
+    }
+
+    private ScoringModel createModel(String location) {
+        if (HeuristicScoringModel.NAME.equals(location)) {
+            return new HeuristicScoringModel();
+        }
+        Resource resource = resourceLoader.getResource(location);
+        try (InputStream in = resource.getInputStream()) {
+            return new OnnxScoringModel(modelName(resource), in.readAllBytes());
+        } catch (IOException | OrtException e) {
+            throw new IllegalArgumentException("Failed to load scoring model: " + location, e);
+        }
+    }
+
+    private static String modelName(Resource resource) {
+        String filename = resource.getFilename() != null ? resource.getFilename() : "model";
+        int extension = filename.lastIndexOf('.');
+        return "onnx:" + (extension > 0 ? filename.substring(0, extension) : filename);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (batcher != null) {
+            batcher.shutdown();
+        }
+        active.model().close();
     }
 }
@@ -0,0 +1,101 @@
+package com.example.decision.service;
+
+import ai.onnxruntime.OnnxTensor;
+import ai.onnxruntime.OrtEnvironment;
+import ai.onnxruntime.OrtException;
+import ai.onnxruntime.OrtSession;
+
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ONNX Runtime (CPU) model. The graph takes a float tensor of shape
+ * {@code [batch, FEATURE_COUNT]} and returns risk as {@code [batch, 1]}.
+ * <p>
+ * Sessions are thread-safe; the read/write lock only keeps {@link #close()}
+ * from freeing the native session while calls are still running on it.
+ */
+public final class OnnxScoringModel implements ScoringModel {
+
+    private final String name;
+    private final OrtEnvironment environment;
+    private final OrtSession.SessionOptions options;
+    private final OrtSession session;
+    private final String inputName;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    public OnnxScoringModel(String name, byte[] model) throws OrtException {
+        this.name = name;
+        this.environment = OrtEnvironment.getEnvironment();
+        this.options = new OrtSession.SessionOptions();
+        // Small models: a single intra-op thread avoids handing work to the ORT pool
+        options.setIntraOpNumThreads(1);
+        options.setOptimizationLevel(OrtSession.SessionOptions.OptLevel.ALL_OPT);
+        this.session = environment.createSession(model, options);
+        this.inputName = session.getInputNames().iterator().next();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public double score(double[] features) {
+        return scoreBatch(new double[][] {features})[0];
+    }
+
+    @Override
+    public double[] scoreBatch(double[][] features) {
+        float[][] input = new float[features.length][FEATURE_COUNT];
+        for (int row = 0; row < features.length; row++) {
+            for (int column = 0; column < FEATURE_COUNT; column++) {
+                input[row][column] = (float) features[row][column];
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Scoring model closed: " + name);
+            }
+            try (OnnxTensor tensor = OnnxTensor.createTensor(environment, input);
+                 OrtSession.Result result = session.run(Map.of(inputName, tensor))) {
+                float[][] output = (float[][]) result.get(0).getValue();
+                double[] risk = new double[output.length];
+                for (int row = 0; row < output.length; row++) {
+                    risk[row] = output[row][0];
+                }
+                return risk;
+            }
+        } catch (OrtException e) {
+            throw new DecisionEvaluationException("ONNX inference failed for model: " + name, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean supportsBatching() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            session.close();
+            options.close();
+        } catch (OrtException e) {
+            throw new IllegalStateException("Failed to close scoring model: " + name, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.decision.service;
+
+import com.example.decision.config.VirtualThreads;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+
+/**
+ * Counts virtual threads pinned to their carrier (blocking inside
+ * {@code synchronized} or native code) using the JFR
+ * {@code jdk.VirtualThreadPinned} event, streamed in-process.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "decision.execution.virtual-threads.enabled", havingValue = "true")
+public class PinnedThreadMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.execution.pinned-threshold:20ms}")
+    private Duration threshold = Duration.ofMillis(20);
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        if (!VirtualThreads.isAvailable()) {
+            return;
+        }
+        Counter pinned = Counter.builder("jvm.threads.virtual.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier")
+            .register(meterRegistry);
+        Timer pinnedTime = Timer.builder("jvm.threads.virtual.pinned.duration")
+            .description("How long pinned virtual threads blocked their carrier")
+            .register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, event -> {
+            pinned.increment();
+            pinnedTime.record(event.getDuration());
+            log.debug("Virtual thread pinned for {} at {}", event.getDuration(), topFrame(event));
+        });
+        stream.startAsync();
+        log.info("Pinned virtual thread monitor started (threshold: {})", threshold);
+    }
+
+    private static String topFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        return event.getStackTrace().getFrames().stream()
+            .filter(RecordedFrame::isJavaFrame)
+            .findFirst()
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+            .orElse("unknown");
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
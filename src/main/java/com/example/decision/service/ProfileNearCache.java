@@ -0,0 +1,108 @@
+package com.example.decision.service;
+
+import com.example.decision.model.UserProfile;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * In-process L1 cache of user profiles in front of Redis.
+ * Entries are weighted by profile size, expire after a short TTL and are
+ * invalidated across instances through a Redis pub/sub channel.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class ProfileNearCache implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "profile:invalidate";
+    private static final String CACHE_NAME = "profile.near";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final MeterRegistry meterRegistry;
+
+    /** Identifies this instance so it ignores its own invalidation messages. */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${decision.cache.local.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${decision.cache.local.max-weight:100000}")
+    private long maxWeight = 100_000;
+
+    @Value("${decision.cache.local.ttl:30s}")
+    private Duration ttl = Duration.ofSeconds(30);
+
+    private Cache<String, UserProfile> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher(ProfileNearCache::weigh)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+        log.info("Profile near cache initialized (enabled: {}, maxWeight: {}, ttl: {})", enabled, maxWeight, ttl);
+    }
+
+    public UserProfile get(String userId) {
+        return enabled ? cache.getIfPresent(userId) : null;
+    }
+
+    public void put(String userId, UserProfile profile) {
+        if (enabled) {
+            cache.put(userId, profile);
+        }
+    }
+
+    public void invalidate(String userId) {
+        cache.invalidate(userId);
+    }
+
+    /**
+     * Replace the local entry and tell other instances to drop theirs.
+     */
+    public void update(String userId, UserProfile profile) {
+        put(userId, profile);
+        try {
+            stringRedisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId + ":" + userId);
+        } catch (Exception e) {
+            log.warn("Failed to publish profile invalidation for user: {}", userId, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.indexOf(':');
+        if (separator < 0 || body.startsWith(nodeId + ":")) {
+            return;
+        }
+        String userId = body.substring(separator + 1);
+        cache.invalidate(userId);
+        log.debug("Invalidated near-cached profile: {}", userId);
+    }
+
+    private static int weigh(String userId, UserProfile profile) {
+        return 1 + profile.trustedDevices().size() + profile.frequentMerchants().size();
+    }
+}
@@ -1,128 +1,230 @@
 package com.example.decision.service;
 
-import com.example.decision.model.DecisionOutcome;
 import com.example.decision.model.RuleResult;
 import com.example.decision.model.Transaction;
 import com.example.decision.model.UserProfile;
 import lombok.extern.slf4j.Slf4j;
 import org.kie.api.KieServices;
+import org.kie.api.builder.KieModule;
 import org.kie.api.runtime.KieContainer;
-import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.StatelessKieSession;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * Drools-based rule engine service.
- * Evaluates transactions against business rules.
+ * Rule engine service.
+ * Evaluates transactions against business rules with one of two engines:
+ * <ul>
+ *   <li>{@code java} (default): the rules hand-compiled into a
+ *       {@link CompiledRuleSet}, which allocates nothing per evaluation.</li>
+ *   <li>{@code drools}: the same rules as DRL in {@code rules/<version>},
+ *       compiled to the Drools executable model (no MVEL) at build time by
+ *       {@link RuleModelCompiler} and loaded the first time a version is
+ *       built. Each version is a knowledge base {@code fraud-rules-<version>}
+ *       evaluated with a stateless session, at about 100 times the cost of the
+ *       Java rules.</li>
+ * </ul>
+ * Both return the frozen results of {@link CompiledRuleSet}, so a decision is the
+ * same whichever engine made it.
+ * <p>
+ * {@link #reloadRules(String)} builds a version on a background thread and
+ * swaps it in atomically once it has evaluated a warm-up transaction;
+ * evaluations in flight finish on the rules they read.
  */
 @Service
 @Slf4j
 public class RuleEngineService {
 
+    public enum Engine { JAVA, DROOLS }
+
+    /**
+     * A built rule version.
+     */
+    public interface RuleVersion {
+        String version();
+
+        RuleResult evaluate(Transaction transaction, UserProfile profile, int velocity1m, int velocity5m);
+    }
+
+    private static final String KIE_BASE_PREFIX = "fraud-rules-";
+
+    private static final Transaction WARM_UP_TRANSACTION = new Transaction(
+        "warm-up", "warm-up", BigDecimal.ONE, "USD", "warm-up", "warm-up", "warm-up", "warm-up", Instant.EPOCH);
+    private static final UserProfile WARM_UP_PROFILE = new UserProfile(
+        "warm-up", BigDecimal.ONE, "warm-up", Set.of(), Set.of(), 0, false);
+
     @Value("${decision.rules.version:v1}")
-    private String ruleVersion;
+    private String ruleVersion = "v1";
+
+    @Value("${decision.rules.engine:java}")
+    private Engine engine = Engine.JAVA;
+
+    /** One build at a time; reloads queue behind each other. */
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rule-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     private KieContainer kieContainer;
 
+    /** Swapped atomically on reload; evaluations in flight keep the rules they read. */
+    private volatile ActiveRules active = ActiveRules.java(CompiledRuleSet.compile("v1"));
+
     @PostConstruct
     public void init() {
-        try {
-            KieServices kieServices = KieServices.Factory.get();
-            kieContainer = kieServices.getKieClasspathContainer();
-            log.info("Drools rule engine initialized with version: {}", ruleVersion);
-        } catch (Exception e) {
-            log.error("Failed to initialize Drools engine", e);
-            // Fallback to simple rule engine
+        active = build(ruleVersion);
+        log.info("Rule engine initialized with version: {} ({})", ruleVersion, engine);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+        if (kieContainer != null) {
+            kieContainer.dispose();
         }
     }
 
-    public RuleResult evaluate(Transaction transaction, UserProfile profile, 
+    public RuleResult evaluate(Transaction transaction, UserProfile profile,
                                int velocity1m, int velocity5m) {
-        RuleResult result = new RuleResult();
-        result.setRuleVersion(ruleVersion);
-
-        // For MVP, use simple Java-based rules
-        // In production, this would use Drools KieSession
-        applySimpleRules(transaction, profile, velocity1m, velocity5m, result);
+        RuleResult result = active.evaluate(transaction, profile, velocity1m, velocity5m);
 
-        log.debug("Rule evaluation completed: {} rules fired, outcome: {}", 
+        log.debug("Rule evaluation completed: {} rules fired, outcome: {}",
                  result.getFiredRules().size(), result.getSuggestedOutcome());
 
         return result;
     }
 
-    private void applySimpleRules(Transaction txn, UserProfile profile, 
-                                  int velocity1m, int velocity5m, RuleResult result) {
-        
-        // Rule 1: High amount with new device -> REJECT
-        if (txn.amount().compareTo(new BigDecimal("10000")) > 0 
-            && profile.isNewDevice(txn.deviceId())) {
-            result.setSuggestedOutcome(DecisionOutcome.REJECT);
-            result.addFiredRule("HIGH_AMOUNT_NEW_DEVICE");
-            result.addReasonCode("HIGH_AMOUNT_NEW_DEVICE");
-            return;
-        }
+    public String activeVersion() {
+        return active.version();
+    }
 
-        // Rule 2: High velocity -> REJECT
-        if (velocity1m >= 5) {
-            result.setSuggestedOutcome(DecisionOutcome.REJECT);
-            result.addFiredRule("HIGH_VELOCITY_1M");
-            result.addReasonCode("HIGH_VELOCITY");
-            return;
-        }
+    public Engine engine() {
+        return engine;
+    }
 
-        // Rule 3: Medium velocity -> REVIEW
-        if (velocity5m >= 10) {
-            result.setSuggestedOutcome(DecisionOutcome.REVIEW);
-            result.addFiredRule("MEDIUM_VELOCITY_5M");
-            result.addReasonCode("ELEVATED_VELOCITY");
-        }
+    /**
+     * Build {@code version} in the background and swap it in. The future fails
+     * with {@link IllegalArgumentException} if the version does not exist or
+     * fails warm-up; the current rules keep serving either way.
+     */
+    public CompletableFuture<String> reloadRules(String version) {
+        return CompletableFuture.supplyAsync(() -> build(version), builder)
+            .thenApply(rules -> {
+                active = rules;
+                log.info("Rules swapped to version: {} ({})", version, engine);
+                return version;
+            });
+    }
 
-        // Rule 4: New device with unusual location -> REVIEW
-        if (profile.isNewDevice(txn.deviceId()) 
-            && profile.isUnusualLocation(txn.location())) {
-            result.setSuggestedOutcome(DecisionOutcome.REVIEW);
-            result.addFiredRule("NEW_DEVICE_UNUSUAL_LOCATION");
-            result.addReasonCode("NEW_DEVICE");
-            result.addReasonCode("UNUSUAL_LOCATION");
+    /**
+     * Rebuild the active version and wait for the swap.
+     */
+    public void reloadRules() {
+        try {
+            reloadRules(activeVersion()).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
         }
+    }
 
-        // Rule 5: Very high amount -> REVIEW (even if trusted)
-        if (txn.amount().compareTo(new BigDecimal("5000")) > 0) {
-            if (result.getSuggestedOutcome() == null) {
-                result.setSuggestedOutcome(DecisionOutcome.REVIEW);
-            }
-            result.addFiredRule("HIGH_AMOUNT_THRESHOLD");
-            result.addReasonCode("HIGH_AMOUNT");
+    /**
+     * Build {@code version} with the configured engine without swapping it in,
+     * for shadow evaluation next to the active rules.
+     *
+     * @throws IllegalArgumentException if the version does not exist or fails warm-up
+     */
+    public RuleVersion buildVersion(String version) {
+        return build(version);
+    }
+
+    private ActiveRules build(String version) {
+        if (engine == Engine.JAVA && !CompiledRuleSet.VERSIONS.contains(version)) {
+            throw new IllegalArgumentException("No rules for version: " + version);
         }
+        CompiledRuleSet rules = CompiledRuleSet.compile(version);
+        ActiveRules built = engine == Engine.DROOLS
+            ? ActiveRules.drools(rules, newSession(version))
+            : ActiveRules.java(rules);
+        try {
+            built.evaluate(WARM_UP_TRANSACTION, WARM_UP_PROFILE, 0, 0);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Rules failed warm-up: " + version, e);
+        }
+        return built;
+    }
 
-        // Rule 6: Amount significantly higher than average -> REVIEW
-        if (profile.averageTransactionAmount() != null) {
-            BigDecimal threshold = profile.averageTransactionAmount().multiply(new BigDecimal("5"));
-            if (txn.amount().compareTo(threshold) > 0) {
-                if (result.getSuggestedOutcome() == null) {
-                    result.setSuggestedOutcome(DecisionOutcome.REVIEW);
-                }
-                result.addFiredRule("AMOUNT_DEVIATION");
-                result.addReasonCode("AMOUNT_ANOMALY");
-            }
+    private StatelessKieSession newSession(String version) {
+        KieContainer container = kieContainer();
+        String kieBase = KIE_BASE_PREFIX + version;
+        if (!container.getKieBaseNames().contains(kieBase)) {
+            throw new IllegalArgumentException("No rules for version: " + version);
         }
+        // Stateless sessions are safe to share; each execute() gets its own working memory
+        return container.getKieBase(kieBase).newStatelessKieSession();
+    }
 
-        // Default: APPROVE if no rules fired
-        if (result.getSuggestedOutcome() == null) {
-            result.setSuggestedOutcome(DecisionOutcome.APPROVE);
-            result.addFiredRule("DEFAULT_APPROVE");
+    /**
+     * Every version, loaded on first use from the executable model that
+     * {@link RuleModelCompiler} generated at build time. Later builds and
+     * reloads only create sessions.
+     */
+    private synchronized KieContainer kieContainer() {
+        if (kieContainer == null) {
+            byte[] model;
+            try {
+                model = new ClassPathResource(RuleModelCompiler.MODEL).getContentAsByteArray();
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                    "Compiled rules " + RuleModelCompiler.MODEL + " not on the classpath; Maven generates them "
+                    + "in the process-classes phase", e);
+            }
+            KieServices kieServices = KieServices.Factory.get();
+            KieModule module = kieServices.getRepository()
+                .addKieModule(kieServices.getResources().newByteArrayResource(model));
+            kieContainer = kieServices.newKieContainer(module.getReleaseId());
         }
+        return kieContainer;
     }
 
     /**
-     * Hot-reload rules (for future enhancement).
+     * A built rule version. {@code session} is null for the Java engine.
      */
-    public void reloadRules() {
-        log.info("Reloading rules (version: {})", ruleVersion);
-        init();
+    private record ActiveRules(CompiledRuleSet rules, StatelessKieSession session) implements RuleVersion {
+
+        static ActiveRules java(CompiledRuleSet rules) {
+            return new ActiveRules(rules, null);
+        }
+
+        static ActiveRules drools(CompiledRuleSet rules, StatelessKieSession session) {
+            return new ActiveRules(rules, session);
+        }
+
+        @Override
+        public String version() {
+            return rules.version();
+        }
+
+        @Override
+        public RuleResult evaluate(Transaction transaction, UserProfile profile, int velocity1m, int velocity5m) {
+            if (session == null) {
+                return rules.evaluate(transaction, profile, velocity1m, velocity5m);
+            }
+            RuleFacts facts = new RuleFacts(transaction, profile, velocity1m, velocity5m);
+            session.execute(facts);
+            return rules.result(facts.firedMask());
+        }
     }
 }
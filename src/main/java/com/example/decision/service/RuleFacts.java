@@ -0,0 +1,70 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+
+import java.math.BigDecimal;
+
+/**
+ * The fact a Drools rule set evaluates: one transaction with its profile and
+ * velocity. Rules record themselves with {@link #fired(String)}; the collected
+ * mask selects the same frozen {@link com.example.decision.model.RuleResult}
+ * that {@link CompiledRuleSet} returns for those rules.
+ */
+public final class RuleFacts {
+
+    private final BigDecimal amount;
+    private final BigDecimal averageAmount;
+    private final boolean newDevice;
+    private final boolean unusualLocation;
+    private final int velocity1m;
+    private final int velocity5m;
+    private int firedMask;
+
+    RuleFacts(Transaction transaction, UserProfile profile, int velocity1m, int velocity5m) {
+        this.amount = transaction.amount();
+        this.averageAmount = profile.averageTransactionAmount();
+        this.newDevice = profile.isNewDevice(transaction.deviceId());
+        this.unusualLocation = profile.isUnusualLocation(transaction.location());
+        this.velocity1m = velocity1m;
+        this.velocity5m = velocity5m;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public BigDecimal getAverageAmount() {
+        return averageAmount;
+    }
+
+    public boolean isNewDevice() {
+        return newDevice;
+    }
+
+    public boolean isUnusualLocation() {
+        return unusualLocation;
+    }
+
+    public int getVelocity1m() {
+        return velocity1m;
+    }
+
+    public int getVelocity5m() {
+        return velocity5m;
+    }
+
+    /** Whether the amount is more than {@code multiple} times the user's average. */
+    public boolean exceedsAverage(int multiple) {
+        return averageAmount != null && amount.compareTo(averageAmount.multiply(BigDecimal.valueOf(multiple))) > 0;
+    }
+
+    /** Called from a rule consequence with the rule's name, which must name a {@code CompiledRuleSet.Rule}. */
+    public void fired(String ruleName) {
+        firedMask |= CompiledRuleSet.Rule.valueOf(ruleName).bit;
+    }
+
+    int firedMask() {
+        return firedMask;
+    }
+}
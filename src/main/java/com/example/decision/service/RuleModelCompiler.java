@@ -0,0 +1,69 @@
+package com.example.decision.service;
+
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
+import org.drools.model.codegen.ExecutableModelProject;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compiles every rule version to the Drools executable model at build time.
+ * <p>
+ * Maven runs it in {@code process-classes}, after the classes the rules use
+ * are compiled. The DRL in {@code rules/<version>} and
+ * {@code META-INF/kmodule.xml} are built with {@link ExecutableModelProject},
+ * and the kjar, generated model classes included, is written to
+ * {@value #MODEL} under the output directory. {@link RuleEngineService} loads
+ * it from the classpath, so no rule is parsed or compiled at runtime. (The
+ * kie-maven-plugin would do this too, but it recompiles the module's own
+ * sources with ECJ, which does not see Lombok.)
+ */
+public final class RuleModelCompiler {
+
+    /** Classpath location of the compiled rules. */
+    static final String MODEL = "rules/fraud-rules.kjar";
+
+    private static final String KMODULE = "META-INF/kmodule.xml";
+    private static final String RULES = "classpath*:rules/*/*.drl";
+
+    private RuleModelCompiler() {
+    }
+
+    /**
+     * @param args the output directory, normally {@code target/classes}
+     */
+    public static void main(String[] args) throws IOException {
+        Path model = Path.of(args[0]).resolve(MODEL);
+        Files.createDirectories(model.getParent());
+        Files.write(model, compile());
+    }
+
+    static byte[] compile() throws IOException {
+        KieServices kieServices = KieServices.Factory.get();
+        KieFileSystem files = kieServices.newKieFileSystem();
+        ReleaseId releaseId = kieServices.newReleaseId("com.example.decision", "fraud-rules", "1.0.0");
+        files.generateAndWritePomXML(releaseId);
+        files.writeKModuleXML(new ClassPathResource(KMODULE).getContentAsByteArray());
+        for (Resource drl : new PathMatchingResourcePatternResolver().getResources(RULES)) {
+            String path = drl.getURL().getPath();
+            String version = path.substring(0, path.lastIndexOf('/'));
+            version = version.substring(version.lastIndexOf('/') + 1);
+            files.write("src/main/resources/rules/" + version + "/" + drl.getFilename(),
+                        drl.getContentAsByteArray());
+        }
+        KieBuilder kieBuilder = kieServices.newKieBuilder(files).buildAll(ExecutableModelProject.class);
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            throw new IllegalStateException("Rules failed to compile: " + kieBuilder.getResults().getMessages());
+        }
+        return ((InternalKieModule) kieBuilder.getKieModule()).getBytes();
+    }
+}
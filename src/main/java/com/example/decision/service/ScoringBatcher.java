@@ -0,0 +1,116 @@
+package com.example.decision.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent scoring calls into micro-batches.
+ * <p>
+ * Callers park on a future while a single scorer thread drains the queue,
+ * waits up to the batch window for more rows and scores them as one batch.
+ * When the queue is full the caller scores its own row inline instead of
+ * waiting, so batching never adds more than one window of latency.
+ */
+@Slf4j
+final class ScoringBatcher {
+
+    private record PendingScore(double[] features, CompletableFuture<Double> risk) {}
+
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final BlockingQueue<PendingScore> queue;
+    private final Function<double[][], double[]> scorer;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ScoringBatcher(int maxBatchSize, long windowNanos, int queueCapacity,
+                   Function<double[][], double[]> scorer) {
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = windowNanos;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.scorer = scorer;
+        this.thread = new Thread(this::run, "model-batcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    double score(double[] features) {
+        PendingScore pending = new PendingScore(features, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            return scorer.apply(new double[][] {features})[0];
+        }
+        try {
+            return pending.risk().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    int queueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<PendingScore> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingScore first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - batch.size());
+
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatchSize && System.nanoTime() < deadline) {
+                    PendingScore next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+
+                scoreBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Unexpected error in model batcher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void scoreBatch(List<PendingScore> batch) {
+        double[][] features = new double[batch.size()][];
+        for (int i = 0; i < features.length; i++) {
+            features[i] = batch.get(i).features();
+        }
+        try {
+            double[] risk = scorer.apply(features);
+            for (int i = 0; i < risk.length; i++) {
+                batch.get(i).risk().complete(risk[i]);
+            }
+        } catch (Exception e) {
+            batch.forEach(pending -> pending.risk().completeExceptionally(e));
+        }
+    }
+
+    void shutdown() throws InterruptedException {
+        running = false;
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.decision.service;
+
+/**
+ * A risk model over the heuristic feature vector.
+ * <p>
+ * Each row holds the five feature scores computed by {@link MLScoringService},
+ * each in [0, 1], at the indexes below. Models return a risk in [0, 1] per row;
+ * the service scales it to 0-100.
+ */
+public interface ScoringModel extends AutoCloseable {
+
+    int AMOUNT = 0;
+    int VELOCITY = 1;
+    int DEVICE = 2;
+    int LOCATION = 3;
+    int MERCHANT = 4;
+    int FEATURE_COUNT = 5;
+
+    /**
+     * Name used in logs and as the {@code model} metric tag.
+     */
+    String name();
+
+    double score(double[] features);
+
+    /**
+     * Score several rows at once; the result is in input order.
+     */
+    default double[] scoreBatch(double[][] features) {
+        double[] risk = new double[features.length];
+        for (int i = 0; i < features.length; i++) {
+            risk[i] = score(features[i]);
+        }
+        return risk;
+    }
+
+    /**
+     * Whether scoring rows together is cheaper than one by one, so concurrent
+     * calls are worth coalescing into micro-batches.
+     */
+    default boolean supportsBatching() {
+        return false;
+    }
+
+    /**
+     * Release native resources. Must wait for in-flight calls to finish; calls
+     * made after closing throw {@link IllegalStateException}.
+     */
+    @Override
+    default void close() {
+    }
+}
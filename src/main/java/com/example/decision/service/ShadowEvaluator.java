@@ -0,0 +1,261 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.ShadowDecision;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import com.example.decision.service.RuleEngineService.RuleVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Champion/challenger shadow evaluation.
+ * <p>
+ * A sample of decisions is evaluated again by each challenger rule version
+ * ({@code decision.shadow.rules}) and each challenger scoring model
+ * ({@code decision.shadow.models}). Sampling hashes the transaction ID, so a
+ * redelivered transaction is sampled the same way. Challengers get the
+ * profile and velocity the champion already fetched, so Redis is not read
+ * again, and run on their own bounded pool: the champion pays a hash and a
+ * queue offer. When the queue is full the sample is dropped and counted.
+ * Degraded decisions are not sampled; their missing features would be compared
+ * as defaults.
+ * <p>
+ * A challenger replaces one component and keeps the champion's other one, so
+ * every disagreement is down to it. Each comparison is published as a
+ * {@link ShadowDecision} to {@code decision.topics.shadow} and counted as
+ * agreement or disagreement per challenger.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ShadowEvaluator {
+
+    private static final int SAMPLE_BUCKETS = 10_000;
+
+    private final RuleEngineService ruleEngineService;
+    private final MLScoringService mlScoringService;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${decision.shadow.enabled:false}")
+    private boolean enabled;
+
+    /** Share of decisions evaluated by the challengers. */
+    @Value("${decision.shadow.sample-rate:0.01}")
+    private double sampleRate = 0.01;
+
+    /** Challenger rule versions, comma-separated. */
+    @Value("${decision.shadow.rules:}")
+    private List<String> ruleVersions = List.of();
+
+    /** Challenger scoring models, comma-separated locations as for {@code decision.model.location}. */
+    @Value("${decision.shadow.models:}")
+    private List<String> modelLocations = List.of();
+
+    @Value("${decision.shadow.pool-size:2}")
+    private int poolSize = 2;
+
+    @Value("${decision.shadow.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${decision.topics.shadow:decision-shadow}")
+    private String shadowTopic = "decision-shadow";
+
+    private final List<Challenger> challengers = new ArrayList<>();
+    private int sampledBuckets;
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        // A challenger that cannot be built is skipped; it must never stop the champion
+        for (String version : ruleVersions) {
+            if (version.isBlank()) {
+                continue;
+            }
+            try {
+                challengers.add(challenger("rules:" + version.trim(),
+                    ruleEngineService.buildVersion(version.trim()), null));
+            } catch (RuntimeException e) {
+                log.error("Challenger rules {} not loaded", version, e);
+            }
+        }
+        for (String location : modelLocations) {
+            if (location.isBlank()) {
+                continue;
+            }
+            try {
+                ScoringModel model = mlScoringService.loadChallenger(location.trim());
+                challengers.add(challenger("model:" + model.name(), null, model));
+            } catch (RuntimeException e) {
+                log.error("Challenger model {} not loaded", location, e);
+            }
+        }
+        if (challengers.isEmpty()) {
+            log.warn("Shadow evaluation enabled without challengers");
+            return;
+        }
+
+        sampledBuckets = (int) Math.round(Math.min(1.0, Math.max(0.0, sampleRate)) * SAMPLE_BUCKETS);
+        Counter dropped = Counter.builder("decision.shadow.dropped")
+            .description("Sampled decisions not shadowed because the shadow queue was full")
+            .register(meterRegistry);
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory factory = task -> {
+            Thread thread = new Thread(task, "decision-shadow-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), factory, (task, pool) -> dropped.increment());
+        Gauge.builder("decision.shadow.queue.size", executor, pool -> pool.getQueue().size())
+            .register(meterRegistry);
+
+        log.info("Shadow evaluation enabled: {} of decisions against {}", sampleRate,
+                 challengers.stream().map(Challenger::name).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        for (Challenger challenger : challengers) {
+            if (challenger.model() != null) {
+                challenger.model().close();
+            }
+        }
+    }
+
+    /**
+     * Queue a champion decision for shadow evaluation if it is sampled. Never
+     * blocks and never throws.
+     */
+    public void submit(Transaction transaction, UserProfile profile, int velocity1m, int velocity5m,
+                       RuleResult championRules, Decision champion) {
+        if (executor == null || champion.degraded() || !sampled(transaction.transactionId())) {
+            return;
+        }
+        executor.execute(() -> evaluate(transaction, profile, velocity1m, velocity5m, championRules, champion));
+    }
+
+    boolean sampled(String transactionId) {
+        return Math.floorMod(transactionId.hashCode(), SAMPLE_BUCKETS) < sampledBuckets;
+    }
+
+    private void evaluate(Transaction transaction, UserProfile profile, int velocity1m, int velocity5m,
+                          RuleResult championRules, Decision champion) {
+        for (Challenger challenger : challengers) {
+            long start = System.nanoTime();
+            try {
+                RuleResult rules = challenger.rules() != null
+                    ? challenger.rules().evaluate(transaction, profile, velocity1m, velocity5m)
+                    : championRules;
+                double riskScore = challenger.model() != null
+                    ? mlScoringService.calculateRiskScore(transaction, profile, velocity1m, velocity5m,
+                                                          challenger.model())
+                    : champion.riskScore();
+                DecisionOutcome outcome = DecisionService.determineOutcome(rules, riskScore);
+                long elapsed = System.nanoTime() - start;
+
+                ShadowDecision shadow = new ShadowDecision(
+                    transaction.transactionId(),
+                    transaction.userId(),
+                    challenger.name(),
+                    champion.outcome(),
+                    outcome,
+                    champion.riskScore(),
+                    riskScore,
+                    champion.reasonCodes(),
+                    rules.getReasonCodes(),
+                    champion.ruleVersion(),
+                    rules.getRuleVersion(),
+                    TimeUnit.NANOSECONDS.toMicros(elapsed),
+                    Instant.now()
+                );
+                challenger.record(shadow, elapsed);
+                kafkaTemplate.send(shadowTopic, shadow.transactionId(), shadow)
+                    .whenComplete((result, e) -> {
+                        if (e != null) {
+                            log.debug("Shadow decision for transaction: {} not published",
+                                      shadow.transactionId(), e);
+                            challenger.errors().increment();
+                        }
+                    });
+            } catch (RuntimeException e) {
+                log.warn("Challenger {} failed for transaction: {}", challenger.name(),
+                         transaction.transactionId(), e);
+                challenger.errors().increment();
+            }
+        }
+    }
+
+    private Challenger challenger(String name, RuleVersion rules, ScoringModel model) {
+        return new Challenger(
+            name,
+            rules,
+            model,
+            Counter.builder("decision.shadow.comparisons")
+                .description("Shadowed decisions by whether the challenger's outcome matched the champion's")
+                .tag("challenger", name)
+                .tag("result", "agree")
+                .register(meterRegistry),
+            Counter.builder("decision.shadow.comparisons")
+                .description("Shadowed decisions by whether the challenger's outcome matched the champion's")
+                .tag("challenger", name)
+                .tag("result", "disagree")
+                .register(meterRegistry),
+            Counter.builder("decision.shadow.errors")
+                .description("Challenger evaluations or shadow publishes that failed")
+                .tag("challenger", name)
+                .register(meterRegistry),
+            DistributionSummary.builder("decision.shadow.score_delta")
+                .description("Absolute difference between the challenger's and the champion's risk score")
+                .tag("challenger", name)
+                .serviceLevelObjectives(1.0, 5.0, 10.0, 30.0)
+                .register(meterRegistry),
+            Timer.builder("decision.shadow.latency")
+                .description("Time for a challenger to decide a shadowed transaction")
+                .tag("challenger", name)
+                .register(meterRegistry)
+        );
+    }
+
+    /**
+     * One challenger: a rule version or a scoring model (the other is null) and its meters.
+     */
+    private record Challenger(String name, RuleVersion rules, ScoringModel model,
+                              Counter agreed, Counter disagreed, Counter errors,
+                              DistributionSummary scoreDelta, Timer latency) {
+
+        void record(ShadowDecision shadow, long elapsedNanos) {
+            (shadow.agrees() ? agreed : disagreed).increment();
+            scoreDelta.record(Math.abs(shadow.challengerRiskScore() - shadow.championRiskScore()));
+            latency.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.decision.service;
+
+import com.example.decision.model.StageTimings;
+import com.example.decision.service.DecisionMetrics.Stage;
+
+/**
+ * Stage durations of one evaluation, filled in as the stages finish and
+ * reported to the stage histograms when the evaluation is sampled.
+ * <p>
+ * In async orchestration stages finish on different threads; the final
+ * {@link #finish()} runs after their futures complete, which publishes the
+ * writes.
+ */
+final class StageClock {
+
+    private final DecisionMetrics metrics;
+    private final boolean sampled;
+    private final long startNanos;
+
+    private long enrich;
+    private long rules;
+    private long score;
+    private long persist;
+    private long publish;
+
+    StageClock(DecisionMetrics metrics, long startNanos) {
+        this(metrics, startNanos, metrics.sampleStages());
+    }
+
+    private StageClock(DecisionMetrics metrics, long startNanos, boolean sampled) {
+        this.metrics = metrics;
+        this.startNanos = startNanos;
+        this.sampled = sampled;
+    }
+
+    /**
+     * Clock for one record of a batch: the shared enrichment counts towards
+     * it, and it is sampled together with the batch.
+     */
+    StageClock forBatchItem(long itemStartNanos) {
+        StageClock item = new StageClock(metrics, itemStartNanos, sampled);
+        item.enrich = enrich;
+        return item;
+    }
+
+    long startNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Record a stage that started at {@code since}; returns the current time so
+     * consecutive stages can be chained.
+     */
+    long lap(Stage stage, long since) {
+        long now = System.nanoTime();
+        long elapsed = now - since;
+        switch (stage) {
+            case ENRICH -> enrich = elapsed;
+            case RULES -> rules = elapsed;
+            case SCORING -> score = elapsed;
+            case PERSIST -> persist = elapsed;
+            case PUBLISH -> publish = elapsed;
+            default -> { }
+        }
+        if (sampled) {
+            metrics.recordStage(stage, elapsed);
+        }
+        return now;
+    }
+
+    /**
+     * Timings so far, with the time elapsed up to now as the total.
+     */
+    StageTimings snapshot() {
+        return new StageTimings(enrich, rules, score, persist, publish, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Final timings; the total is recorded as its own stage.
+     */
+    StageTimings finish() {
+        StageTimings timings = snapshot();
+        if (sampled) {
+            metrics.recordStage(Stage.TOTAL, timings.totalNanos());
+        }
+        return timings;
+    }
+}
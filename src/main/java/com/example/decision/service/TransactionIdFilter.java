@@ -0,0 +1,119 @@
+package com.example.decision.service;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free Bloom filter of transaction IDs.
+ * <p>
+ * Two generations are kept, each sized for {@code capacity} IDs at the target
+ * false-positive rate. When the current generation is full it becomes the
+ * previous one and the oldest is dropped, so memory stays fixed and the filter
+ * remembers at least the last {@code capacity} IDs. A negative answer is
+ * always right; a positive one must be confirmed by the caller.
+ */
+final class TransactionIdFilter {
+
+    private final int capacity;
+    private final int bits;
+    private final int hashes;
+
+    private volatile Generation current;
+    private volatile Generation previous;
+
+    TransactionIdFilter(int capacity, double falsePositiveRate) {
+        this.capacity = capacity;
+        // Standard sizing: m = -n ln p / (ln 2)^2, k = m/n ln 2
+        long m = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = (int) Math.min(Math.max(m, 64), Integer.MAX_VALUE - 63);
+        this.hashes = Math.max(1, (int) Math.round((double) bits / capacity * Math.log(2)));
+        this.current = new Generation(bits);
+        this.previous = new Generation(bits);
+    }
+
+    boolean mightContain(String transactionId) {
+        long hash = hash(transactionId);
+        return current.contains(hash, bits, hashes) || previous.contains(hash, bits, hashes);
+    }
+
+    void put(String transactionId) {
+        long hash = hash(transactionId);
+        Generation generation = current;
+        // IDs already present (re-synced or replayed) do not use up capacity
+        if (generation.add(hash, bits, hashes) && generation.count.incrementAndGet() == capacity) {
+            rotate(generation);
+        }
+    }
+
+    private synchronized void rotate(Generation full) {
+        if (current == full) {
+            previous = full;
+            current = new Generation(bits);
+        }
+    }
+
+    /** Size of one generation in bytes. */
+    long generationBytes() {
+        return (long) (bits + 63) / 64 * Long.BYTES;
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-16 chars, finished with the SplitMix64 mixer
+     * so the low and high halves are both well distributed.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+        h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class Generation {
+        private final AtomicLongArray words;
+        private final AtomicInteger count = new AtomicInteger();
+
+        Generation(int bits) {
+            words = new AtomicLongArray((bits + 63) / 64);
+        }
+
+        /**
+         * Set the ID's bits; returns whether any was newly set. Double hashing
+         * (Kirsch-Mitzenmacher): index_i = h1 + i * h2.
+         */
+        boolean add(long hash, int bits, int hashes) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            boolean changed = false;
+            for (int i = 0; i < hashes; i++) {
+                int index = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << index;
+                int word = index >>> 6;
+                long value = words.get(word);
+                while ((value & mask) == 0) {
+                    if (words.compareAndSet(word, value, value | mask)) {
+                        changed = true;
+                        break;
+                    }
+                    value = words.get(word);
+                }
+            }
+            return changed;
+        }
+
+        boolean contains(long hash, int bits, int hashes) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashes; i++) {
+                int index = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get(index >>> 6) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.decision.service;
+
+import com.example.decision.model.VelocitySnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compacted Kafka changelog backing the local velocity store.
+ * Changelog partition N holds the counters of users read from input partition N,
+ * so the topic must have the same partition count as the input topic.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class VelocityChangelog {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(200);
+
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final ConsumerFactory<String, Object> consumerFactory;
+
+    @Value("${decision.velocity.local.changelog-topic:velocity-changelog}")
+    private String topic;
+
+    public void append(int partition, VelocitySnapshot snapshot) {
+        kafkaTemplate.send(topic, partition, snapshot.userId(), snapshot);
+    }
+
+    public void tombstone(int partition, String userId) {
+        kafkaTemplate.send(topic, partition, userId, null);
+    }
+
+    /**
+     * Read a changelog partition from the beginning and return the latest
+     * snapshot per user. Blocks until the end offset captured at start is reached.
+     */
+    public Map<String, VelocitySnapshot> restore(int partition) {
+        Map<String, VelocitySnapshot> snapshots = new HashMap<>();
+        TopicPartition tp = new TopicPartition(topic, partition);
+
+        try (Consumer<String, Object> consumer = consumerFactory.createConsumer(null, "velocity-restore")) {
+            consumer.assign(List.of(tp));
+            consumer.seekToBeginning(List.of(tp));
+            long endOffset = consumer.endOffsets(List.of(tp)).getOrDefault(tp, 0L);
+
+            while (consumer.position(tp) < endOffset) {
+                for (ConsumerRecord<String, Object> record : consumer.poll(POLL_TIMEOUT)) {
+                    if (record.value() instanceof VelocitySnapshot snapshot) {
+                        snapshots.put(record.key(), snapshot);
+                    } else {
+                        snapshots.remove(record.key());
+                    }
+                }
+            }
+        }
+
+        log.info("Restored {} velocity counters from {}", snapshots.size(), tp);
+        return snapshots;
+    }
+}
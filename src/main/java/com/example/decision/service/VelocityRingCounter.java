@@ -0,0 +1,95 @@
+package com.example.decision.service;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size ring of per-bucket transaction counts for one user.
+ * Advancing the head clears the buckets that fall out of the ring, so memory
+ * stays constant regardless of transaction rate.
+ */
+final class VelocityRingCounter {
+
+    private final int[] counts;
+    private long headBucket = Long.MIN_VALUE;
+    private boolean dirty;
+
+    VelocityRingCounter(int buckets) {
+        this.counts = new int[buckets];
+    }
+
+    synchronized void increment(long bucket) {
+        advance(bucket);
+        if (bucket > headBucket - counts.length) {
+            counts[index(bucket)]++;
+            dirty = true;
+        }
+    }
+
+    /**
+     * Sum of the {@code buckets} most recent buckets ending at {@code nowBucket}.
+     */
+    synchronized int count(long nowBucket, int buckets) {
+        if (headBucket == Long.MIN_VALUE) {
+            return 0;
+        }
+        long from = Math.max(nowBucket - Math.min(buckets, counts.length) + 1, headBucket - counts.length + 1);
+        long to = Math.min(nowBucket, headBucket);
+        int total = 0;
+        for (long b = from; b <= to; b++) {
+            total += counts[index(b)];
+        }
+        return total;
+    }
+
+    synchronized boolean isExpired(long nowBucket) {
+        return headBucket <= nowBucket - counts.length;
+    }
+
+    synchronized boolean clearDirty() {
+        boolean wasDirty = dirty;
+        dirty = false;
+        return wasDirty;
+    }
+
+    synchronized long headBucket() {
+        return headBucket;
+    }
+
+    /**
+     * Counts ordered oldest to newest, ending at the head bucket.
+     */
+    synchronized int[] toArray() {
+        int[] ordered = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            ordered[i] = counts[index(headBucket - counts.length + 1 + i)];
+        }
+        return ordered;
+    }
+
+    synchronized void restore(long head, int[] ordered) {
+        headBucket = head;
+        int n = Math.min(ordered.length, counts.length);
+        for (int i = 0; i < n; i++) {
+            counts[index(head - n + 1 + i)] = ordered[ordered.length - n + i];
+        }
+        dirty = false;
+    }
+
+    private void advance(long bucket) {
+        if (bucket <= headBucket) {
+            return;
+        }
+        if (headBucket == Long.MIN_VALUE || bucket - headBucket >= counts.length) {
+            Arrays.fill(counts, 0);
+        } else {
+            for (long b = headBucket + 1; b <= bucket; b++) {
+                counts[index(b)] = 0;
+            }
+        }
+        headBucket = bucket;
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) counts.length);
+    }
+}
@@ -0,0 +1,35 @@
+-- Audit table, range-partitioned by decision time. Runs at every startup
+-- (spring.sql.init) before Hibernate validates the mapping of DecisionEntity,
+-- so new columns go here as well, with ALTER TABLE ... ADD COLUMN IF NOT EXISTS.
+--
+-- Partitions are created ahead by AuditPartitionManager
+-- (decision.audit.partitions.*), each with a unique index on transaction_id:
+-- a unique key across partitions would have to include timestamp.
+-- An unpartitioned decisions table from an earlier version is left as it is;
+-- scripts/partition-decisions.sql converts it.
+
+CREATE TABLE IF NOT EXISTS decisions (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    transaction_id   VARCHAR(255)                NOT NULL,
+    user_id          VARCHAR(255)                NOT NULL,
+    outcome          VARCHAR(255)                NOT NULL CHECK (outcome IN ('APPROVE', 'REVIEW', 'REJECT')),
+    risk_score       DOUBLE PRECISION            NOT NULL,
+    reason_codes     TEXT,
+    rule_version     VARCHAR(255)                NOT NULL,
+    latency_ms       BIGINT                      NOT NULL,
+    timestamp        TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    missing_features VARCHAR(255),
+    enrich_nanos     BIGINT,
+    rules_nanos      BIGINT,
+    score_nanos      BIGINT,
+    persist_nanos    BIGINT,
+    publish_nanos    BIGINT,
+    total_nanos      BIGINT,
+    created_at       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+-- Created on every partition
+CREATE INDEX IF NOT EXISTS idx_user_timestamp_id ON decisions (user_id, timestamp DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_timestamp ON decisions (timestamp);
+CREATE INDEX IF NOT EXISTS idx_outcome ON decisions (outcome);
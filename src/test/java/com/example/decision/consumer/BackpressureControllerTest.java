@@ -0,0 +1,123 @@
+package com.example.decision.consumer;
+
+import com.example.decision.service.ConcurrencyLimiter;
+import com.example.decision.service.DependencyGuard;
+import com.example.decision.service.DependencyGuard.Dependency;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BackpressureControllerTest {
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private ObjectProvider<DataSource> dataSource;
+
+    @Mock
+    private MessageListenerContainer inputContainer;
+
+    @Mock
+    private MessageListenerContainer deadLetterContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DependencyGuard dependencyGuard;
+    private BackpressureController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dependencyGuard = new DependencyGuard(CircuitBreakerRegistry.ofDefaults(),
+            BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(10)
+                .maxWaitDuration(Duration.ZERO)
+                .build()));
+        dependencyGuard.init();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(meterRegistry);
+        limiter.init();
+
+        when(inputContainer.getContainerProperties()).thenReturn(new ContainerProperties("txn-events"));
+        when(deadLetterContainer.getContainerProperties()).thenReturn(new ContainerProperties("txn-events-dlt"));
+        when(inputContainer.metrics()).thenReturn(Map.of());
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(inputContainer, deadLetterContainer));
+
+        controller = new BackpressureController(listenerRegistry, dependencyGuard, limiter, dataSource, meterRegistry);
+        controller.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dependencyGuard.shutdown();
+    }
+
+    @Test
+    void shouldPauseWhileRedisBulkheadIsSaturatedAndResumeWithHysteresis() {
+        // Given: 9 of 10 Redis permits in use
+        Bulkhead redis = dependencyGuard.bulkhead(Dependency.REDIS);
+        for (int i = 0; i < 9; i++) {
+            redis.tryAcquirePermission();
+        }
+
+        // When
+        controller.evaluate();
+
+        // Then
+        assertThat(controller.status().paused()).isTrue();
+        assertThat(controller.status().redis().inFlight()).isEqualTo(9);
+        verify(inputContainer).pause();
+        verify(deadLetterContainer, never()).pause();
+        assertThat(meterRegistry.get("decision.consumer.paused").gauge().value()).isEqualTo(1.0);
+
+        // When: 7 in use is below pause-at but above resume-at
+        redis.onComplete();
+        redis.onComplete();
+        controller.evaluate();
+
+        // Then
+        assertThat(controller.status().paused()).isTrue();
+        verify(inputContainer, never()).resume();
+
+        // When: 6 in use
+        redis.onComplete();
+        controller.evaluate();
+
+        // Then
+        assertThat(controller.status().paused()).isFalse();
+        verify(inputContainer).resume();
+        assertThat(meterRegistry.get("decision.consumer.pauses").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldTreatWaitingJdbcCallersAsSaturated() {
+        assertThat(new BackpressureController.DependencyLoad(3, 10, 1).saturation()).isEqualTo(1.0);
+        assertThat(new BackpressureController.DependencyLoad(3, 10, 0).saturation()).isEqualTo(0.3);
+        assertThat(new BackpressureController.DependencyLoad(0, 0, 0).saturation()).isZero();
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.decision.consumer;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.Transaction;
+import com.example.decision.service.DecisionEvaluationException;
+import com.example.decision.service.DecisionMetrics;
+import com.example.decision.service.DecisionService;
+import com.example.decision.service.DecisionService.BatchItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchTransactionConsumerTest {
+
+    @Mock
+    private DecisionService decisionService;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private KafkaTemplate<String, Object> transactionalKafkaTemplate;
+
+    @Mock
+    private ObjectProvider<KafkaTemplate<String, Object>> templateProvider;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    // A real one: mocking DecisionMetrics instruments the class for every test in the JVM
+    private SimpleMeterRegistry meterRegistry;
+    private DecisionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new DecisionMetrics(meterRegistry);
+        metrics.init();
+    }
+
+    @Test
+    void shouldLeavePublishingToDecisionServiceInAtLeastOnceMode() {
+        // Given
+        BatchTransactionConsumer consumer = new BatchTransactionConsumer(decisionService, metrics, kafkaTemplate, templateProvider);
+        Transaction transaction = transaction("txn-1");
+        when(decisionService.evaluateBatch(List.of(transaction), true))
+            .thenReturn(List.of(new BatchItem(transaction, decision("txn-1"), null)));
+
+        // When
+        consumer.consume(List.of(record(transaction, 0)), acknowledgment);
+
+        // Then
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void shouldPublishOnlyCommittedRecordsInExactlyOnceMode() {
+        // Given: the second record fails, the first was decided by an aborted transaction
+        when(templateProvider.getIfAvailable()).thenReturn(transactionalKafkaTemplate);
+        BatchTransactionConsumer consumer = new BatchTransactionConsumer(decisionService, metrics, kafkaTemplate, templateProvider);
+        Transaction replayed = transaction("txn-1");
+        Transaction failing = transaction("txn-2");
+        Transaction after = transaction("txn-3");
+        when(decisionService.evaluateBatch(anyList(), eq(false))).thenReturn(List.of(
+            new BatchItem(replayed, decision("txn-1"), null, true),
+            new BatchItem(failing, null, new DecisionEvaluationException("txn-2")),
+            new BatchItem(after, decision("txn-3"), null)
+        ));
+
+        // When
+        consumer.consume(List.of(record(replayed, 0), record(failing, 1), record(after, 2)), acknowledgment);
+
+        // Then
+        verify(transactionalKafkaTemplate).send(eq("decision-results"), eq("txn-1"), any());
+        verify(transactionalKafkaTemplate, never()).send(any(), eq("txn-3"), any());
+        verify(acknowledgment).nack(1, Duration.ofMillis(1000));
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void shouldDeadLetterRecordWithoutValueAndAcknowledge() {
+        // Given
+        BatchTransactionConsumer consumer = new BatchTransactionConsumer(decisionService, metrics, kafkaTemplate, templateProvider);
+        stubDeadLetterSend();
+        Transaction transaction = transaction("txn-1");
+        when(decisionService.evaluateBatch(List.of(transaction), true))
+            .thenReturn(List.of(new BatchItem(transaction, decision("txn-1"), null)));
+        ConsumerRecord<String, Transaction> empty = new ConsumerRecord<>("txn-events", 0, 0, "user-1", null);
+
+        // When
+        consumer.consume(List.of(empty, record(transaction, 1)), acknowledgment);
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = deadLetters(1);
+        assertThat(sent.getValue().topic()).isEqualTo("txn-events-dlt");
+        assertThat(failures("poison")).isEqualTo(1.0);
+        assertThat(meterRegistry.get("decision.consumer.dead_lettered").counter().count()).isEqualTo(1.0);
+        verify(acknowledgment).acknowledge();
+        verify(acknowledgment, never()).nack(any(int.class), any());
+    }
+
+    @Test
+    void shouldDeadLetterTransientFailureAfterMaxAttempts() {
+        // Given: the first record keeps failing, the second was decided on the first delivery
+        BatchTransactionConsumer consumer = new BatchTransactionConsumer(decisionService, metrics, kafkaTemplate, templateProvider);
+        stubDeadLetterSend();
+        Transaction failing = transaction("txn-1");
+        Transaction after = transaction("txn-2");
+        when(decisionService.evaluateBatch(anyList(), eq(true))).thenReturn(List.of(
+            new BatchItem(failing, null, new DecisionEvaluationException("Redis unavailable")),
+            new BatchItem(after, decision("txn-2"), null, true)
+        ));
+        List<ConsumerRecord<String, Transaction>> records = List.of(record(failing, 0), record(after, 1));
+
+        // When
+        for (int delivery = 0; delivery < 4; delivery++) {
+            consumer.consume(records, acknowledgment);
+        }
+
+        // Then: three retries, then the record is dead-lettered and the batch acknowledged
+        verify(acknowledgment, times(3)).nack(0, Duration.ofMillis(1000));
+        deadLetters(1);
+        assertThat(failures("transient")).isEqualTo(4.0);
+        assertThat(meterRegistry.get("decision.consumer.retries").counter().count()).isEqualTo(3.0);
+        assertThat(meterRegistry.get("decision.consumer.dead_lettered").counter().count()).isEqualTo(1.0);
+        verify(acknowledgment).acknowledge();
+    }
+
+    private double failures(String kind) {
+        return meterRegistry.get("decision.consumer.failures").tag("kind", kind).counter().count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubDeadLetterSend() {
+        when(kafkaTemplate.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<ProducerRecord<String, Object>> deadLetters(int count) {
+        ArgumentCaptor<ProducerRecord<String, Object>> sent = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaTemplate, times(count)).send(sent.capture());
+        return sent;
+    }
+
+    private static ConsumerRecord<String, Transaction> record(Transaction transaction, long offset) {
+        return new ConsumerRecord<>("txn-events", 0, offset, transaction.userId(), transaction);
+    }
+
+    private static Transaction transaction(String transactionId) {
+        return new Transaction(transactionId, "user-1", new BigDecimal("25.00"), "USD",
+                               "TestMerchant", "RETAIL", "device-001", "US", Instant.now());
+    }
+
+    private static Decision decision(String transactionId) {
+        return new Decision(transactionId, "user-1", DecisionOutcome.APPROVE, 12.0, List.of(), "v1", 3);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.decision.consumer;
+
+import com.example.decision.service.BudgetExhaustedException;
+import com.example.decision.service.DecisionEvaluationException;
+import com.example.decision.service.DecisionMetrics.FailureKind;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.DateTimeException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionFailuresTest {
+
+    @Test
+    void shouldClassifyDependencyFailuresAsTransient() {
+        assertThat(TransactionFailures.classify(
+            new DecisionEvaluationException("txn-1", new BudgetExhaustedException("redis"))))
+            .isEqualTo(FailureKind.TRANSIENT);
+        assertThat(TransactionFailures.classify(
+            new DecisionEvaluationException("txn-1", new DataAccessResourceFailureException("postgres down"))))
+            .isEqualTo(FailureKind.TRANSIENT);
+    }
+
+    @Test
+    void shouldClassifyPayloadFailuresAnywhereInTheCauseChainAsPoison() {
+        assertThat(TransactionFailures.classify(new IllegalArgumentException("negative amount")))
+            .isEqualTo(FailureKind.POISON);
+        assertThat(TransactionFailures.classify(new DecisionEvaluationException("txn-1",
+            new IllegalStateException("wrapped", new DateTimeException("bad timestamp")))))
+            .isEqualTo(FailureKind.POISON);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.decision.integration;
+
+import com.example.decision.repository.DecisionPartitionRepository;
+import com.example.decision.repository.DecisionPartitionRepository.Partition;
+import com.example.decision.service.AuditPartitionManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * {@code schema-postgresql.sql} and partition maintenance against a real
+ * PostgreSQL; each test works on its own time range.
+ */
+@Testcontainers
+class DecisionPartitionIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgres:16-alpine")
+    );
+
+    private static DriverManagerDataSource dataSource;
+    private static JdbcTemplate jdbcTemplate;
+    private static DecisionPartitionRepository partitions;
+
+    @BeforeAll
+    static void createSchema() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        partitions = new DecisionPartitionRepository(jdbcTemplate);
+        // Runs at every startup, so it must apply twice
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema-postgresql.sql"));
+        schema.execute(dataSource);
+        schema.execute(dataSource);
+    }
+
+    @Test
+    void shouldCreatePartitionsWithUniqueTransactionIds() {
+        // Given
+        Instant from = Instant.parse("2020-01-01T00:00:00Z");
+        Instant to = Instant.parse("2020-02-01T00:00:00Z");
+
+        // When
+        partitions.create("decisions_p20200101", from, to);
+        insert("txn-2020-1", Instant.parse("2020-01-15T12:00:00Z"));
+
+        // Then
+        assertThat(partitions.isPartitioned()).isTrue();
+        assertThat(partitions.attached()).contains(new Partition("decisions_p20200101", from, to));
+        assertThat(count("decisions_p20200101")).isEqualTo(1);
+        assertThatThrownBy(() -> insert("txn-2020-1", Instant.parse("2020-01-16T12:00:00Z")))
+            .isInstanceOf(DuplicateKeyException.class);
+    }
+
+    @Test
+    void shouldDetachPartitionConcurrently() {
+        // Given
+        partitions.create("decisions_p20200301",
+            Instant.parse("2020-03-01T00:00:00Z"), Instant.parse("2020-04-01T00:00:00Z"));
+        insert("txn-2020-3", Instant.parse("2020-03-15T12:00:00Z"));
+
+        // When
+        partitions.detach("decisions_p20200301", Duration.ofSeconds(2));
+
+        // Then
+        assertThat(partitions.attached()).extracting(Partition::name).doesNotContain("decisions_p20200301");
+        assertThat(partitions.detached()).contains("decisions_p20200301");
+        assertThat(count("decisions_p20200301")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM decisions WHERE transaction_id = 'txn-2020-3'", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldFinalizeDetachInterruptedByLockTimeout() throws Exception {
+        // Given: a transaction that still reads the partition outlasts the lock timeout
+        partitions.create("decisions_p20200501",
+            Instant.parse("2020-05-01T00:00:00Z"), Instant.parse("2020-06-01T00:00:00Z"));
+        try (Connection reader = dataSource.getConnection()) {
+            reader.setAutoCommit(false);
+            try (Statement statement = reader.createStatement()) {
+                statement.execute("SELECT count(*) FROM decisions");
+            }
+            assertThatThrownBy(() -> partitions.detach("decisions_p20200501", Duration.ofMillis(200)))
+                .isInstanceOf(DataAccessException.class);
+            assertThat(partitions.isDetachPending("decisions_p20200501")).isTrue();
+            reader.rollback();
+        }
+
+        // When
+        partitions.detach("decisions_p20200501", Duration.ofSeconds(2));
+
+        // Then
+        assertThat(partitions.isDetachPending("decisions_p20200501")).isFalse();
+        assertThat(partitions.detached()).contains("decisions_p20200501");
+    }
+
+    @Test
+    void shouldArchiveAndDropExpiredPartition(@TempDir Path archiveDir) {
+        // Given
+        partitions.create("decisions_p20200701",
+            Instant.parse("2020-07-01T00:00:00Z"), Instant.parse("2020-08-01T00:00:00Z"));
+        insert("txn-2020-7", Instant.parse("2020-07-15T12:00:00Z"));
+        AuditPartitionManager manager =
+            new AuditPartitionManager(partitions, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(manager, "archiveDir", archiveDir.toString());
+        // Creates the current and upcoming partitions
+        manager.init();
+
+        // When
+        manager.maintain();
+
+        // Then
+        assertThat(Files.exists(archiveDir.resolve("decisions_p20200701.ndjson.gz"))).isTrue();
+        assertThat(partitions.detached()).doesNotContain("decisions_p20200701");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT to_regclass('decisions_p20200701') IS NULL", Boolean.class)).isTrue();
+        assertThat(partitions.attached()).anyMatch(partition -> partition.contains(Instant.now()));
+    }
+
+    private static void insert(String transactionId, Instant timestamp) {
+        jdbcTemplate.update(
+            "INSERT INTO decisions (transaction_id, user_id, outcome, risk_score, rule_version, latency_ms, " +
+            "timestamp, created_at) VALUES (?, 'user-1', 'APPROVE', 12.5, 'v1', 3, ?, ?)",
+            transactionId, Timestamp.from(timestamp), Timestamp.from(timestamp));
+    }
+
+    private static int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+}
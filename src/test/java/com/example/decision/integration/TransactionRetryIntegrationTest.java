@@ -0,0 +1,122 @@
+package com.example.decision.integration;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.Transaction;
+import com.example.decision.service.BudgetExhaustedException;
+import com.example.decision.service.DecisionEvaluationException;
+import com.example.decision.service.DecisionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retry pipeline of {@code TransactionConsumer} against an embedded broker.
+ */
+@SpringBootTest(properties = {
+    "decision.topics.input=" + TransactionRetryIntegrationTest.INPUT,
+    "decision.consumer.retry.attempts=3",
+    "decision.consumer.retry.backoff=100ms",
+    "decision.consumer.retry.partitions=1"
+})
+@EmbeddedKafka(partitions = 1, topics = TransactionRetryIntegrationTest.INPUT)
+@ActiveProfiles("test")
+class TransactionRetryIntegrationTest {
+
+    static final String INPUT = "retry-test-events";
+
+    @MockBean
+    private DecisionService decisionService;
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private EmbeddedKafkaBroker broker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void shouldRetryTransientFailureFromRetryTopic() {
+        // Given: Redis is out of budget on the first attempt only
+        Transaction transaction = transaction("txn-transient");
+        when(decisionService.evaluate(argThat(t -> t.transactionId().equals("txn-transient"))))
+            .thenThrow(new DecisionEvaluationException("txn-transient", new BudgetExhaustedException("redis")))
+            .thenReturn(new Decision("txn-transient", "user-1", DecisionOutcome.APPROVE, 10.0,
+                                     List.of(), "v1", 5));
+
+        // When
+        kafkaTemplate.send(INPUT, transaction.userId(), transaction);
+
+        // Then
+        verify(decisionService, timeout(15_000).times(2))
+            .evaluate(argThat(t -> t.transactionId().equals("txn-transient")));
+        assertThat(meterRegistry.get("decision.consumer.retries").counter().count()).isGreaterThanOrEqualTo(1.0);
+        assertThat(meterRegistry.get("decision.consumer.failures").tag("kind", "transient").counter().count())
+            .isGreaterThanOrEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSendPoisonPayloadStraightToDeadLetterTopic() {
+        // Given
+        Transaction transaction = transaction("txn-poison");
+        when(decisionService.evaluate(argThat(t -> t.transactionId().equals("txn-poison"))))
+            .thenThrow(new DecisionEvaluationException("txn-poison",
+                                                       new IllegalArgumentException("unsupported currency")));
+
+        try (Consumer<String, byte[]> deadLetters = deadLetterConsumer()) {
+            // When
+            kafkaTemplate.send(INPUT, transaction.userId(), transaction);
+
+            // Then: one attempt, no retry topic
+            ConsumerRecord<String, byte[]> record =
+                KafkaTestUtils.getSingleRecord(deadLetters, INPUT + "-dlt", Duration.ofSeconds(15));
+            assertThat(record.key()).isEqualTo("user-1");
+            assertThat(record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value())
+                .isEqualTo(INPUT.getBytes());
+            verify(decisionService, times(1)).evaluate(argThat(t -> t.transactionId().equals("txn-poison")));
+        }
+    }
+
+    private Consumer<String, byte[]> deadLetterConsumer() {
+        Map<String, Object> props = KafkaTestUtils.consumerProps("dlt-reader", "false", broker);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        Consumer<String, byte[]> consumer = new DefaultKafkaConsumerFactory<>(
+            props, new StringDeserializer(), new ByteArrayDeserializer()).createConsumer();
+        broker.consumeFromAnEmbeddedTopic(consumer, INPUT + "-dlt");
+        return consumer;
+    }
+
+    private static Transaction transaction(String transactionId) {
+        return new Transaction(transactionId, "user-1", new BigDecimal("100.00"), "USD",
+                               "TestMerchant", "RETAIL", "device-001", "US", Instant.now());
+    }
+}
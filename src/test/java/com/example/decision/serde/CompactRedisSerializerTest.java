@@ -0,0 +1,76 @@
+package com.example.decision.serde;
+
+import com.example.decision.model.UserProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactRedisSerializerTest {
+
+    private final CompactRedisSerializer serializer = new CompactRedisSerializer(true);
+
+    @Test
+    void shouldRoundTripProfileInBinaryLayout() {
+        // Given
+        UserProfile profile = createProfile(new BigDecimal("123.45"));
+        UserProfile withoutAverage = createProfile(null);
+
+        // When
+        byte[] bytes = serializer.serialize(profile);
+
+        // Then
+        assertThat(BinaryCodec.isBinary(bytes)).isTrue();
+        assertThat(serializer.deserialize(bytes)).isEqualTo(profile);
+        assertThat(serializer.deserialize(serializer.serialize(withoutAverage))).isEqualTo(withoutAverage);
+        assertThat(bytes.length).isLessThan(new GenericJackson2JsonRedisSerializer().serialize(profile).length / 3);
+    }
+
+    @Test
+    void shouldReadProfilesCachedAsJson() {
+        // Given
+        UserProfile profile = createProfile(new BigDecimal("123.45"));
+        byte[] legacy = new GenericJackson2JsonRedisSerializer().serialize(profile);
+
+        // When
+        Object cached = serializer.deserialize(legacy);
+
+        // Then
+        UserProfile read = cached instanceof UserProfile p ? p : new ObjectMapper().convertValue(cached, UserProfile.class);
+        assertThat(read).isEqualTo(profile);
+    }
+
+    @Test
+    void shouldKeepJsonForOtherValuesAndWhenBinaryIsOff() {
+        // Given
+        CompactRedisSerializer jsonOnly = new CompactRedisSerializer(false);
+        UserProfile profile = createProfile(new BigDecimal("123.45"));
+
+        // When
+        byte[] other = serializer.serialize(new HashMap<>(Map.of("key", "value")));
+        byte[] profileAsJson = jsonOnly.serialize(profile);
+
+        // Then
+        assertThat(BinaryCodec.isBinary(other)).isFalse();
+        assertThat(serializer.deserialize(other)).isEqualTo(Map.of("key", "value"));
+        assertThat(BinaryCodec.isBinary(profileAsJson)).isFalse();
+    }
+
+    private UserProfile createProfile(BigDecimal average) {
+        return new UserProfile(
+            "user-001",
+            average,
+            "US",
+            Set.of("device-001", "device-002"),
+            Set.of("Amazon", "Walmart", "Target"),
+            42,
+            true
+        );
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.decision.serde;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.StageTimings;
+import com.example.decision.model.Transaction;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WireFormatTest {
+
+    private static final String TOPIC = "txn-events";
+
+    private WireSerializer binarySerializer;
+    private WireDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        binarySerializer = new WireSerializer();
+        binarySerializer.configure(Map.of(WireFormat.CONFIG, "binary"), false);
+        deserializer = new WireDeserializer();
+        deserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.example.decision.model"), false);
+    }
+
+    @Test
+    void shouldRoundTripTransactionInBinary() {
+        // Given
+        Transaction small = createTransaction("150.25", "US");
+        Transaction huge = createTransaction("123456789012345678901234567890.123456", null);
+        RecordHeaders headers = new RecordHeaders();
+
+        // When
+        byte[] bytes = binarySerializer.serialize(TOPIC, headers, small);
+        Object decoded = deserializer.deserialize(TOPIC, headers, bytes);
+
+        // Then
+        assertThat(decoded).isEqualTo(small);
+        assertThat(new String(headers.lastHeader(WireFormat.HEADER).value(), StandardCharsets.UTF_8))
+            .isEqualTo("binary;v=1");
+        assertThat(BinaryCodec.decode(BinaryCodec.encode(huge))).isEqualTo(huge);
+    }
+
+    @Test
+    void shouldRoundTripDecisionInBinary() {
+        // Given
+        Decision timed = new Decision("txn-001", "user-001", DecisionOutcome.REVIEW, 67.5,
+            List.of("HIGH_AMOUNT", "DEGRADED_FEATURES"), "v1", 4, Instant.parse("2025-11-10T10:30:00.123456789Z"),
+            List.of("VELOCITY"), new StageTimings(800_000, 60_000, 120_000, 2_300_000, 45_000, 3_400_000));
+        Decision untimed = new Decision("txn-002", "user-001", DecisionOutcome.APPROVE, 10.0,
+            List.of("DEFAULT_APPROVE"), "v1", 1, Instant.parse("2025-11-10T10:30:01Z"));
+
+        // When
+        Object decodedTimed = deserializer.deserialize("decision-results", BinaryCodec.encode(timed));
+        Object decodedUntimed = deserializer.deserialize("decision-results", BinaryCodec.encode(untimed));
+
+        // Then
+        assertThat(decodedTimed).isEqualTo(timed);
+        assertThat(decodedUntimed).isEqualTo(untimed);
+    }
+
+    @Test
+    void shouldReadJsonFromProducersWithoutWireFormatHeader() {
+        // Given
+        Transaction transaction = createTransaction("150.25", "US");
+        RecordHeaders headers = new RecordHeaders();
+        byte[] bytes;
+        try (JsonSerializer<Object> legacy = new JsonSerializer<>()) {
+            bytes = legacy.serialize(TOPIC, headers, transaction);
+        }
+
+        // When
+        Object decoded = deserializer.deserialize(TOPIC, headers, bytes);
+
+        // Then
+        assertThat(decoded).isEqualTo(transaction);
+    }
+
+    @Test
+    void shouldRejectUnknownSchemaVersion() {
+        // Given
+        byte[] bytes = BinaryCodec.encode(createTransaction("150.25", "US"));
+        bytes[1] = 9;
+
+        // When / Then
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, bytes))
+            .isInstanceOf(SerializationException.class)
+            .hasMessageContaining("version 9");
+    }
+
+    private Transaction createTransaction(String amount, String location) {
+        return new Transaction(
+            "txn-001",
+            "user-001",
+            new BigDecimal(amount),
+            "USD",
+            "Amazon",
+            "retail",
+            "device-001",
+            location,
+            Instant.parse("2025-11-10T10:30:00.5Z")
+        );
+    }
+}
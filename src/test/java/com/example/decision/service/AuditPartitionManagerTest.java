@@ -0,0 +1,185 @@
+package com.example.decision.service;
+
+import com.example.decision.repository.DecisionPartitionRepository;
+import com.example.decision.repository.DecisionPartitionRepository.Partition;
+import com.example.decision.service.AuditPartitionManager.Period;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuditPartitionManagerTest {
+
+    @Mock
+    private DecisionPartitionRepository partitions;
+
+    @TempDir
+    private Path archiveDir;
+
+    private MeterRegistry meterRegistry;
+    private AuditPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        manager = new AuditPartitionManager(partitions, new ObjectMapper(), meterRegistry);
+        ReflectionTestUtils.setField(manager, "archiveDir", archiveDir.toString());
+        // Registers the meters; the mock reports an unpartitioned table, so nothing else runs
+        manager.init();
+    }
+
+    @Test
+    void shouldCreateCurrentAndUpcomingPartitions() {
+        // Given
+        Instant current = Period.MONTH.start(Instant.now());
+        Instant next = Period.MONTH.next(current);
+        Instant afterNext = Period.MONTH.next(next);
+        Instant end = Period.MONTH.next(afterNext);
+        when(partitions.attached()).thenReturn(List.of(new Partition("decisions_p" + compact(current), current, next)));
+
+        // When
+        manager.createUpcoming(partitions);
+
+        // Then
+        verify(partitions).create("decisions_p" + compact(next), next, afterNext);
+        verify(partitions).create("decisions_p" + compact(afterNext), afterNext, end);
+        verify(partitions, times(2)).create(any(), any(), any());
+        assertThat(meterRegistry.get("decision.audit.partitions.created").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldOnlyCreateWhatNoPartitionCovers() {
+        // Given: a converted table holds everything up to a day into the current month
+        ReflectionTestUtils.setField(manager, "premake", 0);
+        Instant current = Period.MONTH.start(Instant.now());
+        Instant cutover = Period.DAY.next(current);
+        when(partitions.attached()).thenReturn(List.of(new Partition("decisions_legacy", null, cutover)));
+
+        // When
+        manager.createUpcoming(partitions);
+
+        // Then
+        verify(partitions).create("decisions_p" + compact(cutover), cutover, Period.MONTH.next(current));
+        verify(partitions, times(1)).create(any(), any(), any());
+    }
+
+    @Test
+    void shouldDetachArchiveAndDropExpiredPartitions() throws Exception {
+        // Given
+        Instant old = Period.MONTH.start(Instant.now().minus(Duration.ofDays(200)));
+        Partition expired = new Partition("decisions_p20250101", old, Period.MONTH.next(old));
+        Partition live = new Partition("decisions_p20990101", Instant.now(), null);
+        when(partitions.attached()).thenReturn(List.of(expired, live));
+        when(partitions.detached()).thenReturn(List.of("decisions_p20250101"));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            handler.processRow(row("txn-1", Instant.parse("2025-01-02T03:04:05Z")));
+            handler.processRow(row("txn-2", Instant.parse("2025-01-03T03:04:05Z")));
+            return null;
+        }).when(partitions).forEachRow(eq("decisions_p20250101"), any());
+
+        // When
+        manager.retire(partitions);
+
+        // Then
+        verify(partitions).detach(eq("decisions_p20250101"), any());
+        verify(partitions, never()).detach(eq("decisions_p20990101"), any());
+        verify(partitions).drop("decisions_p20250101");
+        String[] lines;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(archiveDir.resolve("decisions_p20250101.ndjson.gz")))) {
+            lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertThat(lines).containsExactly(
+            "{\"transaction_id\":\"txn-1\",\"timestamp\":\"2025-01-02T03:04:05Z\",\"risk_score\":42.5}",
+            "{\"transaction_id\":\"txn-2\",\"timestamp\":\"2025-01-03T03:04:05Z\",\"risk_score\":42.5}");
+        assertThat(meterRegistry.get("decision.audit.partitions.archived_rows").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void shouldRunScheduledMaintenanceOffTheSchedulerThread() throws Exception {
+        // Given: a long archive run
+        ReflectionTestUtils.setField(manager, "partitioned", true);
+        CompletableFuture<String> thread = new CompletableFuture<>();
+        CountDownLatch archiving = new CountDownLatch(1);
+        when(partitions.withMaintenanceLock(any())).thenAnswer(invocation -> {
+            thread.complete(Thread.currentThread().getName());
+            archiving.await(5, TimeUnit.SECONDS);
+            return true;
+        });
+
+        // When
+        manager.scheduleMaintenance();
+        String maintenanceThread = thread.get(5, TimeUnit.SECONDS);
+        manager.scheduleMaintenance();
+        archiving.countDown();
+
+        // Then: the scheduler returned at once, and the overlapping run was not queued
+        assertThat(maintenanceThread).isEqualTo("audit-partitions");
+        verify(partitions, timeout(1000).times(1)).withMaintenanceLock(any());
+        manager.shutdown();
+    }
+
+    @Test
+    void shouldKeepDetachedPartitionWhenExportFails() {
+        // Given
+        when(partitions.attached()).thenReturn(List.of());
+        when(partitions.detached()).thenReturn(List.of("decisions_p20250101"));
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+            .when(partitions).forEachRow(eq("decisions_p20250101"), any());
+
+        // When
+        manager.retire(partitions);
+
+        // Then
+        verify(partitions, never()).drop(any());
+        assertThat(Files.exists(archiveDir.resolve("decisions_p20250101.ndjson.gz"))).isFalse();
+        assertThat(meterRegistry.get("decision.audit.partitions.failures").counter().count()).isEqualTo(1.0);
+    }
+
+    private static String compact(Instant instant) {
+        return instant.toString().substring(0, 10).replace("-", "");
+    }
+
+    private static ResultSet row(String transactionId, Instant timestamp) throws Exception {
+        ResultSetMetaData columns = mock(ResultSetMetaData.class);
+        when(columns.getColumnCount()).thenReturn(3);
+        when(columns.getColumnLabel(1)).thenReturn("transaction_id");
+        when(columns.getColumnLabel(2)).thenReturn("timestamp");
+        when(columns.getColumnLabel(3)).thenReturn("risk_score");
+        ResultSet row = mock(ResultSet.class);
+        when(row.getMetaData()).thenReturn(columns);
+        when(row.getObject(1)).thenReturn(transactionId);
+        when(row.getObject(2)).thenReturn(Timestamp.from(timestamp));
+        when(row.getObject(3)).thenReturn(42.5);
+        return row;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.decision.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new ConcurrencyLimiter(meterRegistry);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "acquireTimeoutMs", 10L);
+        ReflectionTestUtils.setField(limiter, "jdbcPoolSize", 1);
+        ReflectionTestUtils.setField(limiter, "redisPoolSize", 1);
+    }
+
+    @Test
+    void shouldSizeLimitToConnectionPoolsAndRejectBeyondIt() {
+        // Given
+        limiter.init();
+
+        // When
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+        boolean third = limiter.tryAcquire();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(third).isFalse();
+        assertThat(meterRegistry.get("decision.inflight").gauge().value()).isEqualTo(2.0);
+        assertThat(meterRegistry.get("decision.limiter.rejected").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotLimitWhenVirtualThreadModeIsOff() {
+        // Given
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        ReflectionTestUtils.setField(limiter, "maxInFlight", 1);
+        limiter.init();
+
+        // When
+        boolean first = limiter.tryAcquire();
+        boolean second = limiter.tryAcquire();
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(meterRegistry.get("decision.inflight").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionEntity;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.StageTimings;
+import com.example.decision.repository.DecisionRepository;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DecisionDeduplicatorTest {
+
+    @Mock
+    private DecisionRepository repository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DecisionDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DependencyGuard dependencyGuard =
+            new DependencyGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        dependencyGuard.init();
+        deduplicator = new DecisionDeduplicator(repository, dependencyGuard, meterRegistry);
+        deduplicator.init();
+    }
+
+    @Test
+    void shouldAnswerUnseenIdsWithoutQueryingTheAuditTable() {
+        // When
+        Optional<Decision> result = deduplicator.findDecided("txn-001");
+
+        // Then
+        assertThat(result).isEmpty();
+        verify(repository, never()).findByTransactionId(any(), any(), any());
+        assertThat(meterRegistry.get("decision.dedup.lookups").tag("result", "unseen").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldLoadDecisionWrittenByAnotherInstanceAfterSync() {
+        // Given
+        DecisionEntity stored = DecisionEntity.builder()
+            .transactionId("txn-002")
+            .userId("user-002")
+            .outcome(DecisionOutcome.REVIEW)
+            .riskScore(55.0)
+            .reasonCodes("HIGH_AMOUNT")
+            .ruleVersion("v1")
+            .latencyMs(3L)
+            .timestamp(Instant.now())
+            .build();
+        when(repository.findTransactionIdsSince(any())).thenReturn(List.of("txn-002"));
+        when(repository.findByTransactionId(eq("txn-002"), any(), any())).thenReturn(Optional.of(stored));
+        deduplicator.syncFromAudit();
+
+        // When
+        Optional<Decision> first = deduplicator.findDecided("txn-002");
+        Optional<Decision> second = deduplicator.findDecided("txn-002");
+
+        // Then
+        assertThat(first).map(Decision::outcome).contains(DecisionOutcome.REVIEW);
+        assertThat(second).isEqualTo(first);
+        // Only partitions within the lookback are probed
+        verify(repository).findByTransactionId(eq("txn-002"),
+            argThat(from -> from.isAfter(Instant.now().minus(Duration.ofDays(7)).minusSeconds(60))), any());
+    }
+
+    @Test
+    void shouldReplayStoredDecisionWithoutReasonCodesUnchanged() {
+        // Given: an approval that fired no rules, stored the way DecisionService writes it
+        Decision original = new Decision("txn-003", "user-003", DecisionOutcome.APPROVE, 4.0, List.of(), "v1", 2L,
+            Instant.parse("2026-01-01T00:00:00Z"), List.of(), new StageTimings(10, 20, 30, 40, 50, 150));
+        DecisionEntity stored = DecisionEntity.builder()
+            .transactionId(original.transactionId())
+            .userId(original.userId())
+            .outcome(original.outcome())
+            .riskScore(original.riskScore())
+            .reasonCodes(String.join(",", original.reasonCodes()))
+            .ruleVersion(original.ruleVersion())
+            .latencyMs(original.latencyMs())
+            .timestamp(original.timestamp())
+            .build();
+        stored.setStageTimings(original.timings());
+        when(repository.findTransactionIdsSince(any())).thenReturn(List.of("txn-003"));
+        when(repository.findByTransactionId(eq("txn-003"), any(), any())).thenReturn(Optional.of(stored));
+        deduplicator.syncFromAudit();
+
+        // When
+        Optional<Decision> replayed = deduplicator.findDecided("txn-003");
+
+        // Then
+        assertThat(replayed).contains(original);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.repository.DecisionHistoryRow;
+import com.example.decision.repository.DecisionRepository;
+import com.example.decision.service.DecisionHistoryService.DecisionPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DecisionHistoryServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-11-10T10:30:00.123456Z");
+
+    @Mock
+    private DecisionRepository repository;
+
+    private DecisionHistoryService historyService;
+
+    @BeforeEach
+    void setUp() {
+        historyService = new DecisionHistoryService(repository, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    void shouldReturnCursorWhenMoreRowsFollow() {
+        // Given
+        when(repository.findHistory(eq("user-001"), eq(DecisionHistoryService.EARLIEST),
+                eq(DecisionHistoryService.LATEST), eq(PageRequest.ofSize(3))))
+            .thenReturn(rows(10, 3));
+
+        // When
+        DecisionPage page = historyService.page("user-001", null, null, null, 2);
+
+        // Then
+        assertThat(page.decisions()).extracting(decision -> decision.transactionId())
+            .containsExactly("txn-10", "txn-9");
+        assertThat(page.nextCursor()).isNotNull();
+        DecisionHistoryService.Cursor cursor = DecisionHistoryService.Cursor.decode(page.nextCursor());
+        assertThat(cursor.id()).isEqualTo(9L);
+        assertThat(cursor.timestamp()).isEqualTo(NOW.minusSeconds(9));
+    }
+
+    @Test
+    void shouldContinueAfterCursorWithinTimeRange() {
+        // Given
+        Instant from = NOW.minusSeconds(3600);
+        Instant to = NOW;
+        String cursor = new DecisionHistoryService.Cursor(NOW.minusSeconds(9), 9).encode();
+        when(repository.findHistoryAfter("user-001", from, to, NOW.minusSeconds(9), 9L, PageRequest.ofSize(3)))
+            .thenReturn(rows(8, 2));
+
+        // When
+        DecisionPage page = historyService.page("user-001", from, to, cursor, 2);
+
+        // Then: the last page has no cursor
+        assertThat(page.decisions()).extracting(decision -> decision.transactionId())
+            .containsExactly("txn-8", "txn-7");
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void shouldCapPageSize() {
+        // Given
+        when(repository.findHistory(any(), any(), any(), any())).thenReturn(List.of());
+
+        // When
+        historyService.page("user-001", null, null, null, 100_000);
+
+        // Then
+        verify(repository).findHistory(any(), any(), any(), eq(PageRequest.ofSize(501)));
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> historyService.page("user-001", null, null, "not a cursor", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> historyService.page("user-001", null, null, "AAAA", 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldExportAllPagesAsJsonLines() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(historyService, "exportPageSize", 2);
+        when(repository.findHistory(any(), any(), any(), eq(PageRequest.ofSize(2)))).thenReturn(rows(5, 2));
+        when(repository.findHistoryAfter(any(), any(), any(), eq(NOW.minusSeconds(4)), eq(4L), any()))
+            .thenReturn(rows(3, 2));
+        when(repository.findHistoryAfter(any(), any(), any(), eq(NOW.minusSeconds(2)), eq(2L), any()))
+            .thenReturn(rows(1, 1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        historyService.export("user-001", null, null, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(5);
+        assertThat(lines[0]).contains("\"transactionId\":\"txn-5\"").contains("\"reasonCodes\":[\"HIGH_AMOUNT\"]");
+        assertThat(lines[4]).contains("\"transactionId\":\"txn-1\"");
+        verify(repository, times(2)).findHistoryAfter(any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldBoundTransactionLookupToRequestedRange() {
+        // Given
+        Instant from = NOW.minusSeconds(3600);
+
+        // When
+        historyService.find("txn-1", from, NOW);
+        historyService.find("txn-2", null, null);
+
+        // Then
+        verify(repository).findByTransactionId("txn-1", from, NOW);
+        verify(repository).findByTransactionId("txn-2", DecisionHistoryService.EARLIEST, DecisionHistoryService.LATEST);
+    }
+
+    /** {@code count} rows, newest first, with ids from {@code newestId} down. */
+    private List<DecisionHistoryRow> rows(long newestId, int count) {
+        List<DecisionHistoryRow> rows = new ArrayList<>();
+        for (long id = newestId; id > newestId - count; id--) {
+            rows.add(new DecisionHistoryRow(id, "txn-" + id, "user-001", DecisionOutcome.REVIEW, 55.0,
+                "HIGH_AMOUNT", "v1", 4L, NOW.minusSeconds(id), null));
+        }
+        return rows;
+    }
+}
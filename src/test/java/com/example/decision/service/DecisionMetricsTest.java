@@ -0,0 +1,88 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.service.DecisionMetrics.ErrorPath;
+import com.example.decision.service.DecisionMetrics.Stage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private DecisionMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new DecisionMetrics(meterRegistry);
+        metrics.init();
+    }
+
+    @Test
+    void shouldRegisterBoundedSeriesUpFront() {
+        // Given
+        int registered = meterRegistry.getMeters().size();
+
+        // When
+        for (int i = 0; i < 1_000; i++) {
+            metrics.recordDecision(DecisionOutcome.values()[i % 3], 1_000_000, i % 100);
+            metrics.recordError(ErrorPath.SINGLE);
+        }
+
+        // Then
+        assertThat(meterRegistry.getMeters()).hasSize(registered);
+        assertThat(meterRegistry.get("decision.errors").tag("path", "single").counter().count())
+            .isEqualTo(1_000.0);
+        assertThat(meterRegistry.get("decision.risk_score").summary().count()).isEqualTo(1_000);
+    }
+
+    @Test
+    void shouldRecordStageLatencyPerStage() {
+        // When
+        metrics.recordStage(Stage.RULES, TimeUnit.MICROSECONDS.toNanos(3));
+        metrics.recordStage(Stage.PUBLISH, TimeUnit.MICROSECONDS.toNanos(40));
+
+        // Then
+        assertThat(meterRegistry.get("decision.stage.latency").tag("stage", "rules").timer()
+            .totalTime(TimeUnit.NANOSECONDS)).isEqualTo(3_000.0);
+        assertThat(meterRegistry.get("decision.stage.latency").tag("stage", "publish").timer().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("decision.stage.latency").tag("stage", "enrich").timer().count())
+            .isZero();
+    }
+
+    @Test
+    void shouldNotAllocateWhenRecording() {
+        // Given
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        recordMany(20_000);
+
+        // When
+        long before = threads.getThreadAllocatedBytes(threadId);
+        recordMany(10_000);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Then: well under one byte per decision
+        assertThat(allocated).isLessThan(10_000);
+    }
+
+    private void recordMany(int decisions) {
+        for (int i = 0; i < decisions; i++) {
+            metrics.recordDecision(DecisionOutcome.APPROVE, 250_000 + i, i % 100);
+            metrics.recordVelocity(i % 4, i % 9);
+            if (metrics.sampleStages()) {
+                metrics.recordStage(Stage.ENRICH, 100_000);
+                metrics.recordStage(Stage.RULES, 3_000);
+                metrics.recordStage(Stage.SCORING, 1_000);
+            }
+        }
+    }
+}
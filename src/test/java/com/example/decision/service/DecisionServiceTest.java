@@ -1,7 +1,10 @@
 package com.example.decision.service;
 
 import com.example.decision.model.*;
+import com.example.decision.repository.DecisionBatchRepository.Timings;
 import com.example.decision.repository.DecisionRepository;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
@@ -11,11 +14,16 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,24 +43,46 @@ class DecisionServiceTest {
     private MLScoringService mlScoringService;
 
     @Mock
-    private DecisionRepository repository;
+    private AuditWriter auditWriter;
 
     @Mock
     private KafkaTemplate<String, Object> kafkaTemplate;
 
+    @Mock
+    private DecisionRepository decisionRepository;
+
+    @Mock
+    private ShadowEvaluator shadowEvaluator;
+
     private MeterRegistry meterRegistry;
+    private DependencyGuard dependencyGuard;
+    private DecisionMetrics decisionMetrics;
+    private DecisionStatistics statistics;
     private DecisionService decisionService;
 
     @BeforeEach
     void setUp() {
         meterRegistry = new SimpleMeterRegistry();
+        dependencyGuard = new DependencyGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        dependencyGuard.init();
+        decisionMetrics = new DecisionMetrics(meterRegistry);
+        decisionMetrics.init();
+        DecisionDeduplicator deduplicator = new DecisionDeduplicator(decisionRepository, dependencyGuard, meterRegistry);
+        deduplicator.init();
+        statistics = new DecisionStatistics();
+        // Rows are written at once unless a test says otherwise
+        lenient().when(auditWriter.write(any())).thenReturn(CompletableFuture.completedFuture(null));
         decisionService = new DecisionService(
             ruleEngineService,
             featureService,
             mlScoringService,
-            repository,
+            auditWriter,
             kafkaTemplate,
-            meterRegistry
+            dependencyGuard,
+            deduplicator,
+            decisionMetrics,
+            shadowEvaluator,
+            statistics
         );
     }
 
@@ -63,8 +93,7 @@ class DecisionServiceTest {
         UserProfile profile = createProfile("user-001", false);
         RuleResult ruleResult = createRuleResult(DecisionOutcome.APPROVE);
 
-        when(featureService.getUserProfile("user-001")).thenReturn(profile);
-        when(featureService.getVelocity(eq("user-001"), any())).thenReturn(0);
+        when(featureService.fetchFeatures(eq("user-001"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
         when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt())).thenReturn(ruleResult);
         when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(15.0);
         when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
@@ -77,8 +106,11 @@ class DecisionServiceTest {
         assertThat(decision.riskScore()).isEqualTo(15.0);
         assertThat(decision.transactionId()).isEqualTo("txn-001");
 
-        verify(repository).save(any(DecisionEntity.class));
+        verify(auditWriter).write(any(DecisionEntity.class));
         verify(kafkaTemplate).send(eq("decision-results"), eq("txn-001"), any());
+        verify(shadowEvaluator).submit(eq(transaction), eq(profile), anyInt(), anyInt(), eq(ruleResult), any());
+        assertThat(statistics.stats().windows().get("1m").outcomes())
+            .containsEntry(DecisionOutcome.APPROVE, 1L);
     }
 
     @Test
@@ -88,8 +120,7 @@ class DecisionServiceTest {
         UserProfile profile = createProfile("user-002", true);
         RuleResult ruleResult = createRuleResult(DecisionOutcome.REVIEW);
 
-        when(featureService.getUserProfile("user-002")).thenReturn(profile);
-        when(featureService.getVelocity(eq("user-002"), any())).thenReturn(0);
+        when(featureService.fetchFeatures(eq("user-002"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
         when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt())).thenReturn(ruleResult);
         when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(85.0);
         when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
@@ -109,8 +140,7 @@ class DecisionServiceTest {
         UserProfile profile = createProfile("user-003", false);
         RuleResult ruleResult = createRuleResult(DecisionOutcome.REJECT);
 
-        when(featureService.getUserProfile("user-003")).thenReturn(profile);
-        when(featureService.getVelocity(eq("user-003"), any())).thenReturn(0);
+        when(featureService.fetchFeatures(eq("user-003"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
         when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt())).thenReturn(ruleResult);
         when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(30.0);
         when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
@@ -129,8 +159,7 @@ class DecisionServiceTest {
         UserProfile profile = createProfile("user-004", false);
         RuleResult ruleResult = createRuleResult(DecisionOutcome.APPROVE);
 
-        when(featureService.getUserProfile("user-004")).thenReturn(profile);
-        when(featureService.getVelocity(eq("user-004"), any())).thenReturn(0);
+        when(featureService.fetchFeatures(eq("user-004"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
         when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt())).thenReturn(ruleResult);
         when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
         when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
@@ -143,6 +172,385 @@ class DecisionServiceTest {
         verify(featureService).incrementVelocity("user-004");
     }
 
+    @Test
+    void shouldIsolateFailuresWithinBatch() {
+        // Given
+        Transaction ok = createTransaction("txn-005", "user-005", "100.00");
+        Transaction bad = createTransaction("txn-006", "user-005", "200.00");
+        UserProfile profile = createProfile("user-005", false);
+
+        when(featureService.fetchFeatures(List.of("user-005", "user-005")))
+            .thenReturn(Map.of("user-005", createFeatures(profile)));
+        when(ruleEngineService.evaluate(eq(ok), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(ruleEngineService.evaluate(eq(bad), any(), anyInt(), anyInt()))
+            .thenThrow(new IllegalStateException("rule failure"));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        List<DecisionService.BatchItem> results = decisionService.evaluateBatch(List.of(ok, bad));
+
+        // Then
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThat(results.get(0).decision().outcome()).isEqualTo(DecisionOutcome.APPROVE);
+        assertThat(results.get(1).succeeded()).isFalse();
+        assertThat(results.get(1).error()).isInstanceOf(DecisionEvaluationException.class);
+
+        verify(auditWriter).writeAll(argThat(rows -> rows.size() == 1));
+        verify(featureService).incrementVelocity(List.of("user-005"));
+        verify(kafkaTemplate).send(eq("decision-results"), eq("txn-005"), any());
+    }
+
+    @Test
+    void shouldCountEarlierBatchRecordsTowardsVelocity() {
+        // Given
+        Transaction first = createTransaction("txn-007", "user-007", "10.00");
+        Transaction second = createTransaction("txn-008", "user-007", "20.00");
+        UserProfile profile = createProfile("user-007", false);
+
+        when(featureService.fetchFeatures(List.of("user-007", "user-007")))
+            .thenReturn(Map.of("user-007", createFeatures(profile)));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        decisionService.evaluateBatch(List.of(first, second));
+
+        // Then
+        verify(ruleEngineService).evaluate(eq(first), any(), eq(0), eq(0));
+        verify(ruleEngineService).evaluate(eq(second), any(), eq(1), eq(1));
+    }
+
+    @Test
+    void shouldFailBatchRecordWhoseAuditWriteFailsWhenAckingAfterFlush() {
+        // Given
+        Transaction ok = createTransaction("txn-009", "user-009", "10.00");
+        Transaction duplicate = createTransaction("txn-010", "user-010", "20.00");
+
+        when(featureService.fetchFeatures(List.of("user-009", "user-010"))).thenReturn(Map.of(
+            "user-009", createFeatures(createProfile("user-009", false)),
+            "user-010", createFeatures(createProfile("user-010", false))
+        ));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
+        when(auditWriter.isAckAfterFlush()).thenReturn(true);
+        when(auditWriter.writeAll(any())).thenReturn(List.of(
+            CompletableFuture.completedFuture(null),
+            CompletableFuture.failedFuture(new IllegalStateException("duplicate key"))
+        ));
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        List<DecisionService.BatchItem> results = decisionService.evaluateBatch(List.of(ok, duplicate));
+
+        // Then
+        assertThat(results.get(0).succeeded()).isTrue();
+        assertThat(results.get(1).succeeded()).isFalse();
+        verify(kafkaTemplate).send(eq("decision-results"), eq("txn-009"), any());
+        verify(kafkaTemplate, never()).send(eq("decision-results"), eq("txn-010"), any());
+    }
+
+    @Test
+    void shouldRunSideEffectsConcurrentlyInAsyncMode() {
+        // Given
+        enableAsyncOrchestration();
+        Transaction transaction = createTransaction("txn-008", "user-008", "100.00");
+        UserProfile profile = createProfile("user-008", false);
+
+        when(featureService.fetchFeatures(eq("user-008"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(15.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+        when(auditWriter.isAckAfterFlush()).thenReturn(true);
+        when(auditWriter.write(any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return CompletableFuture.completedFuture(null);
+        });
+        doAnswer(invocation -> {
+            Thread.sleep(200);
+            return null;
+        }).when(featureService).incrementVelocity("user-008");
+
+        // When
+        long start = System.nanoTime();
+        Decision decision = decisionService.evaluate(transaction);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(decision.outcome()).isEqualTo(DecisionOutcome.APPROVE);
+        assertThat(elapsedMs).isBetween(200L, 350L);
+        verify(auditWriter).write(any(DecisionEntity.class));
+        verify(featureService).incrementVelocity("user-008");
+        verify(kafkaTemplate).send(eq("decision-results"), eq("txn-008"), any());
+    }
+
+    @Test
+    void shouldDecideDegradedWhenEnrichmentMissesBudgetInAsyncMode() {
+        // Given: a fetch that ignores the budget
+        enableAsyncOrchestration();
+        Transaction transaction = createTransaction("txn-009", "user-009", "100.00");
+        UserProfile profile = createProfile("user-009", false);
+
+        when(featureService.fetchFeatures(eq("user-009"), any(LatencyBudget.class))).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return createFeatures(profile);
+        });
+        when(featureService.unavailableFeatures("user-009")).thenReturn(new FeatureSnapshot(
+            profile, Map.of(Duration.ofMinutes(1), 0, Duration.ofMinutes(5), 0), Set.of(FeatureSnapshot.Feature.VELOCITY)));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        Decision decision = decisionService.evaluate(transaction);
+
+        // Then: decided within budget + margin, as any other degraded decision
+        assertThat(decision.outcome()).isEqualTo(DecisionOutcome.REVIEW);
+        assertThat(decision.missingFeatures()).containsExactly("VELOCITY");
+        assertThat(decision.latencyMs()).isLessThan(300);
+        assertThat(meterRegistry.get("decision.stage.timeouts").tag("stage", "enrich").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldRecordEveryStageAndDistribution() {
+        // Given
+        ReflectionTestUtils.setField(decisionMetrics, "stageSampling", 1);
+        Transaction transaction = createTransaction("txn-012", "user-012", "50.00");
+        UserProfile profile = createProfile("user-012", false);
+
+        when(featureService.fetchFeatures(eq("user-012"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(42.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        decisionService.evaluate(transaction);
+
+        // Then
+        for (String stage : List.of("enrich", "rules", "scoring", "persist", "velocity", "publish", "total")) {
+            assertThat(meterRegistry.get("decision.stage.latency").tag("stage", stage).timer().count())
+                .as(stage)
+                .isEqualTo(1);
+        }
+        assertThat(meterRegistry.get("decision.latency").tag("outcome", "APPROVE").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("decision.risk_score").summary().totalAmount()).isEqualTo(42.0);
+        assertThat(meterRegistry.get("decision.velocity").tag("window", "1m").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCarryStageTimingsOnDecisionAndAuditRow() {
+        // Given
+        Transaction transaction = createTransaction("txn-013", "user-013", "50.00");
+        UserProfile profile = createProfile("user-013", false);
+
+        when(featureService.fetchFeatures(eq("user-013"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(20.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        Decision decision = decisionService.evaluate(transaction);
+
+        // Then
+        StageTimings timings = decision.timings();
+        assertThat(timings).isNotNull();
+        assertThat(timings.enrichNanos()).isPositive();
+        assertThat(timings.rulesNanos()).isPositive();
+        assertThat(timings.scoreNanos()).isPositive();
+        assertThat(timings.totalNanos())
+            .isGreaterThanOrEqualTo(timings.enrichNanos() + timings.rulesNanos() + timings.scoreNanos()
+                + timings.persistNanos() + timings.publishNanos());
+
+        ArgumentCaptor<DecisionEntity> audited = ArgumentCaptor.forClass(DecisionEntity.class);
+        verify(auditWriter).write(audited.capture());
+        StageTimings stored = audited.getValue().getStageTimings();
+        assertThat(stored.enrichNanos()).isEqualTo(timings.enrichNanos());
+        assertThat(stored.persistNanos()).isZero();
+        assertThat(stored.totalNanos()).isPositive().isLessThanOrEqualTo(timings.totalNanos());
+        // Once written, the row gets the stages that finished after it was built
+        verify(auditWriter).writeTimings(List.of(new Timings("txn-013", decision.timestamp(), timings)));
+    }
+
+    @Test
+    void shouldReturnAndRepublishStoredDecisionForRedeliveredTransaction() {
+        // Given
+        Transaction transaction = createTransaction("txn-014", "user-014", "50.00");
+        UserProfile profile = createProfile("user-014", false);
+
+        when(featureService.fetchFeatures(eq("user-014"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(20.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+        Decision first = decisionService.evaluate(transaction);
+
+        // When
+        Decision redelivered = decisionService.evaluate(transaction);
+
+        // Then
+        assertThat(redelivered).isEqualTo(first);
+        verify(featureService, times(1)).fetchFeatures(eq("user-014"), any(LatencyBudget.class));
+        verify(featureService, times(1)).incrementVelocity("user-014");
+        verify(auditWriter, times(1)).write(any(DecisionEntity.class));
+        // The first send may have been lost, so the stored decision goes out again
+        verify(kafkaTemplate, times(2)).send(eq("decision-results"), eq("txn-014"), any());
+        verify(kafkaTemplate).send("decision-results", "txn-014", first);
+        assertThat(meterRegistry.get("decision.dedup.lookups").tag("result", "recent").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldSkipAlreadyDecidedRecordsInBatch() {
+        // Given
+        Transaction decided = createTransaction("txn-015", "user-015", "50.00");
+        Transaction fresh = createTransaction("txn-016", "user-016", "60.00");
+
+        when(featureService.fetchFeatures(eq("user-015"), any(LatencyBudget.class)))
+            .thenReturn(createFeatures(createProfile("user-015", false)));
+        when(featureService.fetchFeatures(List.of("user-016")))
+            .thenReturn(Map.of("user-016", createFeatures(createProfile("user-016", false))));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(20.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+        Decision first = decisionService.evaluate(decided);
+
+        // When
+        List<DecisionService.BatchItem> results = decisionService.evaluateBatch(List.of(decided, fresh));
+
+        // Then
+        assertThat(results.get(0).replayed()).isTrue();
+        assertThat(results.get(0).decision()).isEqualTo(first);
+        assertThat(results.get(1).replayed()).isFalse();
+        assertThat(results.get(1).succeeded()).isTrue();
+        verify(auditWriter).writeAll(argThat(rows -> rows.size() == 1
+            && rows.get(0).getTransactionId().equals("txn-016")));
+        verify(featureService).incrementVelocity(List.of("user-016"));
+        verify(kafkaTemplate).send(eq("decision-results"), eq("txn-016"), any());
+    }
+
+    @Test
+    void shouldRepublishStoredDecisionForRedeliveredBatchRecord() {
+        // Given
+        Transaction transaction = createTransaction("txn-030", "user-030", "50.00");
+
+        when(featureService.fetchFeatures(eq("user-030"), any(LatencyBudget.class)))
+            .thenReturn(createFeatures(createProfile("user-030", false)));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(20.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+        Decision first = decisionService.evaluate(transaction);
+
+        // When
+        List<DecisionService.BatchItem> results = decisionService.evaluateBatch(List.of(transaction));
+
+        // Then
+        assertThat(results.get(0).replayed()).isTrue();
+        assertThat(results.get(0).decision()).isEqualTo(first);
+        verify(featureService, never()).fetchFeatures(anyList());
+        verify(featureService).incrementVelocity(List.of());
+        verify(auditWriter, never()).writeAll(argThat(rows -> !rows.isEmpty()));
+        // The first send may have been lost, so the stored decision goes out again
+        verify(kafkaTemplate, times(2)).send(eq("decision-results"), eq("txn-030"), any());
+        verify(kafkaTemplate).send("decision-results", "txn-030", first);
+    }
+
+    @Test
+    void shouldLeavePublishingToCallerWhenBatchPublishIsOff() {
+        // Given
+        Transaction transaction = createTransaction("txn-017", "user-017", "40.00");
+
+        when(featureService.fetchFeatures(List.of("user-017")))
+            .thenReturn(Map.of("user-017", createFeatures(createProfile("user-017", false))));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(10.0);
+
+        // When
+        List<DecisionService.BatchItem> results = decisionService.evaluateBatch(List.of(transaction), false);
+
+        // Then
+        assertThat(results.get(0).succeeded()).isTrue();
+        verify(auditWriter).writeAll(argThat(rows -> rows.size() == 1));
+        verify(featureService).incrementVelocity(List.of("user-017"));
+        verify(kafkaTemplate, never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldRouteDegradedDecisionToReview() {
+        // Given
+        Transaction transaction = createTransaction("txn-010", "user-010", "100.00");
+        UserProfile profile = createProfile("user-010", false);
+        FeatureSnapshot degraded = new FeatureSnapshot(profile, Map.of(
+            Duration.ofMinutes(1), 0,
+            Duration.ofMinutes(5), 0
+        ), Set.of(FeatureSnapshot.Feature.VELOCITY));
+
+        when(featureService.fetchFeatures(eq("user-010"), any(LatencyBudget.class))).thenReturn(degraded);
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(15.0);
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(mock());
+
+        // When
+        Decision decision = decisionService.evaluate(transaction);
+
+        // Then
+        assertThat(decision.outcome()).isEqualTo(DecisionOutcome.REVIEW);
+        assertThat(decision.missingFeatures()).containsExactly("VELOCITY");
+        assertThat(decision.reasonCodes()).contains("DEGRADED_FEATURES");
+        assertThat(meterRegistry.get("decision.degraded").tag("feature", "VELOCITY").counter().count())
+            .isEqualTo(1.0);
+
+        ArgumentCaptor<DecisionEntity> audited = ArgumentCaptor.forClass(DecisionEntity.class);
+        verify(auditWriter).write(audited.capture());
+        assertThat(audited.getValue().getMissingFeatures()).isEqualTo("VELOCITY");
+    }
+
+    @Test
+    void shouldKeepMoreSevereOutcomeForDegradedDecision() {
+        // Then
+        assertThat(decisionService.applyDegradedPolicy(DecisionOutcome.APPROVE)).isEqualTo(DecisionOutcome.REVIEW);
+        assertThat(decisionService.applyDegradedPolicy(DecisionOutcome.REJECT)).isEqualTo(DecisionOutcome.REJECT);
+    }
+
+    @Test
+    void shouldSkipPublishWhenKafkaCircuitIsOpen() {
+        // Given
+        Transaction transaction = createTransaction("txn-011", "user-011", "100.00");
+        UserProfile profile = createProfile("user-011", false);
+        dependencyGuard.circuitBreaker(DependencyGuard.Dependency.KAFKA).transitionToOpenState();
+
+        when(featureService.fetchFeatures(eq("user-011"), any(LatencyBudget.class))).thenReturn(createFeatures(profile));
+        when(ruleEngineService.evaluate(any(), any(), anyInt(), anyInt()))
+            .thenReturn(createRuleResult(DecisionOutcome.APPROVE));
+        when(mlScoringService.calculateRiskScore(any(), any(), anyInt(), anyInt())).thenReturn(15.0);
+
+        // When
+        Decision decision = decisionService.evaluate(transaction);
+
+        // Then
+        assertThat(decision.outcome()).isEqualTo(DecisionOutcome.APPROVE);
+        verify(kafkaTemplate, never()).send(any(), any(), any());
+        assertThat(meterRegistry.get("decision.publish.errors").counter().count()).isEqualTo(1.0);
+    }
+
+    private void enableAsyncOrchestration() {
+        ReflectionTestUtils.setField(decisionService, "orchestration", DecisionService.Orchestration.ASYNC);
+        decisionService.init();
+    }
+
     private Transaction createTransaction(String txnId, String userId, String amount) {
         return new Transaction(
             txnId,
@@ -170,6 +578,13 @@ class DecisionServiceTest {
         );
     }
 
+    private FeatureSnapshot createFeatures(UserProfile profile) {
+        return new FeatureSnapshot(profile, Map.of(
+            Duration.ofMinutes(1), 0,
+            Duration.ofMinutes(5), 0
+        ));
+    }
+
     private RuleResult createRuleResult(DecisionOutcome outcome) {
         RuleResult result = new RuleResult();
         result.setSuggestedOutcome(outcome);
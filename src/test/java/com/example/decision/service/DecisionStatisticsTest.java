@@ -0,0 +1,131 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.service.DecisionStatistics.Snapshot;
+import com.example.decision.service.DecisionStatistics.Stats;
+import com.example.decision.service.DecisionStatistics.WindowSnapshot;
+import com.example.decision.service.DecisionStatistics.WindowStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DecisionStatisticsTest {
+
+    /** On a slot boundary of every window. */
+    private static final long START = 1_700_000_100_000L;
+
+    private AtomicLong clock;
+    private DecisionStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(START);
+        statistics = new DecisionStatistics(clock::get);
+    }
+
+    @Test
+    void shouldSummarizeEveryWindow() {
+        // Given
+        for (int i = 1; i <= 100; i++) {
+            DecisionOutcome outcome = i <= 80 ? DecisionOutcome.APPROVE
+                : i <= 95 ? DecisionOutcome.REVIEW : DecisionOutcome.REJECT;
+            statistics.record(outcome, TimeUnit.MILLISECONDS.toNanos(i), i - 0.5);
+        }
+
+        // When
+        Stats stats = statistics.stats();
+
+        // Then
+        assertThat(stats.totalDecisions()).isEqualTo(100);
+        assertThat(stats.windows()).containsOnlyKeys("1m", "5m", "1h");
+        for (WindowStats window : stats.windows().values()) {
+            assertThat(window.decisions()).isEqualTo(100);
+            assertThat(window.outcomes()).containsExactlyInAnyOrderEntriesOf(Map.of(
+                DecisionOutcome.APPROVE, 80L, DecisionOutcome.REVIEW, 15L, DecisionOutcome.REJECT, 5L));
+            assertThat(window.latencyMs().p50()).isCloseTo(50.0, within(0.5));
+            assertThat(window.latencyMs().p99()).isCloseTo(99.0, within(1.0));
+            assertThat(window.latencyMs().max()).isCloseTo(100.0, within(1.0));
+            assertThat(window.riskScore().p90()).isEqualTo(89.5);
+            assertThat(window.riskScore().bands())
+                .containsEntry("0-10", 10L)
+                .containsEntry("65-80", 15L)
+                .containsEntry("90-100", 10L);
+        }
+        assertThat(stats.avgLatencyMs()).isCloseTo(50.5, within(0.5));
+    }
+
+    @Test
+    void shouldDropOldSlotsFromShorterWindows() {
+        // Given
+        statistics.record(DecisionOutcome.APPROVE, 1_000_000, 10.0);
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(70).toMillis());
+        Stats stats = statistics.stats();
+
+        // Then
+        assertThat(stats.windows().get("1m").decisions()).isZero();
+        assertThat(stats.windows().get("5m").decisions()).isEqualTo(1);
+        assertThat(stats.windows().get("1h").decisions()).isEqualTo(1);
+        assertThat(stats.totalDecisions()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldClearSlotWhenRingComesRound() {
+        // Given
+        statistics.record(DecisionOutcome.REJECT, 1_000_000, 95.0);
+
+        // When: thirteen five-minute slots later the hour ring reuses the first slot
+        clock.addAndGet(Duration.ofMinutes(65).toMillis());
+        statistics.record(DecisionOutcome.APPROVE, 1_000_000, 5.0);
+
+        // Then
+        WindowStats hour = statistics.stats().windows().get("1h");
+        assertThat(hour.decisions()).isEqualTo(1);
+        assertThat(hour.outcomes()).containsEntry(DecisionOutcome.REJECT, 0L);
+    }
+
+    @Test
+    void shouldMergeSnapshotsOfSeveralInstances() {
+        // Given
+        DecisionStatistics other = new DecisionStatistics(() -> START + 1_000);
+        for (int i = 0; i < 10; i++) {
+            statistics.record(DecisionOutcome.APPROVE, TimeUnit.MILLISECONDS.toNanos(2), 20.0);
+            other.record(DecisionOutcome.REVIEW, TimeUnit.MILLISECONDS.toNanos(40), 70.0);
+        }
+
+        // When
+        Stats merged = DecisionStatistics.merge(List.of(statistics.snapshot(), other.snapshot()));
+
+        // Then
+        assertThat(merged.since().toEpochMilli()).isEqualTo(START);
+        assertThat(merged.totalDecisions()).isEqualTo(20);
+        WindowStats minute = merged.windows().get("1m");
+        assertThat(minute.outcomes())
+            .containsEntry(DecisionOutcome.APPROVE, 10L)
+            .containsEntry(DecisionOutcome.REVIEW, 10L);
+        assertThat(minute.latencyMs().p50()).isCloseTo(2.0, within(0.1));
+        assertThat(minute.latencyMs().max()).isCloseTo(40.0, within(0.5));
+        assertThat(minute.riskScore().bands())
+            .containsEntry("10-25", 10L)
+            .containsEntry("65-80", 10L);
+    }
+
+    @Test
+    void shouldRejectMalformedSnapshot() {
+        Snapshot snapshot = new Snapshot(null, null, 1,
+            Map.of("1m", new WindowSnapshot(Map.of(DecisionOutcome.APPROVE, 1L), "not a histogram", null)));
+
+        assertThatThrownBy(() -> DecisionStatistics.merge(List.of(snapshot)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.decision.service;
+
+import com.example.decision.service.DependencyGuard.Dependency;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DependencyGuardTest {
+
+    private DependencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerRegistry breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+            .slidingWindowSize(2)
+            .minimumNumberOfCalls(2)
+            .failureRateThreshold(50)
+            .build());
+        BulkheadRegistry bulkheads = BulkheadRegistry.of(BulkheadConfig.custom()
+            .maxConcurrentCalls(1)
+            .maxWaitDuration(Duration.ZERO)
+            .build());
+        guard = new DependencyGuard(breakers, bulkheads);
+        guard.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        guard.shutdown();
+    }
+
+    @Test
+    void shouldStopWaitingWhenBudgetRunsOut() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        LatencyBudget budget = LatencyBudget.start(Duration.ofMillis(20));
+
+        // When
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> guard.call(Dependency.REDIS, budget, () -> await(release)))
+            .isInstanceOf(BudgetExhaustedException.class);
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then: the hung call still holds the only bulkhead permit
+        assertThat(waitedMs).isLessThan(1000);
+        assertThat(guard.circuitBreaker(Dependency.REDIS).getMetrics().getNumberOfFailedCalls()).isEqualTo(1);
+        assertThatThrownBy(() -> guard.call(Dependency.REDIS, () -> "value"))
+            .isInstanceOf(BulkheadFullException.class);
+
+        release.countDown();
+    }
+
+    @Test
+    void shouldRejectCallsOnceBreakerOpens() {
+        // Given
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> guard.call(Dependency.POSTGRES, () -> {
+                throw new IllegalStateException("connection refused");
+            })).isInstanceOf(IllegalStateException.class);
+        }
+
+        // When / Then
+        assertThatThrownBy(() -> guard.call(Dependency.POSTGRES, () -> "value"))
+            .isInstanceOf(CallNotPermittedException.class);
+        assertThat(guard.call(Dependency.REDIS, () -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void shouldFailImmediatelyWhenBudgetIsAlreadySpent() {
+        // Given
+        LatencyBudget budget = LatencyBudget.start(Duration.ofNanos(1));
+
+        // When / Then
+        assertThatThrownBy(() -> guard.call(Dependency.REDIS, budget, () -> "value"))
+            .isInstanceOf(BudgetExhaustedException.class);
+        assertThat(guard.bulkhead(Dependency.REDIS).getMetrics().getAvailableConcurrentCalls()).isEqualTo(1);
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "late";
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.decision.service;
+
+import com.example.decision.model.FeatureSnapshot;
+import com.example.decision.model.FeatureSnapshot.Feature;
+import com.example.decision.model.UserProfile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisPipelineException;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FeatureServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ProfileNearCache profileNearCache;
+
+    @Mock
+    private LocalVelocityStore localVelocityStore;
+
+    private SimpleMeterRegistry meterRegistry;
+    private FeatureService featureService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        DependencyGuard dependencyGuard =
+            new DependencyGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults());
+        dependencyGuard.init();
+        featureService = new FeatureService(
+            redisTemplate, new ObjectMapper(), meterRegistry, profileNearCache, localVelocityStore, dependencyGuard);
+        featureService.init();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReturnDegradedSnapshotWhenRedisMissesBudget() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), any(), any(), any(List.class), any(Object[].class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(2000);
+                return List.of();
+            });
+
+        // When
+        long start = System.nanoTime();
+        FeatureSnapshot snapshot = featureService.fetchFeatures("user-001", LatencyBudget.start(Duration.ofMillis(30)));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Then
+        assertThat(elapsedMs).isLessThan(1000);
+        assertThat(snapshot.degraded()).isTrue();
+        assertThat(snapshot.missing()).containsExactlyInAnyOrder(Feature.PROFILE, Feature.VELOCITY);
+        assertThat(snapshot.velocity(Duration.ofMinutes(1))).isZero();
+        assertThat(meterRegistry.get("feature.errors").tag("type", "snapshot").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepNearCachedProfileWhenRedisFails() {
+        // Given
+        UserProfile profile = new UserProfile("user-002", new BigDecimal("100.00"), "US", Set.of(), Set.of(), 3, false);
+        when(profileNearCache.get("user-002")).thenReturn(profile);
+        when(redisTemplate.execute(any(RedisScript.class), any(), any(), any(List.class), any(Object[].class)))
+            .thenThrow(new IllegalStateException("connection refused"));
+
+        // When
+        FeatureSnapshot snapshot = featureService.fetchFeatures("user-002", LatencyBudget.start(Duration.ofMillis(50)));
+
+        // Then
+        assertThat(snapshot.profile()).isSameAs(profile);
+        assertThat(snapshot.missing()).containsExactly(Feature.VELOCITY);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteOwnedVelocityThroughToRedis() {
+        // Given: another instance reads this user's velocity from Redis
+        when(localVelocityStore.owns("user-003")).thenReturn(true);
+
+        // When
+        featureService.incrementVelocity("user-003");
+
+        // Then
+        verify(localVelocityStore).increment("user-003");
+        verify(redisTemplate).execute(any(RedisScript.class), any(), any(),
+            eq(List.of("velocity:user-003")), any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepOwnedVelocityLocalWithoutWriteThrough() {
+        // Given
+        ReflectionTestUtils.setField(featureService, "localWriteThrough", false);
+        when(localVelocityStore.owns("user-004")).thenReturn(true);
+
+        // When
+        featureService.incrementVelocity("user-004");
+
+        // Then
+        verify(localVelocityStore).increment("user-004");
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldLoadScriptOnceAndRetryBatchOnNoScript() {
+        // Given: Redis was restarted and lost its script cache
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisPipelineException(new IllegalStateException("NOSCRIPT No matching script")))
+            .thenReturn(List.of(1L, 1L));
+
+        // When
+        featureService.incrementVelocity(List.of("user-005", "user-006"));
+
+        // Then
+        ArgumentCaptor<RedisCallback<Object>> pipeline = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate, times(2)).executePipelined(pipeline.capture());
+        verify(redisTemplate).execute(any(RedisCallback.class));
+
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        pipeline.getValue().doInRedis(connection);
+        verify(scripting, times(2)).evalSha(any(String.class), eq(ReturnType.INTEGER), anyInt(), any(byte[][].class));
+        verify(scripting, times(0)).eval(any(), any(), anyInt(), any(byte[][].class));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.decision.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeyOrderedExecutorTest {
+
+    private ExecutorService pool;
+    private KeyOrderedExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(8);
+        executor = new KeyOrderedExecutor(pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void shouldRunTasksForSameKeyInSubmissionOrder() throws Exception {
+        // Given
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            int sequence = i;
+            futures.add(executor.submit("user-001", () -> order.add(sequence)));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(order).isSorted().hasSize(200);
+        assertThat(executor.activeKeys()).isZero();
+    }
+
+    @Test
+    void shouldRunDifferentKeysConcurrently() throws Exception {
+        // Given
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Runnable task = () -> {
+            bothRunning.countDown();
+            try {
+                bothRunning.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // When
+        CompletableFuture<Void> first = executor.submit("user-001", task);
+        CompletableFuture<Void> second = executor.submit("user-002", task);
+
+        // Then
+        CompletableFuture.allOf(first, second).get(5, TimeUnit.SECONDS);
+        assertThat(bothRunning.getCount()).isZero();
+    }
+
+    @Test
+    void shouldContinueLaneAfterFailedTask() throws Exception {
+        // Given
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        CompletableFuture<Void> failed = executor.submit("user-001", () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Void> next = executor.submit("user-001", () -> ran.add("next"));
+        next.get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(failed).isCompletedExceptionally();
+        assertThat(ran).containsExactly("next");
+    }
+}
@@ -2,22 +2,38 @@ package com.example.decision.service;
 
 import com.example.decision.model.Transaction;
 import com.example.decision.model.UserProfile;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class MLScoringServiceTest {
 
+    private static final String ONNX_MODEL = "classpath:models/risk-logreg-v1.onnx";
+
+    private SimpleMeterRegistry meterRegistry;
     private MLScoringService scoringService;
 
     @BeforeEach
     void setUp() {
-        scoringService = new MLScoringService();
+        meterRegistry = new SimpleMeterRegistry();
+        scoringService = new MLScoringService(meterRegistry);
+        scoringService.init();
     }
 
     @Test
@@ -72,6 +88,177 @@ class MLScoringServiceTest {
         assertThat(score).isGreaterThan(70.0);
     }
 
+    @Test
+    void shouldMatchBigDecimalScoringForRandomTransactions() {
+        // Given
+        Random random = new Random(8008);
+        LegacyMLScoringService legacy = new LegacyMLScoringService();
+
+        for (int i = 0; i < 100_000; i++) {
+            BigDecimal amount = randomAmount(random);
+            BigDecimal average = switch (random.nextInt(10)) {
+                case 0 -> null;
+                case 1 -> BigDecimal.ZERO;
+                default -> randomAmount(random);
+            };
+            Transaction transaction = createTransaction(amount, random.nextBoolean() ? "Merchant-A" : "Merchant-B",
+                random.nextBoolean() ? "device-001" : "device-002", random.nextInt(8) == 0 ? null : "CA");
+            UserProfile profile = new UserProfile(
+                "user-test", average, random.nextBoolean() ? "US" : "CA",
+                Set.of("device-001"), Set.of("Merchant-A"), 50, false);
+            int velocity1m = random.nextInt(7);
+            int velocity5m = random.nextInt(20);
+
+            // When
+            double score = scoringService.calculateRiskScore(transaction, profile, velocity1m, velocity5m);
+
+            // Then
+            double expected = legacy.calculateRiskScore(transaction, profile, velocity1m, velocity5m);
+            assertThat(Double.doubleToRawLongBits(score))
+                .as("amount %s, average %s, velocity %d/%d", amount, average, velocity1m, velocity5m)
+                .isEqualTo(Double.doubleToRawLongBits(expected));
+        }
+    }
+
+    @Test
+    void shouldMatchBigDecimalAmountScoreAroundRatioCutoffs() {
+        // Given
+        Random random = new Random(5005);
+        String[] ratioCutoffs = {"10.00005", "5.00005", "3.00005", "2.00005"};
+        BigDecimal noHistoryCutoff = new BigDecimal("1000");
+
+        for (int i = 0; i < 100_000; i++) {
+            // Land exactly on, or a few units of the last place either side of, a cut-off
+            BigDecimal offset = BigDecimal.valueOf(random.nextInt(7) - 3, 4 + random.nextInt(14));
+            BigDecimal average = random.nextInt(10) == 0 ? null : randomAmount(random);
+            BigDecimal amount = average == null
+                ? noHistoryCutoff.add(offset)
+                : average.multiply(new BigDecimal(ratioCutoffs[random.nextInt(ratioCutoffs.length)]).add(offset));
+
+            // When
+            double score = MLScoringService.calculateAmountScore(amount, average);
+
+            // Then
+            assertThat(score)
+                .as("amount %s, average %s", amount, average)
+                .isEqualTo(LegacyMLScoringService.calculateAmountScore(amount, average));
+        }
+    }
+
+    @Test
+    void shouldMatchBigDecimalRoundingForMidpointsAndRandomValues() {
+        // Given
+        Random random = new Random(4242);
+
+        for (int i = 0; i < 100_000; i++) {
+            double value = switch (random.nextInt(3)) {
+                case 0 -> random.nextDouble() * 100;
+                // Midpoints such as 42.125, which are not exact in binary
+                case 1 -> BigDecimal.valueOf(random.nextInt(10_000) * 10L + 5, 3).doubleValue();
+                default -> Math.nextAfter(random.nextInt(100_000) / 1000.0, random.nextBoolean() ? 0 : 100);
+            };
+
+            // When
+            double rounded = MLScoringService.roundToHundredths(value);
+
+            // Then
+            assertThat(Double.doubleToRawLongBits(rounded))
+                .as("value %s", value)
+                .isEqualTo(Double.doubleToRawLongBits(LegacyMLScoringService.round(value, 2)));
+        }
+    }
+
+    @Test
+    void shouldScoreWithBundledOnnxModelAndRecordPerModelLatency() {
+        // Given
+        Transaction risky = createTransaction("10000.00");
+        Transaction normal = createTransaction("100.00");
+        UserProfile profile = createProfile("100.00", true, true);
+        UserProfile trusted = createProfile("100.00", false, false);
+
+        ReflectionTestUtils.setField(scoringService, "latencySampling", 1);
+
+        // When
+        scoringService.loadModel(ONNX_MODEL);
+        double riskyScore = scoringService.calculateRiskScore(risky, profile, 5, 15);
+        double normalScore = scoringService.calculateRiskScore(normal, trusted, 0, 0);
+
+        // Then
+        assertThat(scoringService.activeModel()).isEqualTo("onnx:risk-logreg-v1");
+        assertThat(riskyScore).isBetween(90.0, 100.0);
+        assertThat(normalScore).isLessThan(10.0);
+        assertThat(meterRegistry.get("model.inference.latency").tag("model", "onnx:risk-logreg-v1").timer().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepServingCurrentModelWhenNewModelFailsToLoad() {
+        // Given
+        Transaction transaction = createTransaction("100.00");
+        UserProfile profile = createProfile("100.00", false, false);
+        double before = scoringService.calculateRiskScore(transaction, profile, 0, 0);
+
+        // When / Then
+        assertThatThrownBy(() -> scoringService.loadModel("classpath:models/missing.onnx"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThat(scoringService.activeModel()).isEqualTo("heuristic");
+        assertThat(scoringService.calculateRiskScore(transaction, profile, 0, 0)).isEqualTo(before);
+    }
+
+    @Test
+    void shouldCoalesceConcurrentCallsIntoMicroBatches() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(scoringService, "batchingEnabled", true);
+        ReflectionTestUtils.setField(scoringService, "batchWindowMicros", 20_000L);
+        ReflectionTestUtils.setField(scoringService, "modelLocation", ONNX_MODEL);
+        scoringService.init();
+        Transaction transaction = createTransaction("100.00");
+        UserProfile profile = createProfile("100.00", false, false);
+        double expected = scoringService.calculateRiskScore(transaction, profile, 0, 0);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            // When
+            List<Future<Double>> scores = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                scores.add(executor.submit(() -> scoringService.calculateRiskScore(transaction, profile, 0, 0)));
+            }
+
+            // Then
+            for (Future<Double> score : scores) {
+                assertThat(score.get(5, TimeUnit.SECONDS)).isEqualTo(expected);
+            }
+            DistributionSummary batchSize = meterRegistry.get("model.batch.size")
+                .tag("model", "onnx:risk-logreg-v1").summary();
+            assertThat(batchSize.max()).isGreaterThan(1.0);
+            assertThat(batchSize.count()).isLessThan(33);
+        } finally {
+            executor.shutdownNow();
+            scoringService.shutdown();
+        }
+    }
+
+    private BigDecimal randomAmount(Random random) {
+        // Mostly currency amounts, sometimes finer scales and extreme magnitudes
+        int scale = random.nextInt(4) == 0 ? random.nextInt(8) : 2;
+        long unscaled = 1 + (long) (Math.pow(10, 1 + random.nextInt(9)) * random.nextDouble());
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private Transaction createTransaction(BigDecimal amount, String merchant, String deviceId, String location) {
+        return new Transaction(
+            "txn-test",
+            "user-test",
+            amount,
+            "USD",
+            merchant,
+            "RETAIL",
+            deviceId,
+            location,
+            Instant.now()
+        );
+    }
+
     private Transaction createTransaction(String amount) {
         return new Transaction(
             "txn-test",
@@ -0,0 +1,102 @@
+package com.example.decision.service;
+
+import com.example.decision.model.UserProfile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ProfileNearCacheTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProfileNearCache nearCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        nearCache = new ProfileNearCache(stringRedisTemplate, listenerContainer, meterRegistry);
+        nearCache.init();
+    }
+
+    @Test
+    void shouldServeCachedProfileAndRecordHits() {
+        // Given
+        nearCache.put("user-001", createProfile("user-001"));
+
+        // When
+        UserProfile hit = nearCache.get("user-001");
+        UserProfile miss = nearCache.get("user-002");
+
+        // Then
+        assertThat(hit).isNotNull();
+        assertThat(miss).isNull();
+        assertThat(meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count())
+            .isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldInvalidateOnMessageFromOtherInstance() {
+        // Given
+        nearCache.put("user-001", createProfile("user-001"));
+
+        // When
+        nearCache.onMessage(message("other-node:user-001"), null);
+
+        // Then
+        assertThat(nearCache.get("user-001")).isNull();
+    }
+
+    @Test
+    void shouldIgnoreOwnInvalidationMessage() {
+        // Given
+        nearCache.update("user-001", createProfile("user-001"));
+        ArgumentCaptor<String> published = ArgumentCaptor.forClass(String.class);
+        verify(stringRedisTemplate).convertAndSend(eq(ProfileNearCache.INVALIDATION_CHANNEL), published.capture());
+
+        // When
+        nearCache.onMessage(message(published.getValue()), null);
+
+        // Then
+        assertThat(nearCache.get("user-001")).isNotNull();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(
+            ProfileNearCache.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            body.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+
+    private UserProfile createProfile(String userId) {
+        return new UserProfile(
+            userId,
+            new BigDecimal("100.00"),
+            "US",
+            Set.of("device-001"),
+            Set.of(),
+            10,
+            false
+        );
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.decision.service;
+
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import org.drools.modelcompiler.CanonicalKieModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleEngineServiceTest {
+
+    private RuleEngineService ruleEngineService;
+
+    @BeforeEach
+    void setUp() {
+        ruleEngineService = new RuleEngineService();
+    }
+
+    @Test
+    void shouldApproveWhenNoRuleFires() {
+        // When
+        RuleResult result = ruleEngineService.evaluate(
+            createTransaction("100.00", "US"), createProfile(true), 0, 0);
+
+        // Then
+        assertThat(result.getSuggestedOutcome()).isEqualTo(DecisionOutcome.APPROVE);
+        assertThat(result.getFiredRules()).containsExactly("DEFAULT_APPROVE");
+        assertThat(result.getReasonCodes()).isEmpty();
+        assertThat(result.getRuleVersion()).isEqualTo("v1");
+    }
+
+    @Test
+    void shouldRejectHighAmountOnNewDeviceAndStop() {
+        // When
+        RuleResult result = ruleEngineService.evaluate(
+            createTransaction("15000.00", "CA"), createProfile(false), 10, 20);
+
+        // Then
+        assertThat(result.getSuggestedOutcome()).isEqualTo(DecisionOutcome.REJECT);
+        assertThat(result.getFiredRules()).containsExactly("HIGH_AMOUNT_NEW_DEVICE");
+        assertThat(result.getReasonCodes()).containsExactly("HIGH_AMOUNT_NEW_DEVICE");
+    }
+
+    @Test
+    void shouldRejectHighVelocity() {
+        // When
+        RuleResult result = ruleEngineService.evaluate(
+            createTransaction("100.00", "US"), createProfile(true), 5, 0);
+
+        // Then
+        assertThat(result.getSuggestedOutcome()).isEqualTo(DecisionOutcome.REJECT);
+        assertThat(result.getReasonCodes()).containsExactly("HIGH_VELOCITY");
+    }
+
+    @Test
+    void shouldAccumulateReviewRulesInFiringOrder() {
+        // When
+        RuleResult result = ruleEngineService.evaluate(
+            createTransaction("6000.00", "CA"), createProfile(false), 0, 10);
+
+        // Then
+        assertThat(result.getSuggestedOutcome()).isEqualTo(DecisionOutcome.REVIEW);
+        assertThat(result.getFiredRules()).containsExactly(
+            "MEDIUM_VELOCITY_5M", "NEW_DEVICE_UNUSUAL_LOCATION", "HIGH_AMOUNT_THRESHOLD", "AMOUNT_DEVIATION");
+        assertThat(result.getReasonCodes()).containsExactly(
+            "ELEVATED_VELOCITY", "NEW_DEVICE", "UNUSUAL_LOCATION", "HIGH_AMOUNT", "AMOUNT_ANOMALY");
+    }
+
+    @Test
+    void shouldShareImmutableResults() {
+        // When
+        RuleResult first = ruleEngineService.evaluate(
+            createTransaction("100.00", "US"), createProfile(true), 0, 0);
+        RuleResult second = ruleEngineService.evaluate(
+            createTransaction("120.00", "US"), createProfile(true), 1, 1);
+
+        // Then
+        assertThat(first).isSameAs(second);
+        assertThatThrownBy(() -> first.addReasonCode("X")).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> first.getReasonCodes().add("X")).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void shouldReturnSameResultsWithDroolsAsWithJavaRules() {
+        // Given
+        RuleEngineService java = initializedService(RuleEngineService.Engine.JAVA);
+        RuleEngineService drools = initializedService(RuleEngineService.Engine.DROOLS);
+        List<Transaction> transactions = List.of(
+            createTransaction("100.00", "US"), createTransaction("6000.00", "CA"),
+            createTransaction("15000.00", "US"), createTransaction("5000.01", "US"));
+
+        // Then
+        for (Transaction transaction : transactions) {
+            for (boolean trusted : new boolean[] {true, false}) {
+                for (int[] velocity : new int[][] {{0, 0}, {4, 10}, {5, 0}}) {
+                    UserProfile profile = createProfile(trusted);
+                    // Each service compiles its own rule set, so the results are equal, not shared
+                    assertThat(drools.evaluate(transaction, profile, velocity[0], velocity[1]))
+                        .usingRecursiveComparison()
+                        .isEqualTo(java.evaluate(transaction, profile, velocity[0], velocity[1]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldLoadDroolsRulesCompiledAtBuildTime() {
+        // When
+        RuleEngineService drools = initializedService(RuleEngineService.Engine.DROOLS);
+
+        // Then: the executable model RuleModelCompiler wrote in process-classes
+        KieServices kieServices = KieServices.Factory.get();
+        assertThat(kieServices.getRepository().getKieModule(
+                kieServices.newReleaseId("com.example.decision", "fraud-rules", "1.0.0")))
+            .isInstanceOf(CanonicalKieModule.class);
+        assertThat(drools.activeVersion()).isEqualTo("v1");
+    }
+
+    @Test
+    void shouldKeepServingCurrentRulesWhenVersionDoesNotExist() {
+        // Given
+        RuleEngineService drools = initializedService(RuleEngineService.Engine.DROOLS);
+
+        // When / Then
+        assertThatThrownBy(() -> drools.reloadRules("v404").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(drools.activeVersion()).isEqualTo("v1");
+        assertThat(drools.evaluate(createTransaction("100.00", "US"), createProfile(true), 0, 0)
+            .getSuggestedOutcome()).isEqualTo(DecisionOutcome.APPROVE);
+    }
+
+    @Test
+    void shouldRejectVersionWithoutJavaRules() {
+        // Given
+        RuleEngineService java = initializedService(RuleEngineService.Engine.JAVA);
+
+        // When / Then
+        assertThatThrownBy(() -> java.reloadRules("v404").join())
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> java.buildVersion("v404")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(java.activeVersion()).isEqualTo("v1");
+    }
+
+    @Test
+    void shouldSwapRebuiltVersion() {
+        // Given
+        RuleEngineService drools = initializedService(RuleEngineService.Engine.DROOLS);
+        RuleResult before = drools.evaluate(createTransaction("100.00", "US"), createProfile(true), 0, 0);
+
+        // When
+        drools.reloadRules("v1").join();
+
+        // Then
+        RuleResult after = drools.evaluate(createTransaction("100.00", "US"), createProfile(true), 0, 0);
+        assertThat(after).isNotSameAs(before).usingRecursiveComparison().isEqualTo(before);
+    }
+
+    private Transaction createTransaction(String amount, String location) {
+        return new Transaction(
+            "txn-rules",
+            "user-rules",
+            new BigDecimal(amount),
+            "USD",
+            "Merchant-A",
+            "RETAIL",
+            "device-001",
+            location,
+            Instant.now()
+        );
+    }
+
+    private RuleEngineService initializedService(RuleEngineService.Engine engine) {
+        RuleEngineService service = new RuleEngineService();
+        ReflectionTestUtils.setField(service, "engine", engine);
+        service.init();
+        return service;
+    }
+
+    private UserProfile createProfile(boolean trustedDevice) {
+        return new UserProfile(
+            "user-rules",
+            new BigDecimal("1000.00"),
+            "US",
+            trustedDevice ? Set.of("device-001") : Set.of(),
+            Set.of(),
+            20,
+            false
+        );
+    }
+}
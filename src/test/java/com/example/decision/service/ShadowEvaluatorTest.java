@@ -0,0 +1,197 @@
+package com.example.decision.service;
+
+import com.example.decision.model.Decision;
+import com.example.decision.model.DecisionOutcome;
+import com.example.decision.model.RuleResult;
+import com.example.decision.model.ShadowDecision;
+import com.example.decision.model.Transaction;
+import com.example.decision.model.UserProfile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ShadowEvaluatorTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private MeterRegistry meterRegistry;
+    private RuleEngineService ruleEngineService;
+    private MLScoringService mlScoringService;
+    private ShadowEvaluator shadowEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ruleEngineService = new RuleEngineService();
+        ruleEngineService.init();
+        mlScoringService = new MLScoringService(meterRegistry);
+        mlScoringService.init();
+        shadowEvaluator = new ShadowEvaluator(ruleEngineService, mlScoringService, kafkaTemplate, meterRegistry);
+        ReflectionTestUtils.setField(shadowEvaluator, "enabled", true);
+        ReflectionTestUtils.setField(shadowEvaluator, "sampleRate", 1.0);
+        ReflectionTestUtils.setField(shadowEvaluator, "ruleVersions", List.of("v1", "v404"));
+        ReflectionTestUtils.setField(shadowEvaluator, "modelLocations", List.of("heuristic"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shadowEvaluator.shutdown();
+        ruleEngineService.shutdown();
+    }
+
+    @Test
+    void shouldPublishAgreementForEachChallenger() {
+        // Given
+        shadowEvaluator.init();
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(new CompletableFuture<>());
+        Transaction transaction = createTransaction("txn-shadow-1");
+        UserProfile profile = createProfile();
+        RuleResult rules = ruleEngineService.evaluate(transaction, profile, 1, 2);
+        double riskScore = mlScoringService.calculateRiskScore(transaction, profile, 1, 2);
+
+        // When
+        shadowEvaluator.submit(transaction, profile, 1, 2, rules,
+            championDecision(transaction, DecisionService.determineOutcome(rules, riskScore), riskScore));
+
+        // Then: v404 does not exist and was skipped
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(5000).times(2))
+            .send(eq("decision-shadow"), eq("txn-shadow-1"), published.capture());
+        assertThat(published.getAllValues())
+            .extracting(shadow -> ((ShadowDecision) shadow).challenger())
+            .containsExactlyInAnyOrder("rules:v1", "model:heuristic");
+        assertThat(published.getAllValues()).allMatch(shadow -> ((ShadowDecision) shadow).agrees());
+        assertThat(meterRegistry.get("decision.shadow.comparisons")
+            .tags("challenger", "rules:v1", "result", "agree").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("decision.shadow.comparisons")
+            .tags("challenger", "model:heuristic", "result", "agree").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldCountDisagreement() {
+        // Given
+        shadowEvaluator.init();
+        when(kafkaTemplate.send(any(), any(), any())).thenReturn(new CompletableFuture<>());
+        Transaction transaction = createTransaction("txn-shadow-2");
+        UserProfile profile = createProfile();
+        RuleResult rules = ruleEngineService.evaluate(transaction, profile, 0, 0);
+
+        // When: the champion rejected what both challengers approve
+        shadowEvaluator.submit(transaction, profile, 0, 0, rules,
+            championDecision(transaction, DecisionOutcome.REJECT, 10.0));
+
+        // Then
+        ArgumentCaptor<Object> published = ArgumentCaptor.forClass(Object.class);
+        verify(kafkaTemplate, timeout(5000).times(2)).send(eq("decision-shadow"), any(), published.capture());
+        assertThat(published.getAllValues())
+            .extracting(shadow -> ((ShadowDecision) shadow).challengerOutcome())
+            .containsOnly(DecisionOutcome.APPROVE);
+        assertThat(meterRegistry.get("decision.shadow.comparisons")
+            .tags("challenger", "rules:v1", "result", "disagree").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldNotShadowUnsampledDecisions() {
+        // Given
+        ReflectionTestUtils.setField(shadowEvaluator, "sampleRate", 0.0);
+        shadowEvaluator.init();
+        Transaction transaction = createTransaction("txn-shadow-3");
+        UserProfile profile = createProfile();
+        RuleResult rules = ruleEngineService.evaluate(transaction, profile, 0, 0);
+
+        // When
+        shadowEvaluator.submit(transaction, profile, 0, 0, rules,
+            championDecision(transaction, DecisionOutcome.APPROVE, 10.0));
+
+        // Then
+        assertThat(shadowEvaluator.sampled("txn-shadow-3")).isFalse();
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void shouldSkipDegradedDecisions() {
+        // Given
+        shadowEvaluator.init();
+        Transaction transaction = createTransaction("txn-shadow-4");
+        UserProfile profile = createProfile();
+        RuleResult rules = ruleEngineService.evaluate(transaction, profile, 0, 0);
+        Decision degraded = new Decision("txn-shadow-4", "user-shadow", DecisionOutcome.REVIEW, 10.0,
+            List.of(), "v1", 1, Instant.now(), List.of("VELOCITY"));
+
+        // When
+        shadowEvaluator.submit(transaction, profile, 0, 0, rules, degraded);
+
+        // Then
+        verify(kafkaTemplate, after(200).never()).send(any(), any(), any());
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        // Given
+        ReflectionTestUtils.setField(shadowEvaluator, "enabled", false);
+        shadowEvaluator.init();
+        Transaction transaction = createTransaction("txn-shadow-5");
+        UserProfile profile = createProfile();
+        RuleResult rules = ruleEngineService.evaluate(transaction, profile, 0, 0);
+
+        // When
+        shadowEvaluator.submit(transaction, profile, 0, 0, rules,
+            championDecision(transaction, DecisionOutcome.APPROVE, 10.0));
+
+        // Then
+        verifyNoInteractions(kafkaTemplate);
+        assertThat(meterRegistry.find("decision.shadow.comparisons").counters()).isEmpty();
+    }
+
+    private Decision championDecision(Transaction transaction, DecisionOutcome outcome, double riskScore) {
+        return new Decision(transaction.transactionId(), transaction.userId(), outcome, riskScore,
+            List.of(), "v1", 1, Instant.now());
+    }
+
+    private Transaction createTransaction(String txnId) {
+        return new Transaction(
+            txnId,
+            "user-shadow",
+            new BigDecimal("120.00"),
+            "USD",
+            "Merchant-A",
+            "RETAIL",
+            "device-001",
+            "US",
+            Instant.now()
+        );
+    }
+
+    private UserProfile createProfile() {
+        return new UserProfile(
+            "user-shadow",
+            new BigDecimal("100.00"),
+            "US",
+            Set.of("device-001"),
+            Set.of("Merchant-A"),
+            20,
+            false
+        );
+    }
+}
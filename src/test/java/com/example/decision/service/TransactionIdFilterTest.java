@@ -0,0 +1,53 @@
+package com.example.decision.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransactionIdFilterTest {
+
+    @Test
+    void shouldNeverMissAddedIdsAndStayNearTargetFalsePositiveRate() {
+        // Given
+        TransactionIdFilter filter = new TransactionIdFilter(10_000, 0.01);
+        for (int i = 0; i < 9_999; i++) {
+            filter.put("txn-" + i);
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        for (int i = 0; i < 9_999; i++) {
+            assertThat(filter.mightContain("txn-" + i)).as("txn-" + i).isTrue();
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldKeepPreviousGenerationAndDropOlderOnes() {
+        // Given
+        TransactionIdFilter filter = new TransactionIdFilter(1_000, 0.001);
+
+        // When
+        for (int i = 0; i < 3_000; i++) {
+            filter.put("txn-" + i);
+        }
+
+        // Then
+        for (int i = 1_000; i < 3_000; i++) {
+            assertThat(filter.mightContain("txn-" + i)).as("txn-" + i).isTrue();
+        }
+        long remembered = IntStream.range(0, 1_000)
+            .filter(i -> filter.mightContain("txn-" + i))
+            .count();
+        assertThat(remembered).isLessThan(50);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.decision.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VelocityRingCounterTest {
+
+    @Test
+    void shouldCountOnlyBucketsInsideWindow() {
+        // Given
+        VelocityRingCounter counter = new VelocityRingCounter(120);
+        counter.increment(100);
+        counter.increment(100);
+        counter.increment(110);
+        counter.increment(150);
+
+        // Then
+        assertThat(counter.count(150, 12)).isEqualTo(1);
+        assertThat(counter.count(150, 60)).isEqualTo(4);
+        assertThat(counter.count(150, 41)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropBucketsThatFallOutOfRing() {
+        // Given
+        VelocityRingCounter counter = new VelocityRingCounter(10);
+        counter.increment(1);
+        counter.increment(5);
+
+        // When
+        counter.increment(12);
+
+        // Then
+        assertThat(counter.count(12, 10)).isEqualTo(2);
+        assertThat(counter.isExpired(21)).isFalse();
+        assertThat(counter.isExpired(22)).isTrue();
+    }
+
+    @Test
+    void shouldRoundTripThroughSnapshot() {
+        // Given
+        VelocityRingCounter counter = new VelocityRingCounter(10);
+        counter.increment(40);
+        counter.increment(43);
+        counter.increment(43);
+
+        // When
+        VelocityRingCounter restored = new VelocityRingCounter(10);
+        restored.restore(counter.headBucket(), counter.toArray());
+
+        // Then
+        assertThat(restored.count(45, 10)).isEqualTo(3);
+        assertThat(restored.count(45, 3)).isEqualTo(2);
+    }
+
+    @Test
+    void shouldMatchDefaultKafkaPartitioner() {
+        assertThat(LocalVelocityStore.partitionFor("user-001", 3))
+            .isBetween(0, 2)
+            .isEqualTo(LocalVelocityStore.partitionFor("user-001", 3));
+        assertThat(LocalVelocityStore.partitionFor("user-001", 0)).isEqualTo(-1);
+    }
+}